@@ -1,5 +1,14 @@
 package com.ling.observable.controller;
 
+import com.ling.observable.observable.ItemFilter;
+import com.ling.observable.observable.OverflowPolicy;
+import com.ling.observable.observable.RatePolicy;
+import com.ling.observable.observable.RetentionPolicy;
+import com.ling.observable.observable.Subscription;
+import com.ling.observable.observable.SubscriptionLag;
+import com.ling.observable.observable.SubscriptionMode;
+import com.ling.observable.observable.ThrottleMode;
+import com.ling.observable.observable.WindowSpec;
 import com.ling.observable.observable.service.ObservableService;
 import com.ling.observable.observable.service.SubscriptionConsumerService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +17,8 @@ import org.springframework.web.bind.annotation.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -36,24 +47,92 @@ public class ObservableController {
     /**
      * 创建一个新的Observable实例
      * 
+     * @param options 可选的创建参数：topic、retentionMaxItems、retentionMaxBytes、retentionMaxAgeMs、
+     *                rateItemsPerSecond、rateBytesPerSecond；topic为层级主题名，例如 orders/eu/de
      * @return 包含新创建的Observable ID的响应
      */
     @PostMapping("/create")
-    public ResponseEntity<Map<String, Object>> createObservable() {
-        Long observableId = observableService.createObservable();
-        logger.info("创建新的Observable实例，ID: {}", observableId);
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("observableId", observableId);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<Map<String, Object>> createObservable(
+            @RequestBody(required = false) Map<String, Object> options) {
+        try {
+            Long observableId;
+            String topic = null;
+            if (options == null || options.isEmpty()) {
+                observableId = observableService.createObservable();
+            } else {
+                RetentionPolicy retentionPolicy = observableService.retentionPolicy(
+                        longOption(options, "retentionMaxItems"),
+                        longOption(options, "retentionMaxBytes"),
+                        longOption(options, "retentionMaxAgeMs"));
+                RatePolicy ratePolicy = observableService.ratePolicy(
+                        longOption(options, "rateItemsPerSecond"),
+                        longOption(options, "rateBytesPerSecond"));
+                topic = options.get("topic") != null ? options.get("topic").toString() : null;
+                observableId = observableService.createObservable(topic, retentionPolicy, ratePolicy);
+            }
+            logger.info("创建新的Observable实例，ID: {}，主题: {}", observableId, topic);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("observableId", observableId);
+            if (topic != null) {
+                response.put("topic", topic);
+            }
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("创建Observable时发生异常，异常: {}", e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to create observable: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 读取数值类型的请求参数
+     *
+     * @param options 请求参数
+     * @param key     参数名
+     * @return 参数值，不存在时返回null
+     */
+    private Long longOption(Map<String, Object> options, String key) {
+        Object value = options.get(key);
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return value == null ? null : Long.parseLong(value.toString());
     }
     
+    /**
+     * 解析过滤条件
+     *
+     * @param filters 请求体，equals为字段到期望值的映射，ranges为字段到{min, max}的映射
+     * @return 过滤条件，没有条件时返回null
+     */
+    private ItemFilter itemFilter(Map<String, Object> filters) {
+        if (filters == null || filters.isEmpty()) {
+            return null;
+        }
+        ItemFilter filter = new ItemFilter();
+        if (filters.get("equals") instanceof Map<?, ?> equals) {
+            equals.forEach((field, value) -> filter.equalTo(field.toString(), value));
+        }
+        if (filters.get("ranges") instanceof Map<?, ?> ranges) {
+            ranges.forEach((field, range) -> {
+                if (range instanceof Map<?, ?> bounds) {
+                    filter.range(field.toString(), bounds.get("min"), bounds.get("max"));
+                }
+            });
+        }
+        return filter;
+    }
+
     /**
      * 向指定的Observable添加数据
      * 
      * @param observableId Observable ID
-     * @param data 要添加的数据
+     * @param data 要添加的数据，可选的priority指定优先级，数值越大越优先，不指定时为0；
+     *             可选的delayMs或at（毫秒时间戳）指定延迟或定时添加，不能与priority同时使用
      * @return 操作结果
      */
     @PostMapping("/{observableId}/data")
@@ -63,8 +142,23 @@ public class ObservableController {
         
         try {
             Object item = data.get("data");
-            boolean success = observableService.addData(observableId, item);
-            logger.info("向Observable添加数据，ID: {}，数据: {}，结果: {}", observableId, item, success);
+            Long priority = longOption(data, "priority");
+            Long delayMs = longOption(data, "delayMs");
+            Long at = longOption(data, "at");
+            if (priority != null && (delayMs != null || at != null)) {
+                throw new IllegalArgumentException("priority cannot be combined with delayMs or at");
+            }
+            boolean success;
+            if (delayMs != null) {
+                success = observableService.addDataAfter(observableId, item, Duration.ofMillis(delayMs));
+            } else if (at != null) {
+                success = observableService.addDataAt(observableId, item, Instant.ofEpochMilli(at));
+            } else if (priority != null) {
+                success = observableService.addData(observableId, item, priority.intValue());
+            } else {
+                success = observableService.addData(observableId, item);
+            }
+            logger.info("向Observable添加数据，ID: {}，数据: {}，优先级: {}，结果: {}", observableId, item, priority, success);
             
             if (success) {
                 Map<String, Object> response = new HashMap<>();
@@ -86,6 +180,53 @@ public class ObservableController {
         }
     }
     
+    /**
+     * 在指定的Observable上创建窗口统计
+     * 结果写入新创建的派生Observable，通过返回的observableId像其他Observable一样订阅
+     *
+     * @param observableId Observable ID
+     * @param options 窗口参数：type为count（按数量，默认）或time（按时间，单位毫秒），size为窗口大小，
+     *                slide为滑动步长（默认等于size，即滚动窗口），field为参与统计的数值字段（不指定时只统计数量）
+     * @return 包含派生Observable ID的响应
+     */
+    @PostMapping("/{observableId}/window")
+    public ResponseEntity<Map<String, Object>> createWindow(
+            @PathVariable Long observableId,
+            @RequestBody Map<String, Object> options) {
+        try {
+            Long size = longOption(options, "size");
+            Long slide = longOption(options, "slide");
+            if (size == null) {
+                throw new IllegalArgumentException("Window size is required");
+            }
+            if (slide == null) {
+                slide = size;
+            }
+            WindowSpec spec = "time".equalsIgnoreCase(String.valueOf(options.get("type")))
+                    ? WindowSpec.slidingTime(Duration.ofMillis(size), Duration.ofMillis(slide))
+                    : WindowSpec.slidingCount(size, slide);
+            Object field = options.get("field");
+            Long windowId = observableService.createWindow(observableId, spec, field != null ? field.toString() : null);
+            logger.info("创建窗口统计，Observable ID: {}，窗口: {}，派生Observable ID: {}", observableId, spec, windowId);
+
+            Map<String, Object> response = new HashMap<>();
+            if (windowId == null) {
+                response.put("success", false);
+                response.put("message", "Observable not found");
+                return ResponseEntity.badRequest().body(response);
+            }
+            response.put("success", true);
+            response.put("observableId", windowId);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("创建窗口统计时发生异常，ID: {}，异常: {}", observableId, e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to create window: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     /**
      * 获取指定Observable的订阅者数量
      *
@@ -123,12 +264,62 @@ public class ObservableController {
      * 为指定的Observable创建订阅
      * 
      * @param observableId Observable ID
+     * @param mode 订阅模式：queue（默认）、cursor或conflating
+     * @param fromSequence 可选，从该序号开始回放保留的历史数据
+     * @param fromTimestamp 可选，从该时间（毫秒时间戳）开始回放保留的历史数据
+     * @param filters 可选的过滤条件，例如 {"equals": {"type": "order"}, "ranges": {"price": {"min": 10, "max": 20}}}
+     * @param key 合并模式（mode=conflating）下作为键的字段名，每个键只保留最新的数据项
+     * @param throttle 可选的限流方式：throttle_first、throttle_last或debounce，需要同时指定intervalMs；
+     *                 限流订阅不支持mode、回放、key、capacity和过滤条件，同时指定时返回400
+     * @param intervalMs 限流间隔（毫秒）
+     * @param capacity 可选的缓冲区容量，不指定时使用配置的默认值；
+     *                 指定容量的订阅为队列模式，不支持回放、key和过滤条件，同时指定时返回400
+     * @param overflow 缓冲区已满时的策略：block_producer、drop_oldest（默认）、drop_newest或fail_subscriber，需要同时指定capacity
      * @return 包含新创建的Subscription ID的响应
      */
     @PostMapping("/{observableId}/subscribe")
-    public ResponseEntity<Map<String, Object>> subscribe(@PathVariable Long observableId) {
+    public ResponseEntity<Map<String, Object>> subscribe(
+            @PathVariable Long observableId,
+            @RequestParam(value = "mode", required = false) String mode,
+            @RequestParam(value = "fromSequence", required = false) Long fromSequence,
+            @RequestParam(value = "fromTimestamp", required = false) Long fromTimestamp,
+            @RequestParam(value = "key", required = false) String key,
+            @RequestParam(value = "throttle", required = false) String throttle,
+            @RequestParam(value = "intervalMs", required = false) Long intervalMs,
+            @RequestParam(value = "capacity", required = false) Integer capacity,
+            @RequestParam(value = "overflow", required = false) String overflow,
+            @RequestBody(required = false) Map<String, Object> filters) {
         try {
-            Long subscriptionId = observableService.subscribe(observableId);
+            Long subscriptionId;
+            if (throttle != null) {
+                if (intervalMs == null) {
+                    throw new IllegalArgumentException("intervalMs is required for throttled subscriptions");
+                }
+                if (mode != null || fromSequence != null || fromTimestamp != null || key != null || capacity != null
+                        || overflow != null || itemFilter(filters) != null) {
+                    throw new IllegalArgumentException("throttle cannot be combined with mode, fromSequence, "
+                            + "fromTimestamp, key, capacity, overflow or filters");
+                }
+                subscriptionId = observableService.subscribe(observableId,
+                        ThrottleMode.valueOf(throttle.toUpperCase()), Duration.ofMillis(intervalMs));
+            } else if (intervalMs != null) {
+                throw new IllegalArgumentException("intervalMs requires throttle");
+            } else if (capacity != null) {
+                if ((mode != null && SubscriptionMode.valueOf(mode.toUpperCase()) != SubscriptionMode.QUEUE)
+                        || fromSequence != null || fromTimestamp != null || key != null || itemFilter(filters) != null) {
+                    throw new IllegalArgumentException(
+                            "capacity cannot be combined with a non-queue mode, fromSequence, fromTimestamp, key or filters");
+                }
+                OverflowPolicy overflowPolicy = overflow == null
+                        ? OverflowPolicy.DROP_OLDEST : OverflowPolicy.valueOf(overflow.toUpperCase());
+                subscriptionId = observableService.subscribe(observableId, capacity, overflowPolicy);
+            } else if (overflow != null) {
+                throw new IllegalArgumentException("overflow requires capacity");
+            } else {
+                SubscriptionMode subscriptionMode = SubscriptionMode.valueOf(mode == null ? "QUEUE" : mode.toUpperCase());
+                subscriptionId = observableService.subscribe(observableId, subscriptionMode, fromSequence, fromTimestamp,
+                        itemFilter(filters), key);
+            }
             logger.info("为Observable创建订阅，Observable ID: {}，Subscription ID: {}", observableId, subscriptionId);
             
             if (subscriptionId == null) {
@@ -214,6 +405,15 @@ public class ObservableController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("data", data);
+            // 消费位置，断线重连时以position+1作为fromSequence继续订阅
+            Subscription<Object> subscription = observableService.getSubscription(observableId, subscriptionId);
+            if (subscription != null) {
+                response.put("position", subscription.getPosition());
+                // 丢弃的数据项数量，分别统计缓冲区已满与降级期间丢弃的数量
+                response.put("dropped", subscription.getDroppedCount());
+                response.put("droppedOverflow", subscription.getOverflowDroppedCount());
+                response.put("droppedDegraded", subscription.getDegradedDroppedCount());
+            }
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             logger.error("获取数据时发生异常，Observable ID: {}，Subscription ID: {}，异常: {}", 
@@ -254,4 +454,371 @@ public class ObservableController {
             return ResponseEntity.badRequest().body(response);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取指定订阅的落后程度，以及该Observable因落后过多被移除的订阅者数量
+     *
+     * @param observableId Observable ID
+     * @param subscriptionId Subscription ID
+     * @return 未读取数据项数量、估算字节数、最早数据项等待时间（毫秒）和是否已降级
+     */
+    @GetMapping("/{observableId}/subscription/{subscriptionId}/lag")
+    public ResponseEntity<Map<String, Object>> getLag(
+            @PathVariable Long observableId,
+            @PathVariable Long subscriptionId) {
+
+        try {
+            SubscriptionLag lag = observableService.getLag(observableId, subscriptionId);
+            logger.debug("获取订阅落后程度，Observable ID: {}，Subscription ID: {}，结果: {}", observableId, subscriptionId, lag);
+
+            Map<String, Object> response = new HashMap<>();
+            if (lag == null) {
+                response.put("success", false);
+                response.put("message", "Subscription not found or evicted");
+                response.put("evicted", observableService.getEvictedCount(observableId));
+                return ResponseEntity.badRequest().body(response);
+            }
+            response.put("success", true);
+            response.put("items", lag.items());
+            response.put("bytes", lag.bytes());
+            response.put("oldestAgeMs", lag.oldestAgeMillis());
+            response.put("degraded", lag.degraded());
+            response.put("evicted", observableService.getEvictedCount(observableId));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("获取订阅落后程度时发生异常，Observable ID: {}，Subscription ID: {}，异常: {}",
+                observableId, subscriptionId, e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to get subscription lag: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 按主题模式创建订阅，合并接收所有匹配主题的数据，包括之后创建的主题
+     *
+     * @param pattern 订阅模式，"*"匹配一级，"#"匹配零到多级且只能出现在最后，例如 orders/#
+     * @return 包含新创建的Subscription ID和当前匹配主题的响应
+     */
+    @PostMapping("/topic/subscribe")
+    public ResponseEntity<Map<String, Object>> subscribeTopic(@RequestParam("pattern") String pattern) {
+        try {
+            Long subscriptionId = observableService.subscribeTopic(pattern);
+            logger.info("创建主题订阅，模式: {}，Subscription ID: {}", pattern, subscriptionId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("subscriptionId", subscriptionId);
+            response.put("topics", observableService.findTopics(pattern));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("创建主题订阅时发生异常，模式: {}，异常: {}", pattern, e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to subscribe: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 从主题订阅中获取数据
+     *
+     * @param subscriptionId Subscription ID
+     * @return 数据项
+     */
+    @GetMapping("/topic/subscription/{subscriptionId}/data")
+    public ResponseEntity<Map<String, Object>> getTopicData(@PathVariable Long subscriptionId) {
+        try {
+            Object data = observableService.takeTopicData(subscriptionId);
+            logger.debug("从主题订阅获取数据，Subscription ID: {}，数据: {}", subscriptionId, data);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", data);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("从主题订阅获取数据时发生异常，Subscription ID: {}，异常: {}", subscriptionId, e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to get data: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 检查主题订阅的队列是否为空
+     *
+     * @param subscriptionId Subscription ID
+     * @return 检查结果
+     */
+    @GetMapping("/topic/subscription/{subscriptionId}/empty")
+    public ResponseEntity<Map<String, Object>> isTopicSubscriptionEmpty(@PathVariable Long subscriptionId) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("empty", observableService.isTopicSubscriptionEmpty(subscriptionId));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 取消主题订阅
+     *
+     * @param subscriptionId Subscription ID
+     * @return 操作结果
+     */
+    @DeleteMapping("/topic/subscription/{subscriptionId}")
+    public ResponseEntity<Map<String, Object>> unsubscribeTopic(@PathVariable Long subscriptionId) {
+        boolean success = observableService.unsubscribeTopic(subscriptionId);
+        logger.info("取消主题订阅，Subscription ID: {}，结果: {}", subscriptionId, success);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", success);
+        if (!success) {
+            response.put("message", "Subscription not found");
+            return ResponseEntity.badRequest().body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 创建按键分区的Observable
+     * 同一个键的数据进入同一个分区并保持顺序，各分区在不同的工作线程上并行推送
+     *
+     * @param options 创建参数：partitions为分区数量
+     * @return 包含新创建的Observable ID的响应
+     */
+    @PostMapping("/partitioned/create")
+    public ResponseEntity<Map<String, Object>> createPartitioned(@RequestBody Map<String, Object> options) {
+        try {
+            Long partitions = longOption(options, "partitions");
+            if (partitions == null) {
+                throw new IllegalArgumentException("partitions is required");
+            }
+            Long observableId = observableService.createPartitioned(partitions.intValue());
+            logger.info("创建按键分区的Observable实例，ID: {}，分区数量: {}", observableId, partitions);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("observableId", observableId);
+            response.put("partitions", partitions);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("创建分区Observable时发生异常，异常: {}", e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to create partitioned observable: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 按键向分区Observable添加数据
+     *
+     * @param observableId Observable ID
+     * @param data 要添加的数据，key决定数据所在的分区
+     * @return 操作结果
+     */
+    @PostMapping("/partitioned/{observableId}/data")
+    public ResponseEntity<Map<String, Object>> addPartitionedData(
+            @PathVariable Long observableId,
+            @RequestBody Map<String, Object> data) {
+        Object key = data.get("key");
+        boolean success = observableService.addPartitionedData(observableId, key != null ? key.toString() : null, data.get("data"));
+        logger.info("向分区Observable添加数据，ID: {}，键: {}，结果: {}", observableId, key, success);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", success);
+        if (!success) {
+            response.put("message", "Observable not found");
+            return ResponseEntity.badRequest().body(response);
+        }
+        response.put("message", "Data added successfully");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 订阅分区Observable
+     *
+     * @param observableId Observable ID
+     * @param partitions   订阅的分区编号，不指定时订阅全部分区
+     * @return 包含新创建的Subscription ID的响应
+     */
+    @PostMapping("/partitioned/{observableId}/subscribe")
+    public ResponseEntity<Map<String, Object>> subscribePartitioned(
+            @PathVariable Long observableId,
+            @RequestParam(value = "partitions", required = false) int[] partitions) {
+        try {
+            Long subscriptionId = observableService.subscribePartitioned(observableId, partitions);
+            if (subscriptionId == null) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", "Observable not found");
+                return ResponseEntity.badRequest().body(response);
+            }
+            logger.info("创建分区订阅，Observable ID: {}，Subscription ID: {}", observableId, subscriptionId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("subscriptionId", subscriptionId);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("创建分区订阅时发生异常，Observable ID: {}，异常: {}", observableId, e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to subscribe: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 从分区订阅中获取数据
+     *
+     * @param subscriptionId Subscription ID
+     * @return 数据项
+     */
+    @GetMapping("/partitioned/subscription/{subscriptionId}/data")
+    public ResponseEntity<Map<String, Object>> getPartitionedData(@PathVariable Long subscriptionId) {
+        try {
+            Object data = observableService.takePartitionedData(subscriptionId);
+            logger.debug("从分区订阅获取数据，Subscription ID: {}，数据: {}", subscriptionId, data);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", data);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("从分区订阅获取数据时发生异常，Subscription ID: {}，异常: {}", subscriptionId, e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to get data: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 取消分区订阅
+     *
+     * @param subscriptionId Subscription ID
+     * @return 操作结果
+     */
+    @DeleteMapping("/partitioned/subscription/{subscriptionId}")
+    public ResponseEntity<Map<String, Object>> unsubscribePartitioned(@PathVariable Long subscriptionId) {
+        boolean success = observableService.unsubscribePartitioned(subscriptionId);
+        logger.info("取消分区订阅，Subscription ID: {}，结果: {}", subscriptionId, success);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", success);
+        if (!success) {
+            response.put("message", "Subscription not found");
+            return ResponseEntity.badRequest().body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 向遥测数据流写入数值，数据流不存在时创建
+     *
+     * @param name 数据流名称
+     * @param data 请求体，value为数值
+     * @return 操作结果
+     */
+    @PostMapping("/telemetry/{name}")
+    public ResponseEntity<Map<String, Object>> recordTelemetry(
+            @PathVariable String name,
+            @RequestBody Map<String, Object> data) {
+        try {
+            Object value = data.get("value");
+            if (value == null) {
+                throw new IllegalArgumentException("value is required");
+            }
+            double number = value instanceof Number n ? n.doubleValue() : Double.parseDouble(value.toString());
+            observableService.recordTelemetry(name, number);
+            logger.debug("写入遥测数据，数据流: {}，数值: {}", name, number);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("写入遥测数据时发生异常，数据流: {}，异常: {}", name, e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to record telemetry: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 订阅遥测数据流，从下一个写入的数值开始接收
+     *
+     * @param name 数据流名称
+     * @return 包含新创建的Subscription ID的响应
+     */
+    @PostMapping("/telemetry/{name}/subscribe")
+    public ResponseEntity<Map<String, Object>> subscribeTelemetry(@PathVariable String name) {
+        try {
+            Long subscriptionId = observableService.subscribeTelemetry(name);
+            logger.info("创建遥测订阅，数据流: {}，Subscription ID: {}", name, subscriptionId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("subscriptionId", subscriptionId);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("创建遥测订阅时发生异常，数据流: {}，异常: {}", name, e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to subscribe: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 从遥测订阅中获取下一个数值
+     *
+     * @param subscriptionId Subscription ID
+     * @return 数值
+     */
+    @GetMapping("/telemetry/subscription/{subscriptionId}/data")
+    public ResponseEntity<Map<String, Object>> getTelemetry(@PathVariable Long subscriptionId) {
+        try {
+            Double value = observableService.takeTelemetry(subscriptionId);
+            if (value == null) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", "Subscription not found");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("value", value);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("从遥测订阅获取数据时发生异常，Subscription ID: {}，异常: {}", subscriptionId, e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to get telemetry: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 取消遥测订阅
+     *
+     * @param subscriptionId Subscription ID
+     * @return 操作结果
+     */
+    @DeleteMapping("/telemetry/subscription/{subscriptionId}")
+    public ResponseEntity<Map<String, Object>> unsubscribeTelemetry(@PathVariable Long subscriptionId) {
+        boolean success = observableService.unsubscribeTelemetry(subscriptionId);
+        logger.info("取消遥测订阅，Subscription ID: {}，结果: {}", subscriptionId, success);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", success);
+        if (!success) {
+            response.put("message", "Subscription not found");
+            return ResponseEntity.badRequest().body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+}
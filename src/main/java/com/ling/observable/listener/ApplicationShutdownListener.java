@@ -1,5 +1,6 @@
 package com.ling.observable.listener;
 
+import com.ling.observable.observable.service.ObservableService;
 import com.ling.observable.observable.service.SubscriptionConsumerService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -20,6 +21,9 @@ public class ApplicationShutdownListener implements ApplicationListener<ContextC
     @Autowired
     private SubscriptionConsumerService subscriptionConsumerService;
 
+    @Autowired
+    private ObservableService observableService;
+
     /**
      * 当应用上下文关闭时调用
      *
@@ -30,5 +34,7 @@ public class ApplicationShutdownListener implements ApplicationListener<ContextC
         logger.info("应用正在关闭，开始清理订阅消费者服务资源...");
         subscriptionConsumerService.shutdown();
         logger.info("订阅消费者服务资源清理完成");
+        observableService.shutdown();
+        logger.info("Observable服务资源清理完成");
     }
 }
\ No newline at end of file
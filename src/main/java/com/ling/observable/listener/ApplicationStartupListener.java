@@ -9,6 +9,8 @@ import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 /**
  * 应用启动监听器
  * 在Spring应用上下文刷新完成后执行，用于初始化订阅消费者服务
@@ -52,18 +54,9 @@ public class ApplicationStartupListener implements ApplicationListener<ContextRe
                 // 添加消费者任务
                 subscriptionConsumerService.addConsumerTask(observableId, subscriptionId);
                 
-                // 添加更多测试数据
-                new Thread(() -> {
-                    try {
-                        Thread.sleep(2000);
-                        observableService.addData(observableId, "延迟测试数据3");
-                        
-                        Thread.sleep(10000);
-                        observableService.addData(observableId, "延迟测试数据4");
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                }).start();
+                // 添加更多延迟测试数据，由共享的时间轮定时，不占用线程
+                observableService.addDataAfter(observableId, "延迟测试数据3", Duration.ofSeconds(2));
+                observableService.addDataAfter(observableId, "延迟测试数据4", Duration.ofSeconds(12));
                 
             } catch (Exception e) {
                 logger.error("初始化测试订阅时出错: {}", e.getMessage(), e);
@@ -0,0 +1,215 @@
+package com.ling.observable.observable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * BLOCK_PRODUCER策略订阅者的读取游标
+ * 与Flow订阅一样用自己的读取序号直接读取Observable共享的事件日志，按订阅者缓冲区的剩余空间拉取已推送的数据项；
+ * 缓冲区已满时暂停，数据项留在日志中，读取序号作为门控序号阻止生产者覆盖，因此生产者在写入日志时等待，
+ * 推送线程和调度器的工作线程都不会因为慢订阅者而等待；消费者从缓冲区读出数据项后唤醒游标继续拉取
+ * 拉取由调度器的工作线程执行，同一时刻最多只有一个拉取任务，数据项按序号顺序放入缓冲区
+ *
+ * @param <T> 数据类型
+ * @author Ling
+ */
+class BlockingCursor<T> {
+
+    private static final Logger logger = LogManager.getLogger(BlockingCursor.class);
+
+    /**
+     * 数据来源
+     */
+    private final Observable<T> source;
+
+    /**
+     * 共享的事件日志
+     */
+    private final RingBuffer<T> ringBuffer;
+
+    /**
+     * Observable的推送进度，只读取到该序号为止
+     */
+    private final Sequence dispatchSequence;
+
+    /**
+     * 读取进度，记录已放入缓冲区的最大序号，同时是环形缓冲区的门控序号
+     */
+    private final Sequence cursor;
+
+    /**
+     * 订阅者，例如普通订阅者、转发订阅者或带操作符链的订阅者
+     */
+    private final Subscriber<T> subscriber;
+
+    /**
+     * 过滤条件，为null时接收全部数据项
+     */
+    private final ItemFilter filter;
+
+    /**
+     * 执行拉取任务的调度器
+     */
+    private final Dispatcher dispatcher;
+
+    /**
+     * 缓冲区读出数据项后的回调，注册在最终接收数据项的缓冲区所有者上
+     */
+    private final Runnable spaceListener = this::onSpace;
+
+    /**
+     * 是否已有提交或正在执行的拉取任务
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /**
+     * 是否因缓冲区已满而暂停，暂停期间只有消费者读出数据项才会唤醒
+     */
+    private volatile boolean parked;
+
+    /**
+     * 是否已从Observable移除
+     */
+    private volatile boolean released;
+
+    /**
+     * 构造函数
+     *
+     * @param source           数据来源
+     * @param ringBuffer       共享的事件日志
+     * @param dispatchSequence Observable的推送进度
+     * @param cursor           读取进度，需已注册为门控序号
+     * @param subscriber       订阅者
+     * @param filter           过滤条件，为null时接收全部数据项
+     * @param dispatcher       执行拉取任务的调度器
+     */
+    BlockingCursor(Observable<T> source, RingBuffer<T> ringBuffer, Sequence dispatchSequence, Sequence cursor,
+                   Subscriber<T> subscriber, ItemFilter filter, Dispatcher dispatcher) {
+        this.source = source;
+        this.ringBuffer = ringBuffer;
+        this.dispatchSequence = dispatchSequence;
+        this.cursor = cursor;
+        this.subscriber = subscriber;
+        this.filter = filter;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * 开始接收缓冲区读出数据项的通知
+     */
+    void start() {
+        subscriber.blockingBuffer().addSpaceListener(spaceListener);
+    }
+
+    /**
+     * 有新数据推送时调用，暂停期间缓冲区没有空间，不提交拉取任务
+     */
+    void signalData() {
+        if (!parked) {
+            signal();
+        }
+    }
+
+    /**
+     * 消费者从缓冲区读出数据项后调用，唤醒暂停的游标
+     */
+    private void onSpace() {
+        if (parked) {
+            parked = false;
+            signal();
+        }
+    }
+
+    /**
+     * 提交拉取任务，已有拉取任务时合并到该任务中
+     */
+    void signal() {
+        if (!released && !scheduled.get() && scheduled.compareAndSet(false, true)) {
+            dispatcher.execute(this::drain);
+        }
+    }
+
+    /**
+     * 拉取任务，把已推送的数据项放入订阅者的缓冲区，直到追上推送进度或缓冲区已满
+     * 每次最多拉取Observable.MAX_ITEMS_PER_RUN个数据项，之后重新排队，避免长期占用工作线程
+     */
+    private void drain() {
+        int pulled = 0;
+        while (true) {
+            if (released) {
+                return;
+            }
+            long next = cursor.get() + 1;
+            if (next <= dispatchSequence.get()) {
+                if (pulled >= Observable.MAX_ITEMS_PER_RUN) {
+                    dispatcher.execute(this::drain);
+                    return;
+                }
+                T item = ringBuffer.get(next);
+                boolean accepted;
+                try {
+                    accepted = (filter != null && !filter.matches(item)) || subscriber.tryEmit(item);
+                } catch (RuntimeException e) {
+                    // 只关闭出错的订阅者并移除其游标，释放被其阻止覆盖的槽位
+                    subscriber.fail(e);
+                    source.detach(subscriber.getHandle());
+                    return;
+                }
+                if (accepted) {
+                    subscriber.setDeliveredSequence(next);
+                    // 推进读取进度，释放槽位给生产者
+                    cursor.set(next);
+                    source.onConsumed();
+                    pulled++;
+                    continue;
+                }
+                // 缓冲区已满，暂停到消费者读出数据项；先置位暂停标记再复查，保证复查前读出的空间不会被遗漏
+                parked = true;
+                scheduled.set(false);
+                if (!subscriber.hasSpace() || released || !scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                parked = false;
+                continue;
+            }
+
+            // 先清除调度标记再复查，保证清除前到达的信号不会丢失
+            scheduled.set(false);
+            if (cursor.get() >= dispatchSequence.get() || released || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 从Observable移除，停止拉取并不再接收缓冲区的通知
+     */
+    void release() {
+        released = true;
+        Subscriber<?> buffer = subscriber.blockingBuffer();
+        if (buffer != null) {
+            buffer.removeSpaceListener(spaceListener);
+        }
+        logger.debug("阻塞策略的读取游标已移除，读取进度: {}", cursor.get());
+    }
+
+    /**
+     * 获取读取进度
+     *
+     * @return 读取进度
+     */
+    Sequence getCursor() {
+        return cursor;
+    }
+
+    /**
+     * 获取订阅者
+     *
+     * @return 订阅者
+     */
+    Subscriber<T> getSubscriber() {
+        return subscriber;
+    }
+}
@@ -0,0 +1,218 @@
+package com.ling.observable.observable;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 按键合并的阻塞队列
+ * 每个键最多保留一个待读取的数据项，新数据项替换同一个键尚未被读取的旧数据项，并保持该键原来的排队位置
+ * 读取慢的订阅者占用的内存因此只与不同键的数量有关，并且读到的总是每个键的最新值
+ * 键为null的数据项也按同一个键合并
+ *
+ * @param <T> 数据类型
+ * @author Ling
+ */
+class ConflatingQueue<T> extends AbstractQueue<T> implements BlockingQueue<T> {
+
+    /**
+     * 从数据项中提取键
+     */
+    private final Function<? super T, ?> keyExtractor;
+
+    /**
+     * 键到待读取数据项的映射，按键首次排队的顺序排列
+     */
+    private final LinkedHashMap<Object, T> pending = new LinkedHashMap<>();
+
+    /**
+     * 保护pending的锁
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 队列非空条件
+     */
+    private final Condition notEmpty = lock.newCondition();
+
+    /**
+     * 构造函数
+     *
+     * @param keyExtractor 从数据项中提取键
+     */
+    ConflatingQueue(Function<? super T, ?> keyExtractor) {
+        this.keyExtractor = Objects.requireNonNull(keyExtractor);
+    }
+
+    @Override
+    public boolean offer(T item) {
+        Objects.requireNonNull(item);
+        Object key = keyExtractor.apply(item);
+        lock.lock();
+        try {
+            pending.put(key, item);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> items) {
+        // 推送线程按批次写入，整个批次只加锁一次
+        lock.lock();
+        try {
+            for (T item : items) {
+                pending.put(keyExtractor.apply(Objects.requireNonNull(item)), item);
+            }
+            if (!pending.isEmpty()) {
+                notEmpty.signalAll();
+            }
+            return !items.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(T item) {
+        offer(item);
+    }
+
+    @Override
+    public boolean offer(T item, long timeout, TimeUnit unit) {
+        return offer(item);
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (pending.isEmpty()) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (pending.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T poll() {
+        lock.lock();
+        try {
+            return pending.isEmpty() ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T peek() {
+        lock.lock();
+        try {
+            return pending.isEmpty() ? null : pending.values().iterator().next();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 取出排在最前面的数据项，必须持有锁且队列非空时调用
+     *
+     * @return 数据项
+     */
+    private T dequeue() {
+        Iterator<Map.Entry<Object, T>> iterator = pending.entrySet().iterator();
+        T item = iterator.next().getValue();
+        iterator.remove();
+        return item;
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            pending.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> target) {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> target, int maxElements) {
+        lock.lock();
+        try {
+            int count = 0;
+            while (count < maxElements && !pending.isEmpty()) {
+                target.add(dequeue());
+                count++;
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 返回当前待读取数据项的快照，不反映之后的修改
+     *
+     * @return 迭代器
+     */
+    @Override
+    public Iterator<T> iterator() {
+        lock.lock();
+        try {
+            return new ArrayList<>(pending.values()).iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.ling.observable.observable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 游标订阅类
+ * 不持有缓冲队列，而是用自己的读取序号直接读取Observable共享的事件日志
+ * 推送一个数据项对该订阅者的开销只是一次序号读取，内存与订阅者数量无关
+ * 读取序号同时是环形缓冲区的门控序号，未读取的数据不会被覆盖
+ *
+ * @param <T> 数据类型
+ * @author Ling
+ */
+public class CursorSubscription<T> extends Subscription<T> {
+
+    private static final Logger logger = LogManager.getLogger(CursorSubscription.class);
+
+    /**
+     * 数据来源
+     */
+    private final Observable<T> source;
+
+    /**
+     * 共享的事件日志
+     */
+    private final RingBuffer<T> ringBuffer;
+
+    /**
+     * 读取进度，记录已读取的最大序号
+     * 只有持有该订阅的消费者线程推进
+     */
+    private final Sequence cursor;
+
+    /**
+     * 标记订阅是否已关闭
+     */
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    /**
+     * 构造函数
+     *
+     * @param source     数据来源
+     * @param ringBuffer 共享的事件日志
+     * @param cursor     读取进度，需已注册为门控序号
+     */
+    CursorSubscription(Observable<T> source, RingBuffer<T> ringBuffer, Sequence cursor) {
+        this.source = source;
+        this.ringBuffer = ringBuffer;
+        this.cursor = cursor;
+        logger.debug("创建新的CursorSubscription实例，起始序号: {}", cursor.get());
+    }
+
+    /**
+     * 获取数据项（阻塞方法）
+     * 如果日志中没有新数据，该方法会阻塞直到有数据发布
+     *
+     * @return 取出的数据项
+     * @throws InterruptedException 如果线程被中断
+     */
+    @Override
+    public T take() throws InterruptedException {
+        long nextSequence = cursor.get() + 1;
+        if (!ringBuffer.waitFor(nextSequence, closed::get)) {
+            throw new IllegalStateException("Subscription is closed");
+        }
+        T item = ringBuffer.get(nextSequence);
+        // 推进读取进度，释放槽位给生产者
+        cursor.set(nextSequence);
+        source.onConsumed();
+        logger.debug("从日志中读取数据项: {}，序号: {}", item, nextSequence);
+        return item;
+    }
+
+    /**
+     * 检查是否没有未读取的数据
+     *
+     * @return 没有未读取的数据返回true
+     */
+    @Override
+    public boolean isEmpty() {
+        return !ringBuffer.isAvailable(cursor.get() + 1);
+    }
+
+    /**
+     * 检查订阅是否已关闭
+     *
+     * @return 已关闭返回true
+     */
+    @Override
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * 获取消费位置，即最近一次take()读取的数据项的序号
+     *
+     * @return 消费位置
+     */
+    @Override
+    public long getPosition() {
+        return cursor.get();
+    }
+
+    /**
+     * 获取读取进度
+     *
+     * @return 读取进度序号
+     */
+    Sequence getCursor() {
+        return cursor;
+    }
+
+    /**
+     * 关闭订阅，唤醒阻塞在take()上的消费者
+     *
+     * @return 首次关闭返回true
+     */
+    boolean close() {
+        if (closed.compareAndSet(false, true)) {
+            ringBuffer.wakeUpWaiters();
+            logger.debug("游标订阅已关闭");
+            return true;
+        }
+        return false;
+    }
+}
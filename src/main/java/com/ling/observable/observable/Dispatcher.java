@@ -0,0 +1,209 @@
+package com.ling.observable.observable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 推送调度器
+ * 用固定数量的工作线程执行所有Observable的推送任务
+ * Observable只在有待推送数据且有订阅者时才提交任务，线程数量与Observable数量无关
+ * 虚拟线程模式下每个推送任务运行在独立的虚拟线程上，由JVM调度到CPU核数个载体线程
+ *
+ * @author Ling
+ */
+public class Dispatcher {
+
+    private static final Logger logger = LogManager.getLogger(Dispatcher.class);
+
+    /**
+     * 默认共享调度器，线程数等于CPU核数
+     */
+    private static volatile Dispatcher shared;
+
+    /**
+     * 工作线程池
+     */
+    private final ExecutorService executor;
+
+    /**
+     * 定时线程，执行历史数据回收等周期性的轻量任务
+     */
+    private final ScheduledExecutorService timer;
+
+    /**
+     * 并行推送线程池，订阅者数量超过阈值时把一个批次分段并行推送，首次使用时创建
+     */
+    private volatile ForkJoinPool fanOutPool;
+
+    /**
+     * 工作线程数量，虚拟线程模式下为载体线程数量
+     */
+    private final int threads;
+
+    /**
+     * 是否使用虚拟线程
+     */
+    private final boolean virtualThreads;
+
+    /**
+     * 构造函数，使用平台线程
+     *
+     * @param name    线程名前缀
+     * @param threads 工作线程数量，小于等于0时使用CPU核数
+     */
+    public Dispatcher(String name, int threads) {
+        this(name, threads, false);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param name           线程名前缀
+     * @param threads        工作线程数量，小于等于0时使用CPU核数；虚拟线程模式下忽略
+     * @param virtualThreads 是否使用虚拟线程执行推送任务
+     */
+    public Dispatcher(String name, int threads, boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        if (virtualThreads) {
+            this.threads = Runtime.getRuntime().availableProcessors();
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+        } else {
+            this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+            AtomicInteger threadIndex = new AtomicInteger(0);
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, name + "-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            this.executor = Executors.newFixedThreadPool(this.threads, threadFactory);
+        }
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("推送调度器已启动，名称: {}，线程数: {}，虚拟线程: {}", name, this.threads, virtualThreads);
+    }
+
+    /**
+     * 获取默认共享调度器
+     * 未显式指定调度器的Observable使用该实例
+     *
+     * @return 共享调度器
+     */
+    public static Dispatcher shared() {
+        Dispatcher dispatcher = shared;
+        if (dispatcher == null) {
+            synchronized (Dispatcher.class) {
+                dispatcher = shared;
+                if (dispatcher == null) {
+                    dispatcher = new Dispatcher("observable-dispatcher", 0);
+                    shared = dispatcher;
+                }
+            }
+        }
+        return dispatcher;
+    }
+
+    /**
+     * 提交推送任务
+     *
+     * @param task 推送任务
+     */
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * 周期性执行轻量任务
+     * 任务直接在定时线程上运行，不能阻塞
+     *
+     * @param task     任务
+     * @param interval 执行间隔
+     * @return 可用于取消任务的句柄
+     */
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Duration interval) {
+        long millis = Math.max(1, interval.toMillis());
+        return timer.scheduleAtFixedRate(task, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 延迟执行轻量任务
+     * 任务直接在定时线程上运行，不能阻塞
+     *
+     * @param task  任务
+     * @param delay 延迟纳秒数
+     * @return 可用于取消任务的句柄
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delay) {
+        return timer.schedule(task, delay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 获取并行推送线程池
+     * 线程数等于CPU核数，由使用该调度器的所有Observable共享
+     *
+     * @return 并行推送线程池
+     */
+    ForkJoinPool fanOutPool() {
+        ForkJoinPool pool = fanOutPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = fanOutPool;
+                if (pool == null) {
+                    pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                    fanOutPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * 获取工作线程数量
+     *
+     * @return 线程数量
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * 是否使用虚拟线程
+     *
+     * @return 虚拟线程模式返回true
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * 关闭调度器，等待正在执行的推送任务完成
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+        if (fanOutPool != null) {
+            fanOutPool.shutdown();
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        logger.info("推送调度器已关闭");
+    }
+}
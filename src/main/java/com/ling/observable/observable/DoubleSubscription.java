@@ -0,0 +1,41 @@
+package com.ling.observable.observable;
+
+/**
+ * 双精度浮点型订阅
+ * 直接从DoubleObservable的double[]环形数组中读取，不装箱
+ *
+ * @author Ling
+ */
+public class DoubleSubscription extends PrimitiveSubscription {
+
+    /**
+     * Observable的数据槽位
+     */
+    private final double[] values;
+
+    /**
+     * 构造函数
+     *
+     * @param sequencer 序号器
+     * @param cursor    读取进度，需已注册为门控序号
+     * @param values    数据槽位
+     */
+    DoubleSubscription(RingBuffer<?> sequencer, Sequence cursor, double[] values) {
+        super(sequencer, cursor);
+        this.values = values;
+    }
+
+    /**
+     * 获取下一个数据（阻塞方法）
+     * 如果没有新数据，该方法会阻塞直到有数据发布
+     *
+     * @return 数据
+     * @throws InterruptedException 如果线程被中断
+     */
+    public double takeDouble() throws InterruptedException {
+        long sequence = awaitNext();
+        double value = values[(int) sequence & indexMask];
+        advance(sequence);
+        return value;
+    }
+}
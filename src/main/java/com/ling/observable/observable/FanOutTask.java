@@ -0,0 +1,90 @@
+package com.ling.observable.observable;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 并行推送任务
+ * 把订阅者数组二分拆成不超过chunkSize的分段，在ForkJoin线程池中并行向每个分段推送同一个批次
+ * 批次列表在推送期间只读，所有分段完成后推送线程才会复用它
+ *
+ * @param <T> 数据类型
+ * @author Ling
+ */
+class FanOutTask<T> extends RecursiveAction {
+
+    /**
+     * ForkJoinTask实现了Serializable，该任务只在推送期间存在，不会被序列化
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 订阅者数组快照
+     */
+    private final transient Subscriber<T>[] subscribers;
+
+    /**
+     * 本任务负责的起始下标（包含）
+     */
+    private final int from;
+
+    /**
+     * 本任务负责的结束下标（不包含）
+     */
+    private final int to;
+
+    /**
+     * 每个分段最多包含的订阅者数量
+     */
+    private final int chunkSize;
+
+    /**
+     * 推送的批次
+     */
+    private final transient List<T> items;
+
+    /**
+     * 批次中第一个数据项的序号
+     */
+    private final long firstSequence;
+
+    /**
+     * 批次中最后一个数据项的序号
+     */
+    private final long lastSequence;
+
+    /**
+     * 构造函数
+     *
+     * @param subscribers   订阅者数组快照
+     * @param from          起始下标（包含）
+     * @param to            结束下标（不包含）
+     * @param chunkSize     每个分段最多包含的订阅者数量
+     * @param items         推送的批次
+     * @param firstSequence 批次中第一个数据项的序号
+     * @param lastSequence  批次中最后一个数据项的序号
+     */
+    FanOutTask(Subscriber<T>[] subscribers, int from, int to, int chunkSize,
+               List<T> items, long firstSequence, long lastSequence) {
+        this.subscribers = subscribers;
+        this.from = from;
+        this.to = to;
+        this.chunkSize = chunkSize;
+        this.items = items;
+        this.firstSequence = firstSequence;
+        this.lastSequence = lastSequence;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= chunkSize) {
+            for (int i = from; i < to; i++) {
+                subscribers[i].deliver(items, firstSequence, lastSequence);
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new FanOutTask<>(subscribers, from, middle, chunkSize, items, firstSequence, lastSequence),
+                new FanOutTask<>(subscribers, middle, to, chunkSize, items, firstSequence, lastSequence));
+    }
+}
@@ -0,0 +1,174 @@
+package com.ling.observable.observable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 带过滤条件的订阅者索引
+ * 有相等条件的订阅者按其第一个相等条件建立"字段值 -> 订阅者"的哈希索引，
+ * 推送时每个数据项对每个被索引的字段只做一次哈希查找，只有命中的订阅者才会检查其余条件；
+ * 只有范围条件的订阅者无法索引，逐个检查
+ * 与SubscriberRegistry一样，成员变化时在锁内重建不可变的快照并发布，推送线程只读取快照
+ *
+ * @param <T> 数据类型
+ * @author Ling
+ */
+class FilterIndex<T> {
+
+    /**
+     * 交给调用方的订阅对象到索引项的映射，只在锁内访问
+     */
+    private final Map<Subscription<?>, Entry<T>> entries = new LinkedHashMap<>();
+
+    /**
+     * 索引快照
+     */
+    private volatile Snapshot<T> snapshot = Snapshot.empty();
+
+    /**
+     * 添加订阅者
+     *
+     * @param subscriber 订阅者
+     * @param filter     过滤条件
+     */
+    synchronized void add(Subscriber<T> subscriber, ItemFilter filter) {
+        entries.put(subscriber.getHandle(), new Entry<>(subscriber, filter));
+        republish();
+    }
+
+    /**
+     * 移除订阅者
+     *
+     * @param subscription 订阅对象
+     * @return 被移除的订阅者，不存在时返回null
+     */
+    synchronized Subscriber<T> remove(Subscription<?> subscription) {
+        Entry<T> entry = entries.remove(subscription);
+        if (entry == null) {
+            return null;
+        }
+        republish();
+        return entry.subscriber();
+    }
+
+    /**
+     * 获取订阅者数量
+     *
+     * @return 订阅者数量
+     */
+    int size() {
+        return snapshot.all().size();
+    }
+
+    /**
+     * 获取全部订阅者
+     *
+     * @return 订阅者列表快照
+     */
+    List<Subscriber<T>> subscribers() {
+        return snapshot.all();
+    }
+
+    /**
+     * 把一个批次中的数据项推送给满足条件的订阅者
+     *
+     * @param items 数据项
+     */
+    void dispatch(List<T> items) {
+        Snapshot<T> current = snapshot;
+        for (int i = 0, size = items.size(); i < size; i++) {
+            T item = items.get(i);
+            for (int f = 0; f < current.fields().length; f++) {
+                Object value = ItemFilter.fieldValue(item, current.fields()[f]);
+                if (value == null) {
+                    continue;
+                }
+                List<Entry<T>> candidates = current.buckets().get(f).get(ItemFilter.normalize(value));
+                if (candidates != null) {
+                    deliver(candidates, item);
+                }
+            }
+            deliver(current.scanned(), item);
+        }
+    }
+
+    /**
+     * 检查候选订阅者的全部条件并推送
+     *
+     * @param candidates 候选订阅者
+     * @param item       数据项
+     */
+    private void deliver(List<Entry<T>> candidates, T item) {
+        for (int i = 0, size = candidates.size(); i < size; i++) {
+            Entry<T> entry = candidates.get(i);
+            try {
+                if (entry.filter().matches(item)) {
+                    entry.subscriber().emit(item);
+                }
+            } catch (RuntimeException e) {
+                // 只关闭出错的订阅者，推送线程随后将其移除
+                entry.subscriber().fail(e);
+            }
+        }
+    }
+
+    /**
+     * 重建并发布索引快照，必须持有锁调用
+     */
+    private void republish() {
+        Map<String, Map<String, List<Entry<T>>>> byField = new LinkedHashMap<>();
+        List<Entry<T>> scanned = new ArrayList<>();
+        List<Subscriber<T>> all = new ArrayList<>(entries.size());
+        for (Entry<T> entry : entries.values()) {
+            all.add(entry.subscriber());
+            Map<String, String> equalities = entry.filter().getEqualities();
+            if (equalities.isEmpty()) {
+                scanned.add(entry);
+                continue;
+            }
+            Map.Entry<String, String> key = equalities.entrySet().iterator().next();
+            byField.computeIfAbsent(key.getKey(), field -> new HashMap<>())
+                    .computeIfAbsent(key.getValue(), value -> new ArrayList<>())
+                    .add(entry);
+        }
+
+        String[] fields = byField.keySet().toArray(new String[0]);
+        List<Map<String, List<Entry<T>>>> buckets = new ArrayList<>(fields.length);
+        for (String field : fields) {
+            Map<String, List<Entry<T>>> bucket = new HashMap<>();
+            byField.get(field).forEach((value, list) -> bucket.put(value, List.copyOf(list)));
+            buckets.add(bucket);
+        }
+        snapshot = new Snapshot<>(fields, List.copyOf(buckets), List.copyOf(scanned), List.copyOf(all));
+    }
+
+    /**
+     * 索引项
+     *
+     * @param subscriber 订阅者
+     * @param filter     过滤条件
+     * @param <T>        数据类型
+     */
+    private record Entry<T>(Subscriber<T> subscriber, ItemFilter filter) {
+    }
+
+    /**
+     * 不可变的索引快照
+     *
+     * @param fields  被索引的字段
+     * @param buckets 与fields下标对应的"规范化字段值 -> 订阅者"映射
+     * @param scanned 无法索引、需要逐个检查的订阅者
+     * @param all     全部订阅者
+     * @param <T>     数据类型
+     */
+    private record Snapshot<T>(String[] fields, List<Map<String, List<Entry<T>>>> buckets,
+                               List<Entry<T>> scanned, List<Subscriber<T>> all) {
+
+        static <T> Snapshot<T> empty() {
+            return new Snapshot<>(new String[0], List.of(), List.of(), List.of());
+        }
+    }
+}
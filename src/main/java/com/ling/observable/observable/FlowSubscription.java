@@ -0,0 +1,204 @@
+package com.ling.observable.observable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * java.util.concurrent.Flow订阅
+ * 与游标订阅一样用自己的读取序号直接读取Observable共享的事件日志，不复制数据；
+ * 只推送订阅者通过request(n)请求的数量，未请求的数据留在日志中，读取序号作为门控序号阻止生产者覆盖，
+ * 因此订阅者处理不过来时生产者最终会等待，实现端到端的背压
+ * 推送由调度器的工作线程执行，同一时刻最多只有一个推送任务，onNext等回调按顺序调用，不需要为每个订阅者创建线程
+ * 创建时推送任务的调度标记处于置位状态，onSubscribe返回并调用start()之后才开始推送，
+ * 因此onSubscribe中调用request(n)不会并发触发onNext，onComplete也不会早于onSubscribe
+ *
+ * @param <T> 数据类型
+ * @author Ling
+ */
+class FlowSubscription<T> implements Flow.Subscription {
+
+    private static final Logger logger = LogManager.getLogger(FlowSubscription.class);
+
+    /**
+     * 数据来源
+     */
+    private final Observable<T> source;
+
+    /**
+     * 共享的事件日志
+     */
+    private final RingBuffer<T> ringBuffer;
+
+    /**
+     * Observable的推送进度，只读取到该序号为止
+     */
+    private final Sequence dispatchSequence;
+
+    /**
+     * 读取进度，记录已推送的最大序号，同时是环形缓冲区的门控序号
+     */
+    private final Sequence cursor;
+
+    /**
+     * 订阅者
+     */
+    private final Flow.Subscriber<? super T> subscriber;
+
+    /**
+     * 执行推送任务的调度器
+     */
+    private final Dispatcher dispatcher;
+
+    /**
+     * 尚未满足的请求数量，Long.MAX_VALUE表示不限制
+     */
+    private final AtomicLong requested = new AtomicLong();
+
+    /**
+     * 是否已有提交或正在执行的推送任务，start()之前保持置位
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean(true);
+
+    /**
+     * 是否已取消或已结束
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * request()收到的非法参数，由推送任务通知订阅者
+     */
+    private volatile IllegalArgumentException invalidRequest;
+
+    /**
+     * 构造函数
+     *
+     * @param source           数据来源
+     * @param ringBuffer       共享的事件日志
+     * @param dispatchSequence Observable的推送进度
+     * @param cursor           读取进度，需已注册为门控序号
+     * @param subscriber       订阅者
+     * @param dispatcher       执行推送任务的调度器
+     */
+    FlowSubscription(Observable<T> source, RingBuffer<T> ringBuffer, Sequence dispatchSequence, Sequence cursor,
+                     Flow.Subscriber<? super T> subscriber, Dispatcher dispatcher) {
+        this.source = source;
+        this.ringBuffer = ringBuffer;
+        this.dispatchSequence = dispatchSequence;
+        this.cursor = cursor;
+        this.subscriber = subscriber;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * 请求更多数据项
+     *
+     * @param n 请求数量，必须大于0；累计超过Long.MAX_VALUE时视为不限制
+     */
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            invalidRequest = new IllegalArgumentException("Flow.Subscription.request requires n > 0, got " + n);
+        } else {
+            requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+        }
+        signal();
+    }
+
+    /**
+     * 取消订阅，之后不再调用订阅者的任何回调
+     */
+    @Override
+    public void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            source.releaseFlow(this);
+        }
+    }
+
+    /**
+     * 开始推送，必须在订阅者的onSubscribe返回之后调用
+     * onSubscribe期间收到的请求和Observable的关闭都合并到这里提交的推送任务中
+     */
+    void start() {
+        scheduled.set(false);
+        signal();
+    }
+
+    /**
+     * 提交推送任务
+     * 有新数据推送、收到新的请求或Observable关闭时调用，已有推送任务时合并到该任务中
+     */
+    void signal() {
+        if (!cancelled && !scheduled.get() && scheduled.compareAndSet(false, true)) {
+            dispatcher.execute(this::drain);
+        }
+    }
+
+    /**
+     * 推送任务，在请求数量范围内推送已发布的数据项
+     * 每次最多推送Observable.MAX_ITEMS_PER_RUN个数据项，之后重新排队，避免长期占用工作线程
+     */
+    private void drain() {
+        int emitted = 0;
+        while (true) {
+            if (cancelled) {
+                return;
+            }
+            if (invalidRequest != null) {
+                cancel();
+                subscriber.onError(invalidRequest);
+                return;
+            }
+            long next = cursor.get() + 1;
+            boolean available = next <= dispatchSequence.get();
+            if (available && requested.get() > 0) {
+                if (emitted >= Observable.MAX_ITEMS_PER_RUN) {
+                    dispatcher.execute(this::drain);
+                    return;
+                }
+                T item = ringBuffer.get(next);
+                // 推进读取进度，释放槽位给生产者
+                cursor.set(next);
+                source.onConsumed();
+                requested.getAndUpdate(current -> current == Long.MAX_VALUE ? current : current - 1);
+                try {
+                    subscriber.onNext(item);
+                } catch (Throwable e) {
+                    logger.error("Flow订阅者处理数据项时抛出异常，取消订阅", e);
+                    cancel();
+                    return;
+                }
+                emitted++;
+                continue;
+            }
+            if (!available && source.isClosed()) {
+                // Observable已关闭且已推送的数据都已送达
+                cancel();
+                subscriber.onComplete();
+                return;
+            }
+
+            // 先清除调度标记再复查，保证清除前到达的信号不会丢失
+            scheduled.set(false);
+            // 已关闭但仍有未请求的数据时等待新的请求，不能反复重试
+            boolean remaining = cursor.get() < dispatchSequence.get();
+            boolean pending = invalidRequest != null || (remaining ? requested.get() > 0 : source.isClosed());
+            if (!pending || cancelled || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 获取读取进度
+     *
+     * @return 读取进度
+     */
+    Sequence getCursor() {
+        return cursor;
+    }
+}
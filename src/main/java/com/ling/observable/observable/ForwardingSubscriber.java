@@ -0,0 +1,57 @@
+package com.ling.observable.observable;
+
+import java.util.List;
+
+/**
+ * 转发订阅者
+ * 合并多个Observable的订阅为每个Observable注册一个转发订阅者，数据项直接放入共同的下游订阅者，自身不缓冲
+ * 某个Observable关闭、移除或注销它的转发订阅者时只影响这一路数据，下游订阅者只有在调用方取消订阅时才关闭
+ *
+ * @param <T> 数据类型
+ * @author Ling
+ */
+class ForwardingSubscriber<T> extends Subscriber<T> {
+
+    /**
+     * 合并接收数据的下游订阅者
+     */
+    private final Subscriber<T> downstream;
+
+    /**
+     * 构造函数
+     *
+     * @param downstream 合并接收数据的下游订阅者
+     */
+    ForwardingSubscriber(Subscriber<T> downstream) {
+        this.downstream = downstream;
+    }
+
+    @Override
+    public void emit(T item) {
+        if (!isClosed()) {
+            downstream.emit(item);
+        }
+    }
+
+    @Override
+    public void emitBatch(List<T> items) {
+        if (!isClosed()) {
+            downstream.emitBatch(items);
+        }
+    }
+
+    @Override
+    boolean tryEmit(T item) {
+        return isClosed() || downstream.tryEmit(item);
+    }
+
+    @Override
+    boolean hasSpace() {
+        return isClosed() || downstream.hasSpace();
+    }
+
+    @Override
+    Subscriber<?> blockingBuffer() {
+        return downstream.blockingBuffer();
+    }
+}
@@ -0,0 +1,167 @@
+package com.ling.observable.observable;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 融合后的操作符链
+ * 把map、filter、take、skip、scan依次排成一个阶段数组，每个数据项在一次循环内走完整条链，
+ * 中间不经过队列，也不为每个操作符分配对象；被过滤掉的数据项不会进入订阅者的缓冲区
+ * 每个订阅者持有独立的实例，take、skip、scan的状态只由推送线程访问
+ *
+ * @author Ling
+ */
+class FusedOperator {
+
+    /**
+     * 表示数据项被丢弃的标记
+     */
+    static final Object DROPPED = new Object();
+
+    /**
+     * 阶段数组
+     */
+    private final Stage[] stages;
+
+    /**
+     * take已取满，后续数据项全部丢弃
+     */
+    private boolean completed;
+
+    /**
+     * 构造函数，为每个阶段创建独立的状态
+     *
+     * @param specs 阶段定义，按执行顺序排列
+     */
+    FusedOperator(List<Stage> specs) {
+        this.stages = new Stage[specs.size()];
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = specs.get(i).copy();
+        }
+    }
+
+    /**
+     * 让数据项依次通过所有阶段
+     *
+     * @param item 输入数据项
+     * @return 输出数据项，被丢弃时返回DROPPED
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Object apply(Object item) {
+        if (completed) {
+            return DROPPED;
+        }
+        Object value = item;
+        for (Stage stage : stages) {
+            switch (stage.kind) {
+                case MAP -> value = ((Function) stage.function).apply(value);
+                case FILTER -> {
+                    if (!((Predicate) stage.function).test(value)) {
+                        return DROPPED;
+                    }
+                }
+                case SKIP -> {
+                    if (stage.count < stage.limit) {
+                        stage.count++;
+                        return DROPPED;
+                    }
+                }
+                case TAKE -> {
+                    if (stage.count >= stage.limit) {
+                        completed = true;
+                        return DROPPED;
+                    }
+                    // 取到最后一项时即可判定完成，不需要等到下一个数据项到达
+                    if (++stage.count >= stage.limit) {
+                        completed = true;
+                    }
+                }
+                case SCAN -> {
+                    stage.accumulator = ((BiFunction) stage.function).apply(stage.accumulator, value);
+                    value = stage.accumulator;
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 是否已不再输出数据项
+     *
+     * @return take已取满返回true
+     */
+    boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * 操作符类型
+     */
+    enum Kind {
+        MAP, FILTER, SKIP, TAKE, SCAN
+    }
+
+    /**
+     * 操作符阶段
+     * Pipeline中保存的是定义，订阅时复制出带状态的实例
+     */
+    static final class Stage {
+
+        /**
+         * 操作符类型
+         */
+        final Kind kind;
+
+        /**
+         * map的Function、filter的Predicate或scan的BiFunction
+         */
+        final Object function;
+
+        /**
+         * take或skip的数量
+         */
+        final long limit;
+
+        /**
+         * scan的初始值
+         */
+        final Object seed;
+
+        /**
+         * take或skip已计数的数量
+         */
+        long count;
+
+        /**
+         * scan的累积值
+         */
+        Object accumulator;
+
+        /**
+         * 构造函数
+         *
+         * @param kind     操作符类型
+         * @param function 操作函数
+         * @param limit    数量限制
+         * @param seed     scan的初始值
+         */
+        Stage(Kind kind, Object function, long limit, Object seed) {
+            this.kind = kind;
+            this.function = function;
+            this.limit = limit;
+            this.seed = seed;
+            this.accumulator = seed;
+        }
+
+        /**
+         * 复制出状态为初始值的阶段
+         *
+         * @return 新的阶段实例
+         */
+        Stage copy() {
+            return new Stage(kind, function, limit, seed);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.ling.observable.observable;
+
+/**
+ * 整型订阅
+ * 直接从IntObservable的int[]环形数组中读取，不装箱
+ *
+ * @author Ling
+ */
+public class IntSubscription extends PrimitiveSubscription {
+
+    /**
+     * Observable的数据槽位
+     */
+    private final int[] values;
+
+    /**
+     * 构造函数
+     *
+     * @param sequencer 序号器
+     * @param cursor    读取进度，需已注册为门控序号
+     * @param values    数据槽位
+     */
+    IntSubscription(RingBuffer<?> sequencer, Sequence cursor, int[] values) {
+        super(sequencer, cursor);
+        this.values = values;
+    }
+
+    /**
+     * 获取下一个数据（阻塞方法）
+     * 如果没有新数据，该方法会阻塞直到有数据发布
+     *
+     * @return 数据
+     * @throws InterruptedException 如果线程被中断
+     */
+    public int takeInt() throws InterruptedException {
+        long sequence = awaitNext();
+        int value = values[(int) sequence & indexMask];
+        advance(sequence);
+        return value;
+    }
+}
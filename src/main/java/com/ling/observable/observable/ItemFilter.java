@@ -0,0 +1,176 @@
+package com.ling.observable.observable;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 数据项过滤条件
+ * 由字段相等条件和字段范围条件组成，全部满足时数据项才推送给订阅者
+ * 字段从Map类型的数据项中读取（REST接口提交的JSON对象即为Map），其他类型的数据项不满足任何条件
+ * 字段值统一规范化为字符串比较，数值去掉多余的零，因此查询参数"42"与数据中的42、42.0相等
+ *
+ * @author Ling
+ */
+public class ItemFilter {
+
+    /**
+     * 相等条件，字段名到规范化后的期望值
+     */
+    private final Map<String, String> equalities = new LinkedHashMap<>();
+
+    /**
+     * 范围条件，字段名到闭区间
+     */
+    private final Map<String, Range> ranges = new LinkedHashMap<>();
+
+    /**
+     * 添加相等条件
+     *
+     * @param field 字段名
+     * @param value 期望值
+     * @return 当前过滤条件
+     */
+    public ItemFilter equalTo(String field, Object value) {
+        equalities.put(field, normalize(value));
+        return this;
+    }
+
+    /**
+     * 添加范围条件，闭区间
+     *
+     * @param field 字段名
+     * @param min   下界，null表示不限制
+     * @param max   上界，null表示不限制
+     * @return 当前过滤条件
+     */
+    public ItemFilter range(String field, Object min, Object max) {
+        ranges.put(field, new Range(min, max));
+        return this;
+    }
+
+    /**
+     * 是否没有任何条件
+     *
+     * @return 没有条件返回true
+     */
+    public boolean isEmpty() {
+        return equalities.isEmpty() && ranges.isEmpty();
+    }
+
+    /**
+     * 获取相等条件
+     *
+     * @return 字段名到规范化期望值的只读映射
+     */
+    public Map<String, String> getEqualities() {
+        return Collections.unmodifiableMap(equalities);
+    }
+
+    /**
+     * 判断数据项是否满足全部条件
+     *
+     * @param item 数据项
+     * @return 满足返回true
+     */
+    public boolean matches(Object item) {
+        for (Map.Entry<String, String> entry : equalities.entrySet()) {
+            Object value = fieldValue(item, entry.getKey());
+            if (value == null || !entry.getValue().equals(normalize(value))) {
+                return false;
+            }
+        }
+        for (Map.Entry<String, Range> entry : ranges.entrySet()) {
+            if (!entry.getValue().contains(fieldValue(item, entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 读取数据项的字段值
+     *
+     * @param item  数据项
+     * @param field 字段名
+     * @return 字段值，数据项不是Map或字段不存在时返回null
+     */
+    static Object fieldValue(Object item, String field) {
+        return item instanceof Map<?, ?> map ? map.get(field) : null;
+    }
+
+    /**
+     * 规范化字段值
+     *
+     * @param value 字段值
+     * @return 规范化后的字符串
+     */
+    static String normalize(Object value) {
+        if (value instanceof Number number) {
+            BigDecimal decimal = toDecimal(number.toString());
+            if (decimal != null) {
+                return decimal.stripTrailingZeros().toPlainString();
+            }
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * 解析数值
+     *
+     * @param text 文本
+     * @return 数值，不是数值时返回null
+     */
+    private static BigDecimal toDecimal(String text) {
+        try {
+            return new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ItemFilter{equalities=" + equalities + ", ranges=" + ranges + "}";
+    }
+
+    /**
+     * 闭区间
+     * 两端和字段值都是数值时按数值比较，否则按字符串比较
+     *
+     * @param min 下界，null表示不限制
+     * @param max 上界，null表示不限制
+     */
+    private record Range(Object min, Object max) {
+
+        /**
+         * 判断字段值是否在区间内
+         *
+         * @param value 字段值
+         * @return 在区间内返回true，字段不存在返回false
+         */
+        boolean contains(Object value) {
+            if (value == null) {
+                return false;
+            }
+            return (min == null || compare(value, min) >= 0) && (max == null || compare(value, max) <= 0);
+        }
+
+        /**
+         * 比较两个值
+         *
+         * @param left  左值
+         * @param right 右值
+         * @return 比较结果
+         */
+        private static int compare(Object left, Object right) {
+            BigDecimal leftNumber = toDecimal(String.valueOf(left));
+            BigDecimal rightNumber = toDecimal(String.valueOf(right));
+            if (leftNumber != null && rightNumber != null) {
+                return leftNumber.compareTo(rightNumber);
+            }
+            return String.valueOf(left).compareTo(String.valueOf(right));
+        }
+    }
+}
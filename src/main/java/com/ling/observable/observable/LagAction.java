@@ -0,0 +1,20 @@
+package com.ling.observable.observable;
+
+/**
+ * 订阅者落后超过阈值时的处理方式
+ *
+ * @author Ling
+ */
+public enum LagAction {
+
+    /**
+     * 关闭订阅者并从Observable移除
+     */
+    EVICT,
+
+    /**
+     * 进入降级模式：暂停向订阅者的缓冲区写入新数据项并计入丢弃数量，缓冲区读空后自动恢复
+     * 游标订阅直接读取事件日志，没有可以暂停的缓冲区，始终按EVICT处理
+     */
+    DEGRADE
+}
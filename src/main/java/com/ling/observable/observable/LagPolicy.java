@@ -0,0 +1,177 @@
+package com.ling.observable.observable;
+
+import java.time.Duration;
+import java.util.function.ToLongFunction;
+
+/**
+ * 慢订阅者处理策略
+ * 后台定期检查每个订阅者落后的数据项数量、未读取数据的估算字节数和最早未读取数据项的等待时间，
+ * 超过任一阈值时按处理方式移除订阅者或使其降级，避免单个慢订阅者占用的内存无限增长或阻塞生产者
+ * 检查只读取计数器和环形缓冲区的时间戳，不影响推送路径；只有设置了字节阈值时才遍历缓冲区估算大小
+ *
+ * @author Ling
+ */
+public class LagPolicy {
+
+    /**
+     * 默认检查间隔
+     */
+    public static final Duration DEFAULT_CHECK_INTERVAL = Duration.ofSeconds(1);
+
+    /**
+     * 不检查
+     */
+    public static final LagPolicy NONE = new LagPolicy(0, 0, null, LagAction.EVICT);
+
+    /**
+     * 落后的数据项数量阈值，小于等于0表示不限制
+     */
+    private final long maxItems;
+
+    /**
+     * 未读取数据的估算字节数阈值，小于等于0表示不限制
+     */
+    private final long maxBytes;
+
+    /**
+     * 最早未读取数据项的等待时间阈值，null表示不限制
+     */
+    private final Duration maxAge;
+
+    /**
+     * 超过阈值时的处理方式
+     */
+    private final LagAction action;
+
+    /**
+     * 数据项大小估算函数，仅在设置了maxBytes时使用
+     */
+    private final ToLongFunction<Object> sizeEstimator;
+
+    /**
+     * 检查间隔
+     */
+    private final Duration checkInterval;
+
+    /**
+     * 构造函数
+     *
+     * @param maxItems 落后的数据项数量阈值
+     * @param maxBytes 未读取数据的估算字节数阈值
+     * @param maxAge   最早未读取数据项的等待时间阈值
+     * @param action   超过阈值时的处理方式
+     */
+    public LagPolicy(long maxItems, long maxBytes, Duration maxAge, LagAction action) {
+        this(maxItems, maxBytes, maxAge, action, RetentionPolicy::estimateSize, DEFAULT_CHECK_INTERVAL);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param maxItems      落后的数据项数量阈值
+     * @param maxBytes      未读取数据的估算字节数阈值
+     * @param maxAge        最早未读取数据项的等待时间阈值
+     * @param action        超过阈值时的处理方式
+     * @param sizeEstimator 数据项大小估算函数
+     * @param checkInterval 检查间隔
+     */
+    public LagPolicy(long maxItems, long maxBytes, Duration maxAge, LagAction action,
+                     ToLongFunction<Object> sizeEstimator, Duration checkInterval) {
+        this.maxItems = maxItems;
+        this.maxBytes = maxBytes;
+        this.maxAge = maxAge;
+        this.action = action;
+        this.sizeEstimator = sizeEstimator;
+        this.checkInterval = checkInterval;
+    }
+
+    /**
+     * 是否设置了任一阈值
+     *
+     * @return 需要检查时返回true
+     */
+    public boolean isEnabled() {
+        return maxItems > 0 || maxBytes > 0 || maxAge != null;
+    }
+
+    /**
+     * 判断落后程度是否超过阈值
+     *
+     * @param lag 落后程度
+     * @return 超过任一阈值时返回true
+     */
+    public boolean isExceededBy(SubscriptionLag lag) {
+        return (maxItems > 0 && lag.items() > maxItems)
+                || (maxBytes > 0 && lag.bytes() > maxBytes)
+                || (maxAge != null && lag.oldestAgeMillis() > maxAge.toMillis());
+    }
+
+    /**
+     * 是否需要统计未读取数据的字节数
+     *
+     * @return 设置了maxBytes时返回true
+     */
+    public boolean tracksBytes() {
+        return maxBytes > 0;
+    }
+
+    /**
+     * 获取落后的数据项数量阈值
+     *
+     * @return 数据项数量阈值
+     */
+    public long getMaxItems() {
+        return maxItems;
+    }
+
+    /**
+     * 获取未读取数据的估算字节数阈值
+     *
+     * @return 字节数阈值
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * 获取最早未读取数据项的等待时间阈值
+     *
+     * @return 等待时间阈值，null表示不限制
+     */
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * 获取超过阈值时的处理方式
+     *
+     * @return 处理方式
+     */
+    public LagAction getAction() {
+        return action;
+    }
+
+    /**
+     * 获取数据项大小估算函数
+     *
+     * @return 大小估算函数
+     */
+    public ToLongFunction<Object> getSizeEstimator() {
+        return sizeEstimator;
+    }
+
+    /**
+     * 获取检查间隔
+     *
+     * @return 检查间隔
+     */
+    public Duration getCheckInterval() {
+        return checkInterval;
+    }
+
+    @Override
+    public String toString() {
+        return "LagPolicy{maxItems=" + maxItems + ", maxBytes=" + maxBytes + ", maxAge=" + maxAge
+                + ", action=" + action + "}";
+    }
+}
@@ -0,0 +1,53 @@
+package com.ling.observable.observable;
+
+/**
+ * 长整型Observable
+ * 数据存放在预分配的long[]环形数组中，addData()和LongSubscription.takeLong()都不装箱，
+ * 适用于遥测指标等高频数值数据流
+ *
+ * @author Ling
+ */
+public class LongObservable extends PrimitiveObservable<LongSubscription> {
+
+    /**
+     * 数据槽位
+     */
+    private final long[] values;
+
+    /**
+     * 构造函数，使用默认缓冲区容量
+     */
+    public LongObservable() {
+        this(Observable.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param bufferSize 缓冲区容量，必须是2的幂
+     */
+    public LongObservable(int bufferSize) {
+        super(bufferSize);
+        this.values = new long[bufferSize];
+    }
+
+    /**
+     * 添加数据
+     * 支持多个生产者并发写入，缓冲区已满时等待最慢的订阅者读取，关闭后丢弃
+     *
+     * @param value 数据
+     */
+    public void addData(long value) {
+        long sequence = claim();
+        if (sequence == RingBuffer.ABORTED) {
+            return;
+        }
+        values[(int) sequence & indexMask] = value;
+        publish(sequence);
+    }
+
+    @Override
+    protected LongSubscription createSubscription(Sequence cursor) {
+        return new LongSubscription(sequencer, cursor, values);
+    }
+}
@@ -0,0 +1,41 @@
+package com.ling.observable.observable;
+
+/**
+ * 长整型订阅
+ * 直接从LongObservable的long[]环形数组中读取，不装箱
+ *
+ * @author Ling
+ */
+public class LongSubscription extends PrimitiveSubscription {
+
+    /**
+     * Observable的数据槽位
+     */
+    private final long[] values;
+
+    /**
+     * 构造函数
+     *
+     * @param sequencer 序号器
+     * @param cursor    读取进度，需已注册为门控序号
+     * @param values    数据槽位
+     */
+    LongSubscription(RingBuffer<?> sequencer, Sequence cursor, long[] values) {
+        super(sequencer, cursor);
+        this.values = values;
+    }
+
+    /**
+     * 获取下一个数据（阻塞方法）
+     * 如果没有新数据，该方法会阻塞直到有数据发布
+     *
+     * @return 数据
+     * @throws InterruptedException 如果线程被中断
+     */
+    public long takeLong() throws InterruptedException {
+        long sequence = awaitNext();
+        long value = values[(int) sequence & indexMask];
+        advance(sequence);
+        return value;
+    }
+}
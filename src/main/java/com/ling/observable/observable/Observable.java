@@ -3,195 +3,1612 @@ package com.ling.observable.observable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 /**
  * 可观察对象类
  * 负责管理订阅者并推送数据
+ * 同时实现java.util.concurrent.Flow.Publisher，可以按request(n)的请求数量推送给Flow订阅者，
+ * Reactor、RxJava等可以通过各自的Flow适配器直接订阅
  *
  * @param <T> 数据类型
  * @author Ling
  */
-public class Observable<T> {
+// 构造函数把日志已满回调和定时任务交给环形缓冲区和调度器，回调只在生产者写入时执行，
+// 定时任务在一个间隔之后才执行，都不会看到未初始化完成的对象
+@SuppressWarnings("this-escape")
+public class Observable<T> implements Flow.Publisher<T> {
     
     private static final Logger logger = LogManager.getLogger(Observable.class);
+
+    /**
+     * 默认环形缓冲区容量
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 14;
+
+    /**
+     * 单次推送任务最多推送的数据项数量，也是单个批次的最大长度
+     * 超过后让出工作线程，避免热点Observable饿死其他Observable
+     */
+    static final int MAX_ITEMS_PER_RUN = 256;
+
+    /**
+     * 默认并行推送阈值
+     */
+    public static final int DEFAULT_PARALLEL_FAN_OUT_THRESHOLD = 4096;
+
+    /**
+     * 默认并行推送分段大小
+     */
+    public static final int DEFAULT_FAN_OUT_CHUNK_SIZE = 1024;
+
+    /**
+     * 默认低优先级通道最多连续被越过的次数
+     */
+    public static final int DEFAULT_STARVATION_THRESHOLD = 64;
+
     
     /**
-     * 数据源，用于提供需要推送的数据
-     * 修改为支持动态添加数据的列表
+     * 数据源，预分配的环形缓冲区事件日志
+     * 每个数据项对应一个递增序号，写入为常数时间且不分配内存
+     */
+    private final RingBuffer<T> ringBuffer;
+
+    /**
+     * 推送进度，记录已推送给所有订阅者的最大序号
+     * 作为环形缓冲区的门控序号，未推送的数据不会被生产者覆盖
+     */
+    private final Sequence dispatchSequence = new Sequence();
+
+    /**
+     * 历史数据保留策略
+     */
+    private final RetentionPolicy retentionPolicy;
+
+    /**
+     * 回收进度，记录已回收的最大序号，之后的数据仍保留在日志中
+     * 作为环形缓冲区的门控序号，保留的历史数据不会被生产者覆盖
+     */
+    private final Sequence retentionSequence = new Sequence();
+
+    /**
+     * 日志中保留的数据项估算字节数，仅在保留策略限制字节数时统计
+     */
+    private final AtomicLong retainedBytes = new AtomicLong(0);
+
+    /**
+     * 保留数据项数量的实际上限
+     * 不超过缓冲区容量的3/4，为生产者保留写入空间
+     */
+    private final long maxRetainedItems;
+
+    /**
+     * 并行推送阈值，队列模式的订阅者数量达到该值时分段并行推送，小于等于0表示不并行推送
+     */
+    private final int parallelFanOutThreshold;
+
+    /**
+     * 并行推送时每个分段的订阅者数量
+     */
+    private final int fanOutChunkSize;
+
+    /**
+     * 队列模式订阅者的默认缓冲区容量，0表示不限制
+     */
+    private final int subscriberCapacity;
+
+    /**
+     * 订阅者缓冲区已满时的默认处理策略
+     */
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * 推送速率策略
+     */
+    private final RatePolicy ratePolicy;
+
+    /**
+     * 推送限速器，只在推送任务中访问
+     */
+    private final RateLimiter rateLimiter;
+
+    /**
+     * 推送锁，保护每个批次的推送与推送进度的推进
+     * 回放订阅在该锁内复制历史数据并注册，与推送线程之间不会重复或遗漏数据
+     */
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+
+    /**
+     * 回收锁，推送线程、定时线程和等待中的生产者都可能触发回收，同一时刻只允许一个执行
+     * 回放订阅持有该锁期间历史数据不会被回收
+     */
+    private final ReentrantLock compactionLock = new ReentrantLock();
+
+    /**
+     * 周期性回收任务，处理按时间过期的数据和游标订阅的读取进度
+     */
+    private final ScheduledFuture<?> compactionTask;
+
+    /**
+     * 慢订阅者处理策略
+     */
+    private final LagPolicy lagPolicy;
+
+    /**
+     * 周期性检查慢订阅者的任务，未启用时为null
+     */
+    private final ScheduledFuture<?> lagTask;
+
+    /**
+     * 因落后过多被移除的订阅者数量
+     */
+    private final AtomicLong evictedCount = new AtomicLong();
+
+    /**
+     * 队列模式的订阅者注册表
+     * 推送线程遍历其数组快照，成员变化时重新发布快照
+     */
+    private final SubscriberRegistry<T> listeners = new SubscriberRegistry<>();
+
+    /**
+     * 带过滤条件的队列模式订阅者，按相等条件建立索引
+     */
+    private final FilterIndex<T> filteredListeners = new FilterIndex<>();
+
+    /**
+     * 游标模式的订阅
+     * 直接读取事件日志，推送线程不需要向其复制数据
+     */
+    private final Set<CursorSubscription<T>> cursorSubscriptions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * java.util.concurrent.Flow的订阅
+     * 与游标订阅一样直接读取事件日志，按订阅者请求的数量推送
+     */
+    private final Set<FlowSubscription<T>> flowSubscriptions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * BLOCK_PRODUCER策略订阅者的读取游标
+     * 按缓冲区的剩余空间从事件日志拉取，缓冲区已满时由门控序号让生产者等待，不阻塞推送线程
+     */
+    private final Set<BlockingCursor<T>> blockingCursors = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 订阅注册与关闭之间的互斥，关闭之后不会有新的注册，关闭之前开始的注册也都能在通知订阅者关闭之前完成
+     */
+    private final RegistrationGate registration = new RegistrationGate();
+
+    /**
+     * 推送调度器，多个Observable共享其工作线程
+     */
+    private final Dispatcher dispatcher;
+
+    /**
+     * 标记推送任务是否已提交到调度器
+     * 保证同一时刻最多只有一个推送任务在执行，推送顺序与序号一致
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /**
+     * 批量推送时复用的数据列表
+     * 只在推送任务中访问，同一时刻最多一个推送任务执行
+     */
+    private final List<T> batch = new ArrayList<>(MAX_ITEMS_PER_RUN);
+
+    /**
+     * 优先级通道，未启用时为null，数据项直接写入事件日志
+     */
+    private final PriorityLanes<T> priorityLanes;
+
+    /**
+     * 优先级通道中有数据但事件日志没有空闲槽位，推送任务已结束，
+     * 等待读取进度推进、订阅者移除或回收进度推进后由onConsumed()重新提交，不轮询
+     */
+    private volatile boolean awaitingSpace;
+
+    /**
+     * 从优先级通道取出后写入事件日志的数据列表
+     * 只在推送任务中访问
+     */
+    private final List<T> admitted = new ArrayList<>(MAX_ITEMS_PER_RUN);
+
+    /**
+     * 构造函数，使用默认缓冲区容量
+     */
+    public Observable() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param dataList 初始数据列表，按顺序写入事件日志
+     */
+    public Observable(List<T> dataList) {
+        this(RingBuffer.ceilingPowerOfTwo(Math.max(dataList.size(), DEFAULT_BUFFER_SIZE)));
+        dataList.forEach(this::addData);
+    }
+
+    /**
+     * 构造函数，使用共享调度器
+     *
+     * @param bufferSize 环形缓冲区容量，必须是2的幂
+     */
+    public Observable(int bufferSize) {
+        this(new ObservableOptions().bufferSize(bufferSize));
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param bufferSize 环形缓冲区容量，必须是2的幂
+     * @param dispatcher 推送调度器
+     */
+    public Observable(int bufferSize, Dispatcher dispatcher) {
+        this(new ObservableOptions().bufferSize(bufferSize).dispatcher(dispatcher));
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param options 创建参数
+     */
+    public Observable(ObservableOptions options) {
+        this.ringBuffer = new RingBuffer<>(options.getBufferSize());
+        this.ringBuffer.addGatingSequence(dispatchSequence);
+        this.ringBuffer.addGatingSequence(retentionSequence);
+        this.ringBuffer.setFullHandler(this::onFull);
+        this.dispatcher = options.getDispatcher();
+        this.retentionPolicy = options.getRetentionPolicy();
+        this.parallelFanOutThreshold = options.getParallelFanOutThreshold();
+        this.fanOutChunkSize = Math.max(1, options.getFanOutChunkSize());
+        this.subscriberCapacity = Math.max(0, options.getSubscriberCapacity());
+        this.overflowPolicy = options.getOverflowPolicy();
+        this.ratePolicy = options.getRatePolicy();
+        this.rateLimiter = new RateLimiter(ratePolicy);
+        this.maxRetainedItems = Math.max(0, Math.min(retentionPolicy.getMaxItems(), ringBuffer.getBufferSize() * 3L / 4));
+        this.compactionTask = dispatcher.scheduleAtFixedRate(this::compact, retentionPolicy.getCompactionInterval());
+        this.priorityLanes = options.getPriorityLanes() > 1
+                ? new PriorityLanes<>(options.getPriorityLanes(), ringBuffer.getBufferSize(), options.getStarvationThreshold(),
+                        () -> getSubscriberCount() == 0)
+                : null;
+        this.lagPolicy = options.getLagPolicy();
+        this.lagTask = lagPolicy.isEnabled()
+                ? dispatcher.scheduleAtFixedRate(this::checkLag, lagPolicy.getCheckInterval()) : null;
+        logger.debug("创建新的Observable实例，保留策略: {}，速率策略: {}", retentionPolicy, ratePolicy);
+    }
+
+    /**
+     * 处理数据并推送给所有订阅者
+     * 这是Observable的核心处理逻辑，在调度器的工作线程上执行
+     * 每次取出上次推送之后发布的全部数据，整段批量推送给每个订阅者
+     * 没有订阅者或没有新数据时任务结束，不占用线程，直到被signal()重新提交
+     * 超出速率限制时任务结束并保持调度标记，由定时线程在令牌补足后重新提交
+     * 订阅者的操作符等抛出的异常在推送时按订阅者隔离；其余异常传播给调度器之前也会清除调度标记，
+     * 否则之后的signal()都不会再提交任务，Observable永久停止推送
+     */
+    private void process() {
+        boolean handedOff = false;
+        try {
+            handedOff = dispatchPending();
+        } finally {
+            if (!handedOff) {
+                // 先清除调度标记再复查，保证清除前到达的信号不会丢失
+                scheduled.set(false);
+            }
+        }
+        if (!handedOff && hasPendingWork()) {
+            signal();
+        }
+    }
+
+    /**
+     * 推送积压的数据，最多推送MAX_ITEMS_PER_RUN个数据项
+     *
+     * @return 已把后续推送交给新提交或延迟提交的任务时返回true，此时调度标记保持不变
+     */
+    private boolean dispatchPending() {
+        int processed = 0;
+        while (processed < MAX_ITEMS_PER_RUN && hasPendingWork()) {
+            if (priorityLanes != null) {
+                admit();
+            }
+            int count;
+            dispatchLock.lock();
+            try {
+                count = dispatchBatch(MAX_ITEMS_PER_RUN - processed);
+            } finally {
+                dispatchLock.unlock();
+            }
+            if (count == 0) {
+                long delay = rateLimiter.getDelayNanos();
+                if (delay > 0) {
+                    // 不在工作线程上休眠，期间到达的信号合并到延迟提交的任务中
+                    dispatcher.schedule(() -> dispatcher.execute(this::process), delay);
+                    return true;
+                }
+                break;
+            }
+            processed += count;
+        }
+
+        if (processed >= MAX_ITEMS_PER_RUN && hasPendingWork()) {
+            // 仍有积压，重新排队以便其他Observable获得执行机会
+            dispatcher.execute(this::process);
+            return true;
+        }
+
+        // 回收已推送的历史数据
+        compact();
+        return false;
+    }
+
+    /**
+     * 推送一个批次
+     * 取出上次推送之后发布的数据，整段推送给每个订阅者，然后推进推送进度
+     * 必须持有推送锁调用
+     *
+     * @param maxItems 本批次最多推送的数据项数量
+     * @return 本批次推送的数据项数量
+     */
+    private int dispatchBatch(int maxItems) {
+        long nextSequence = dispatchSequence.get() + 1;
+        long limit = Math.min(ringBuffer.getCursor(), nextSequence + maxItems - 1);
+        long available = ringBuffer.getHighestPublishedSequence(nextSequence, limit);
+
+        // 只有游标订阅时不需要复制数据，直接推进推送进度；阻塞策略的订阅者自行从日志拉取，但同样受速率限制
+        Subscriber<T>[] subscribers = listeners.snapshot();
+        boolean filtered = filteredListeners.size() > 0;
+        if (subscribers.length > 0 || filtered || !blockingCursors.isEmpty()) {
+            available = rateLimiter.acquire(ringBuffer, nextSequence, available);
+        }
+        if (subscribers.length > 0 || filtered) {
+            if (available < nextSequence) {
+                return 0;
+            }
+            batch.clear();
+            for (long sequence = nextSequence; sequence <= available; sequence++) {
+                batch.add(ringBuffer.get(sequence));
+            }
+            // 整段推送给每个订阅者，订阅者很多时分段并行推送，缩短最后一个订阅者的等待时间
+            if (parallelFanOutThreshold > 0 && subscribers.length >= parallelFanOutThreshold) {
+                dispatcher.fanOutPool().invoke(new FanOutTask<>(subscribers, 0, subscribers.length,
+                        fanOutChunkSize, batch, nextSequence, available));
+            } else {
+                for (Subscriber<T> subscriber : subscribers) {
+                    subscriber.deliver(batch, nextSequence, available);
+                }
+            }
+            // 带过滤条件的订阅者只收到满足条件的数据项
+            if (filtered) {
+                filteredListeners.dispatch(batch);
+            }
+            removeFailed(subscribers);
+            logger.debug("批量推送数据项: {} 个，序号: {} - {}", batch.size(), nextSequence, available);
+            batch.clear();
+        } else if (available < nextSequence) {
+            return 0;
+        }
+
+        // 推进门控序号，释放槽位给生产者
+        dispatchSequence.set(available);
+        // 通知Flow订阅按各自的请求数量读取新推送的数据，阻塞策略的订阅者按缓冲区的剩余空间读取
+        for (FlowSubscription<T> flowSubscription : flowSubscriptions) {
+            flowSubscription.signal();
+        }
+        for (BlockingCursor<T> blockingCursor : blockingCursors) {
+            blockingCursor.signalData();
+        }
+        return (int) (available - nextSequence + 1);
+    }
+
+    /**
+     * 移除推送时抛出异常而关闭的订阅者，不再为其占用推送时间
+     *
+     * @param subscribers 本批次推送的订阅者快照
+     */
+    private void removeFailed(Subscriber<T>[] subscribers) {
+        for (Subscriber<T> subscriber : subscribers) {
+            if (subscriber.getError() != null && detach(subscriber.getHandle()) != null) {
+                logger.warn("移除推送时抛出异常的订阅者，当前订阅者数量: {}", getSubscriberCount());
+            }
+        }
+        for (Subscriber<T> subscriber : filteredListeners.subscribers()) {
+            if (subscriber.getError() != null && detach(subscriber.getHandle()) != null) {
+                logger.warn("移除推送时抛出异常的订阅者，当前订阅者数量: {}", getSubscriberCount());
+            }
+        }
+    }
+
+    /**
+     * 按优先级把通道中等待的数据项写入事件日志，只在推送任务中调用
+     * 日志中未推送的数据项不超过一个批次，其余留在通道中，之后到达的高优先级数据项最多排在一个批次之后
+     * 启用优先级通道时推送任务是事件日志唯一的写入者，只使用已空闲的槽位，不会在工作线程上等待；
+     * 没有空闲槽位时置位awaitingSpace后结束，由消费进度推进时重新提交
+     */
+    private void admit() {
+        if (priorityLanes.isEmpty()) {
+            return;
+        }
+        long cursor = ringBuffer.getCursor();
+        long free = ringBuffer.getBufferSize() - (cursor - ringBuffer.minimumGatingSequence(cursor));
+        if (free <= 0) {
+            // 先置位等待标记再回收并复查，复查之前推进的读取进度由复查看到，之后推进的由onConsumed()看到；
+            // 回收必须加锁执行，不能因定时回收正在执行而跳过
+            awaitingSpace = true;
+            compactionLock.lock();
+            try {
+                reclaim();
+            } finally {
+                compactionLock.unlock();
+            }
+            free = ringBuffer.getBufferSize() - (cursor - ringBuffer.minimumGatingSequence(cursor));
+            if (free <= 0) {
+                return;
+            }
+            awaitingSpace = false;
+        }
+        int count = (int) Math.min(free, MAX_ITEMS_PER_RUN - (cursor - dispatchSequence.get()));
+        if (count <= 0) {
+            return;
+        }
+        count = priorityLanes.drainTo(admitted, count);
+        if (count == 0) {
+            return;
+        }
+        long hi = ringBuffer.next(count);
+        long lo = hi - count + 1;
+        for (int i = 0; i < count; i++) {
+            store(lo + i, admitted.get(i));
+        }
+        ringBuffer.publish(lo, hi);
+        admitted.clear();
+    }
+
+    /**
+     * 判断是否有待推送的工作
+     *
+     * @return 未关闭、有订阅者且有未推送的数据（包括优先级通道中等待且事件日志有空间写入的数据）时返回true
+     */
+    private boolean hasPendingWork() {
+        return !isClosed() && getSubscriberCount() > 0 && (ringBuffer.isAvailable(dispatchSequence.get() + 1)
+                || (priorityLanes != null && !awaitingSpace && !priorityLanes.isEmpty()));
+    }
+
+    /**
+     * 读取进度推进或订阅者移除后调用
+     * 有生产者等待空闲槽位时回收已读取的数据，回收进度推进后由reclaim()唤醒生产者，生产者不需要自旋回收；
+     * 推送任务因事件日志没有空闲槽位而等待时重新提交
+     */
+    void onConsumed() {
+        if (ringBuffer.hasStalledProducers()) {
+            compact();
+        }
+        resumeAdmission();
+    }
+
+    /**
+     * 推送任务因事件日志没有空闲槽位而等待时重新提交，继续把优先级通道中的数据项写入事件日志
+     */
+    private void resumeAdmission() {
+        if (awaitingSpace) {
+            awaitingSpace = false;
+            signal();
+        }
+    }
+
+    /**
+     * 订阅者移除后调用，释放的门控序号可能使事件日志出现空闲槽位；
+     * 最后一个订阅者离开时唤醒等待通道空间的生产者，之后改为丢弃最旧的数据项
+     */
+    private void onSubscriberRemoved() {
+        onConsumed();
+        if (priorityLanes != null && getSubscriberCount() == 0) {
+            priorityLanes.wakeProducers();
+        }
+    }
+
+    /**
+     * 提交推送任务
+     * 仅当没有已提交的任务时才提交，忙碌时的信号合并到正在执行的任务中
+     */
+    private void signal() {
+        if (!scheduled.get() && scheduled.compareAndSet(false, true)) {
+            dispatcher.execute(this::process);
+        }
+    }
+
+    /**
+     * 动态添加数据到Observable
+     * 支持多个生产者并发写入：申请序号、写入槽位、发布
+     * 缓冲区已满时等待推送线程释放槽位；没有订阅者时丢弃最旧的积压数据，Observable关闭后丢弃数据项
+     * 
+     * @param item 要添加的数据项
+     */
+    public void addData(T item) {
+        if (isClosed()) {
+            logger.warn("Observable已关闭，丢弃数据项: {}", item);
+            return;
+        }
+        if (priorityLanes != null) {
+            addData(item, 0);
+            return;
+        }
+        long sequence = ringBuffer.next(1, this::isClosed);
+        if (sequence == RingBuffer.ABORTED) {
+            logger.warn("Observable已关闭，丢弃数据项: {}", item);
+            return;
+        }
+        store(sequence, item);
+        ringBuffer.publish(sequence);
+        logger.debug("添加新数据项: {}，序号: {}", item, sequence);
+        signal();
+    }
+
+    /**
+     * 尝试添加数据到Observable，不等待
+     * 供不能阻塞的调用方使用，例如在另一个Observable的推送线程上产生数据的窗口聚合器和定时任务
+     * 没有订阅者时与addData一样丢弃最旧的积压数据，因此只有消费者跟不上时才会失败
+     *
+     * @param item 要添加的数据项
+     * @return 添加成功返回true，缓冲区或优先级通道已满、Observable已关闭时返回false
+     */
+    public boolean tryAddData(T item) {
+        if (isClosed()) {
+            return false;
+        }
+        if (priorityLanes != null) {
+            if (!priorityLanes.offer(item, 0)) {
+                return false;
+            }
+            signal();
+            return true;
+        }
+        long sequence = ringBuffer.tryNext(1);
+        if (sequence == RingBuffer.ABORTED) {
+            return false;
+        }
+        store(sequence, item);
+        ringBuffer.publish(sequence);
+        logger.debug("添加新数据项: {}，序号: {}", item, sequence);
+        signal();
+        return true;
+    }
+
+    /**
+     * 按优先级添加数据到Observable
+     * 数据项先进入对应优先级的通道，由推送任务按优先级从高到低写入事件日志，
+     * 因此紧急数据项不必排在大量已添加但尚未写入日志的普通数据项之后；
+     * 事件日志中的序号按写入日志的顺序分配，游标订阅、回放和Flow订阅看到的也是该顺序
+     * 低优先级通道连续被越过的次数有上限，不会饿死；通道已满时等待，没有订阅者时丢弃该通道最旧的数据项
+     * 未启用优先级通道时只接受优先级0，与addData(item)相同
+     *
+     * @param item     要添加的数据项
+     * @param priority 优先级，取值为[0, getPriorityLanes())，数值越大越优先，0为普通优先级
+     */
+    public void addData(T item, int priority) {
+        int lanes = getPriorityLanes();
+        if (priority < 0 || priority >= lanes) {
+            throw new IllegalArgumentException("Priority must be in [0, " + lanes + "), got " + priority);
+        }
+        if (priorityLanes == null) {
+            addData(item);
+            return;
+        }
+        if (priorityLanes.put(item, priority)) {
+            logger.debug("添加新数据项: {}，优先级: {}", item, priority);
+            signal();
+        }
+    }
+
+    /**
+     * 写入已申请序号的槽位，需要时记录数据项大小
+     *
+     * @param sequence 已申请的序号
+     * @param item     数据项
+     */
+    private void store(long sequence, T item) {
+        ringBuffer.set(sequence, item);
+        if (retentionPolicy.tracksBytes()) {
+            long size = retentionPolicy.sizeOf(item);
+            ringBuffer.setSize(sequence, size);
+            retainedBytes.addAndGet(size);
+        }
+    }
+
+    /**
+     * 获取优先级通道数量
+     *
+     * @return 通道数量，未启用优先级通道时为1
+     */
+    public int getPriorityLanes() {
+        return priorityLanes != null ? priorityLanes.getLaneCount() : 1;
+    }
+
+    /**
+     * 事件日志已满时由等待中的生产者调用
+     * 没有订阅者时推送进度不会前进，积压的数据会一直占满日志，生产者永远等不到空闲槽位，
+     * 因此把推送进度推进到只保留最新的半个缓冲区积压，跳过的数据项转为历史数据按保留策略回收，
+     * 之后的订阅者从保留的积压数据开始接收
+     */
+    private void onFull() {
+        if (getSubscriberCount() == 0 && dispatchLock.tryLock()) {
+            try {
+                long dispatched = dispatchSequence.get();
+                long target = ringBuffer.getCursor() - ringBuffer.getBufferSize() / 2;
+                // 持有推送锁后复查，缩小与新订阅者注册之间的竞争窗口
+                if (getSubscriberCount() == 0 && target > dispatched) {
+                    long skipped = ringBuffer.getHighestPublishedSequence(dispatched + 1, target);
+                    if (skipped > dispatched) {
+                        dispatchSequence.set(skipped);
+                        logger.warn("没有订阅者且事件日志已满，丢弃最旧的积压数据项: {} 个，序号: {} - {}",
+                                skipped - dispatched, dispatched + 1, skipped);
+                    }
+                }
+            } finally {
+                dispatchLock.unlock();
+            }
+        }
+        compact();
+    }
+
+    /**
+     * 回收历史数据
+     * 从最旧的数据开始，回收已被所有订阅者消费、且超出保留数量、字节数或时间限制的数据：
+     * 释放槽位对数据项的引用，再推进回收进度，使生产者可以复用这些槽位
+     */
+    void compact() {
+        if (!compactionLock.tryLock()) {
+            return;
+        }
+        boolean reclaimed;
+        try {
+            reclaimed = reclaim();
+        } finally {
+            compactionLock.unlock();
+        }
+        if (reclaimed) {
+            resumeAdmission();
+        }
+    }
+
+    /**
+     * 回收历史数据，必须持有回收锁调用
+     *
+     * @return 回收进度推进时返回true
+     */
+    private boolean reclaim() {
+        long consumed = getMinimumConsumedSequence();
+        long reclaimed = retentionSequence.get();
+        long cursor = ringBuffer.getCursor();
+        long expireBefore = retentionPolicy.getMaxAge() == null ? Long.MIN_VALUE
+                : System.currentTimeMillis() - retentionPolicy.getMaxAge().toMillis();
+        long bytes = retainedBytes.get();
+        long freedBytes = 0;
+
+        long sequence = reclaimed + 1;
+        while (sequence <= consumed) {
+            boolean overItems = cursor - sequence + 1 > maxRetainedItems;
+            boolean overBytes = retentionPolicy.tracksBytes() && bytes - freedBytes > retentionPolicy.getMaxBytes();
+            boolean expired = ringBuffer.getTimestamp(sequence) < expireBefore;
+            if (!overItems && !overBytes && !expired) {
+                break;
+            }
+            freedBytes += ringBuffer.getSize(sequence);
+            ringBuffer.clear(sequence);
+            sequence++;
+        }
+
+        if (sequence - 1 > reclaimed) {
+            retainedBytes.addAndGet(-freedBytes);
+            // 释放槽位引用之后才推进回收进度，生产者不会与回收并发写同一槽位
+            retentionSequence.set(sequence - 1);
+            // 回收进度是最慢的门控序号，推进后唤醒等待空闲槽位的生产者
+            ringBuffer.signalSpace();
+            logger.debug("回收历史数据项: {} 个，序号: {} - {}", sequence - 1 - reclaimed, reclaimed + 1, sequence - 1);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 获取所有订阅者中最慢的消费进度
+     * 队列模式的订阅者以推送进度计，游标订阅、Flow订阅和阻塞策略的订阅者以各自的读取进度计
+     * 先读取推送进度再遍历游标订阅，新注册的游标订阅会对齐到不小于该值的推送进度
+     *
+     * @return 已被所有订阅者消费的最大序号
+     */
+    private long getMinimumConsumedSequence() {
+        long minimum = dispatchSequence.get();
+        for (CursorSubscription<T> subscription : cursorSubscriptions) {
+            minimum = Math.min(minimum, subscription.getCursor().get());
+        }
+        for (FlowSubscription<T> subscription : flowSubscriptions) {
+            minimum = Math.min(minimum, subscription.getCursor().get());
+        }
+        for (BlockingCursor<T> blockingCursor : blockingCursors) {
+            minimum = Math.min(minimum, blockingCursor.getCursor().get());
+        }
+        return minimum;
+    }
+
+    /**
+     * 检查所有订阅者的落后程度，超过阈值的按慢订阅者处理策略移除或降级
+     * 由后台定时执行，只读取计数器和时间戳，不影响推送路径
+     */
+    void checkLag() {
+        if (isClosed()) {
+            return;
+        }
+        long head = ringBuffer.getCursor();
+        long now = System.currentTimeMillis();
+        for (Subscriber<T> subscriber : listeners.snapshot()) {
+            checkLag(subscriber, head, now);
+        }
+        for (Subscriber<T> subscriber : filteredListeners.subscribers()) {
+            checkLag(subscriber, head, now);
+        }
+        for (BlockingCursor<T> blockingCursor : blockingCursors) {
+            try {
+                handleLag(blockingCursor.getSubscriber(), blockingLag(blockingCursor, head, now, lagPolicy.tracksBytes()));
+            } catch (RuntimeException e) {
+                logger.error("估算订阅者落后程度时发生异常，跳过本次检查: {}", e.getMessage(), e);
+            }
+        }
+        for (CursorSubscription<T> subscription : cursorSubscriptions) {
+            try {
+                // 游标订阅没有缓冲区可以暂停，落后过多时直接移除，释放被其阻止覆盖的槽位
+                if (lagPolicy.isExceededBy(cursorLag(subscription, head, now, lagPolicy.tracksBytes()))
+                        && cursorSubscriptions.remove(subscription)) {
+                    releaseCursor(subscription);
+                    evictedCount.incrementAndGet();
+                    logger.warn("游标订阅落后过多，已移除，读取进度: {}，最新序号: {}", subscription.getCursor().get(), head);
+                }
+            } catch (RuntimeException e) {
+                logger.error("估算游标订阅落后程度时发生异常，跳过本次检查: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 检查一个队列模式订阅者的落后程度
+     * 数据项大小估算函数抛出的异常只跳过该订阅者本次的检查，异常传播到定时线程会取消之后所有的检查
+     *
+     * @param subscriber 订阅者
+     * @param head       最新发布序号
+     * @param now        当前时间（毫秒）
+     */
+    private void checkLag(Subscriber<T> subscriber, long head, long now) {
+        try {
+            handleLag(subscriber, queueLag(subscriber, head, now, lagPolicy.tracksBytes()));
+        } catch (RuntimeException e) {
+            logger.error("估算订阅者落后程度时发生异常，跳过本次检查: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 按慢订阅者处理策略处理队列模式的订阅者
+     *
+     * @param subscriber 订阅者
+     * @param lag        落后程度
+     */
+    private void handleLag(Subscriber<T> subscriber, SubscriptionLag lag) {
+        if (!lagPolicy.isExceededBy(lag)) {
+            return;
+        }
+        if (lagPolicy.getAction() == LagAction.DEGRADE) {
+            subscriber.degrade();
+        } else if (detach(subscriber.getHandle()) != null) {
+            subscriber.close();
+            evictedCount.incrementAndGet();
+            logger.warn("订阅者落后过多，已移除: {}，当前订阅者数量: {}", lag, getSubscriberCount());
+        }
+    }
+
+    /**
+     * 计算队列模式订阅者的落后程度
+     * 缓冲区中最早的数据项按推送进度减去未读取数量估算其序号，序号对应的槽位已被覆盖时取仍在日志中的最早数据项，
+     * 因此等待时间只会偏小
+     *
+     * @param subscriber 订阅者
+     * @param head       最新发布序号
+     * @param now        当前时间（毫秒）
+     * @param withBytes  是否估算字节数
+     * @return 落后程度
+     */
+    private SubscriptionLag queueLag(Subscriber<T> subscriber, long head, long now, boolean withBytes) {
+        int pending = subscriber.getPendingCount();
+        long age = pending == 0 ? 0 : ageOf(dispatchSequence.get() - pending + 1, head, now);
+        long bytes = withBytes ? subscriber.estimatePendingBytes(lagPolicy.getSizeEstimator()) : -1;
+        return new SubscriptionLag(pending, bytes, age, subscriber.isDegraded());
+    }
+
+    /**
+     * 计算阻塞策略订阅者的落后程度
+     * 包括缓冲区中未读取的数据项和日志中尚未拉取的数据项，缓冲区中最早的数据项按读取进度减去未读取数量估算其序号
+     *
+     * @param blockingCursor 读取游标
+     * @param head           最新发布序号
+     * @param now            当前时间（毫秒）
+     * @param withBytes      是否估算字节数
+     * @return 落后程度
+     */
+    private SubscriptionLag blockingLag(BlockingCursor<T> blockingCursor, long head, long now, boolean withBytes) {
+        Subscriber<T> subscriber = blockingCursor.getSubscriber();
+        long cursor = blockingCursor.getCursor().get();
+        int buffered = subscriber.getPendingCount();
+        long pending = buffered + Math.max(0, head - cursor);
+        long bytes = -1;
+        if (withBytes) {
+            bytes = subscriber.estimatePendingBytes(lagPolicy.getSizeEstimator());
+            for (long sequence = cursor + 1; sequence <= head; sequence++) {
+                bytes += lagPolicy.getSizeEstimator().applyAsLong(ringBuffer.get(sequence));
+            }
+        }
+        long age = pending == 0 ? 0 : ageOf(cursor - buffered + 1, head, now);
+        return new SubscriptionLag(pending, bytes, age, subscriber.isDegraded());
+    }
+
+    /**
+     * 计算游标订阅的落后程度
+     * 未读取的数据仍在日志中，等待时间是准确的
+     *
+     * @param subscription 游标订阅
+     * @param head         最新发布序号
+     * @param now          当前时间（毫秒）
+     * @param withBytes    是否估算字节数
+     * @return 落后程度
+     */
+    private SubscriptionLag cursorLag(CursorSubscription<T> subscription, long head, long now, boolean withBytes) {
+        long cursor = subscription.getCursor().get();
+        long pending = Math.max(0, head - cursor);
+        long bytes = -1;
+        if (withBytes) {
+            bytes = 0;
+            for (long sequence = cursor + 1; sequence <= head; sequence++) {
+                bytes += lagPolicy.getSizeEstimator().applyAsLong(ringBuffer.get(sequence));
+            }
+        }
+        return new SubscriptionLag(pending, bytes, pending == 0 ? 0 : ageOf(cursor + 1, head, now), false);
+    }
+
+    /**
+     * 计算数据项发布至今的毫秒数
+     *
+     * @param sequence 数据项序号
+     * @param head     最新发布序号
+     * @param now      当前时间（毫秒）
+     * @return 毫秒数
      */
-    private final List<T> dataList;
+    private long ageOf(long sequence, long head, long now) {
+        long oldestInLog = head - ringBuffer.getBufferSize() + 1;
+        return Math.max(0, now - ringBuffer.getTimestamp(Math.max(sequence, oldestInLog)));
+    }
 
     /**
-     * 存储订阅者映射关系 ConcurrentHashMap保证线程安全
-     * Key: Subscription对象，Value: Subscriber对象
+     * 获取订阅的落后程度
+     *
+     * @param subscription 订阅对象
+     * @return 落后程度，订阅不存在时返回null
      */
-    private final ConcurrentHashMap<Subscription<T>, Subscriber<T>> listeners;
+    public SubscriptionLag getLag(Subscription<?> subscription) {
+        long head = ringBuffer.getCursor();
+        long now = System.currentTimeMillis();
+        if (subscription instanceof CursorSubscription<?> cursorSubscription) {
+            for (CursorSubscription<T> candidate : cursorSubscriptions) {
+                if (candidate == cursorSubscription) {
+                    return cursorLag(candidate, head, now, true);
+                }
+            }
+            return null;
+        }
+        for (Subscriber<T> subscriber : listeners.snapshot()) {
+            if (subscriber.getHandle() == subscription) {
+                return queueLag(subscriber, head, now, true);
+            }
+        }
+        for (Subscriber<T> subscriber : filteredListeners.subscribers()) {
+            if (subscriber.getHandle() == subscription) {
+                return queueLag(subscriber, head, now, true);
+            }
+        }
+        for (BlockingCursor<T> blockingCursor : blockingCursors) {
+            if (blockingCursor.getSubscriber().getHandle() == subscription) {
+                return blockingLag(blockingCursor, head, now, true);
+            }
+        }
+        return null;
+    }
 
     /**
-     * 标记Observable是否已完成所有数据推送
-     * 使用AtomicBoolean确保原子操作
+     * 获取因落后过多被移除的订阅者数量
+     *
+     * @return 移除数量
      */
-    private final AtomicBoolean done = new AtomicBoolean(false);
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
 
     /**
-     * 读写锁，用于保护done状态的访问
-     * 读锁：允许多个线程同时读取状态
-     * 写锁：确保只有一个线程可以修改状态
+     * 获取日志中保留的数据项数量，包含尚未被消费的数据
+     *
+     * @return 数据项数量
      */
-    private final ReadWriteLock doneLock = new ReentrantReadWriteLock();
+    public long getRetainedItemCount() {
+        return ringBuffer.getCursor() - retentionSequence.get();
+    }
 
     /**
-     * 构造函数
+     * 获取日志中保留的数据项估算字节数
      *
-     * @param dataList 数据列表
+     * @return 字节数，保留策略不限制字节数时为0
      */
-    public Observable(List<T> dataList) {
-        this.dataList = dataList;
-        this.listeners = new ConcurrentHashMap<>();
-        // 启动处理线程，开始推送数据
-        new Thread(this::process).start();
-        logger.debug("创建新的Observable实例");
+    public long getRetainedBytes() {
+        return retainedBytes.get();
     }
 
     /**
-     * 处理数据并推送给所有订阅者
-     * 这是Observable的核心处理逻辑
-     * 修改为：当没有订阅者时阻塞，有订阅者时开始处理数据
+     * 关闭Observable，通知所有订阅者数据推送已完成
      */
-    private void process() {
+    public void close() {
+        // 置位关闭标记并等待关闭之前开始的注册完成，只有第一次关闭继续执行
+        if (!registration.close()) {
+            return;
+        }
+        compactionTask.cancel(false);
+        if (lagTask != null) {
+            lagTask.cancel(false);
+        }
+        if (priorityLanes != null) {
+            // 尚未写入事件日志的数据项随关闭丢弃，唤醒等待通道空间的生产者
+            priorityLanes.close();
+        }
+        // 唤醒等待空闲槽位的生产者，使其看到关闭标记后放弃写入
+        ringBuffer.signalSpace();
+        // 关闭所有订阅者
+        for (Subscriber<T> subscriber : listeners.snapshot()) {
+            subscriber.close();
+        }
+        filteredListeners.subscribers().forEach(Subscriber::close);
+        for (BlockingCursor<T> blockingCursor : blockingCursors) {
+            blockingCursor.getSubscriber().close();
+        }
+        cursorSubscriptions.forEach(this::releaseCursor);
+        // Flow订阅读完已推送的数据后收到onComplete
+        flowSubscriptions.forEach(FlowSubscription::signal);
+        logger.info("Observable已关闭，通知所有订阅者");
+    }
+
+    /**
+     * 是否已关闭
+     *
+     * @return 已关闭返回true
+     */
+    public boolean isClosed() {
+        return registration.isClosed();
+    }
+
+    /**
+     * 订阅方法，使用队列模式
+     *
+     * @return Subscription对象，用于接收数据
+     * @throws Exception 如果Observable已关闭则抛出异常
+     */
+    public Subscription<T> subscribe() throws Exception {
+        return subscribe(SubscriptionMode.QUEUE);
+    }
+
+    /**
+     * 订阅方法
+     *
+     * @param mode 订阅模式
+     * @return Subscription对象，用于接收数据
+     * @throws Exception 如果Observable已关闭则抛出异常
+     */
+    public Subscription<T> subscribe(SubscriptionMode mode) throws Exception {
+        // 检查Observable是否已经关闭并登记进行中的注册
+        registration.enter();
         try {
-            int currentIndex = 0;
-            while (!done.get()) {
-                // 等待至少有一个订阅者
-                while (listeners.isEmpty() && !done.get()) {
-                    try {
-                        // 短暂休眠，避免忙等待
-                        Thread.sleep(100);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        return;
-                    }
-                }
+            if (mode == SubscriptionMode.CURSOR) {
+                return subscribeCursor();
+            }
+            if (mode == SubscriptionMode.CONFLATING) {
+                throw new IllegalArgumentException("Conflating subscriptions require a key, use subscribeConflating()");
+            }
 
-                // 当有订阅者且未完成时，推送新数据
-                if (!done.get() && currentIndex < dataList.size()) {
-                    T item = dataList.get(currentIndex);
-                    currentIndex++;
-                    
-                    // 推送数据给所有订阅者
-                    listeners.values().forEach(subscriber -> subscriber.emit(item));
-                    logger.debug("推送数据项: {}", item);
-                    
-                    // 短暂休眠以控制推送速度
-                    try {
-                        Thread.sleep(10);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                } else if (currentIndex >= dataList.size()) {
-                    // 没有更多数据，短暂休眠等待新数据
-                    try {
-                        Thread.sleep(100);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                }
+            // 创建新的订阅者
+            return register(newSubscriber(subscriberCapacity, overflowPolicy));
+        } finally {
+            registration.exit();
+        }
+    }
+
+    /**
+     * 带过滤条件的订阅，使用队列模式
+     * 推送线程通过相等条件的哈希索引直接找到可能满足条件的订阅者，不满足条件的数据项不会进入其缓冲区
+     * 该订阅的getPosition()不反映消费位置
+     *
+     * @param filter 过滤条件
+     * @return Subscription对象，只接收满足条件的数据
+     * @throws Exception 如果Observable已关闭则抛出异常
+     */
+    public Subscription<T> subscribe(ItemFilter filter) throws Exception {
+        if (filter == null || filter.isEmpty()) {
+            return subscribe();
+        }
+        registration.enter();
+        try {
+            Subscriber<T> subscriber = newSubscriber(subscriberCapacity, overflowPolicy);
+            if (subscriber.blockingBuffer() != null) {
+                return registerBlocking(subscriber, filter, dispatchSequence.get(), true);
             }
+            subscriber.setDeliveredSequence(dispatchSequence.get());
+            filteredListeners.add(subscriber, filter);
+            logger.debug("新增带过滤条件的订阅者: {}，当前订阅者数量: {}", filter, getSubscriberCount());
+            signal();
+            return subscriber.getSubscription();
         } finally {
-            // 处理完成后关闭所有订阅者
-            close();
+            registration.exit();
         }
     }
 
     /**
-     * 动态添加数据到Observable
-     * 
-     * @param item 要添加的数据项
+     * 使用指定缓冲区容量和溢出策略的队列模式订阅
+     * 读取慢的订阅者最多占用容量大小的内存，缓冲区已满后按溢出策略处理，丢弃的数量通过getDroppedCount()查看
+     *
+     * @param capacity       缓冲区容量，小于等于0表示不限制
+     * @param overflowPolicy 缓冲区已满时的处理策略
+     * @return Subscription对象，用于接收数据
+     * @throws Exception 如果Observable已关闭则抛出异常
      */
-    public void addData(T item) {
-        dataList.add(item);
-        logger.debug("添加新数据项: {}", item);
+    public Subscription<T> subscribe(int capacity, OverflowPolicy overflowPolicy) throws Exception {
+        registration.enter();
+        try {
+            return register(newSubscriber(capacity, overflowPolicy));
+        } finally {
+            registration.exit();
+        }
     }
 
     /**
-     * 关闭Observable，通知所有订阅者数据推送已完成
+     * 获取队列模式订阅者的默认缓冲区容量
+     *
+     * @return 容量，0表示不限制
+     */
+    int getSubscriberCapacity() {
+        return subscriberCapacity;
+    }
+
+    /**
+     * 获取订阅者缓冲区已满时的默认处理策略
+     *
+     * @return 溢出策略
+     */
+    OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * 创建队列模式的订阅者
+     * FAIL_SUBSCRIBER策略下缓冲区溢出时，订阅者由推送线程从监听列表中移除
+     *
+     * @param capacity       缓冲区容量，小于等于0表示不限制
+     * @param overflowPolicy 缓冲区已满时的处理策略
+     * @return 订阅者
+     */
+    private Subscriber<T> newSubscriber(int capacity, OverflowPolicy overflowPolicy) {
+        Subscriber<T> subscriber = new Subscriber<>(capacity, overflowPolicy);
+        if (overflowPolicy == OverflowPolicy.FAIL_SUBSCRIBER) {
+            subscriber.setFailureHandler(() -> {
+                detach(subscriber.getHandle());
+                logger.debug("移除缓冲区溢出的订阅者，当前订阅者数量: {}", getSubscriberCount());
+            });
+        }
+        return subscriber;
+    }
+
+    /**
+     * 限流订阅
+     * 在推送线程上丢弃多余的数据项，只有需要推送的数据项才进入缓冲区；延迟推送由调度器共享的定时线程完成
+     * 适合只能低频处理更新的客户端，例如每秒渲染几次的页面；该订阅的getPosition()不反映消费位置
+     *
+     * @param mode     限流方式
+     * @param interval 限流间隔
+     * @return Subscription对象，用于接收数据
+     * @throws Exception 如果Observable已关闭则抛出异常
+     */
+    public Subscription<T> subscribe(ThrottleMode mode, Duration interval) throws Exception {
+        ThrottledSubscriber<T> subscriber = new ThrottledSubscriber<>(mode, interval, dispatcher);
+        Subscription<T> subscription;
+        try {
+            subscription = attach(subscriber);
+        } catch (Exception e) {
+            subscriber.close();
+            throw e;
+        }
+        subscriber.start();
+        logger.debug("新增限流订阅者: {}，间隔: {}，当前订阅者数量: {}", mode, interval, getSubscriberCount());
+        return subscription;
+    }
+
+    /**
+     * 按键合并的订阅
+     * 缓冲区中每个键只保留最新的一个数据项，新数据项替换同一个键尚未被读取的旧数据项，并保持该键原来的排队位置；
+     * 读取慢的订阅者占用的内存只与不同键的数量有关，并且总是读到每个键的最新值
+     * 被合并掉的数据项不会被读取，getPosition()只能作为断线重连时的保守起点
+     *
+     * @param keyExtractor 从数据项中提取键
+     * @return Subscription对象，用于接收数据
+     * @throws Exception 如果Observable已关闭则抛出异常
+     */
+    public Subscription<T> subscribeConflating(Function<? super T, ?> keyExtractor) throws Exception {
+        registration.enter();
+        try {
+            Subscription<T> subscription = register(new Subscriber<>(new ConflatingQueue<>(keyExtractor)));
+            logger.debug("新增按键合并的订阅者，当前订阅者数量: {}", getSubscriberCount());
+            return subscription;
+        } finally {
+            registration.exit();
+        }
+    }
+
+    /**
+     * 按字段合并的订阅，适用于Map类型的数据项（REST接口提交的JSON对象即为Map）
+     * 字段值规范化后作为键，数值42与42.0视为同一个键；没有该字段的数据项合并为同一个键
+     *
+     * @param keyField 作为键的字段名
+     * @return Subscription对象，用于接收数据
+     * @throws Exception 如果Observable已关闭则抛出异常
+     */
+    public Subscription<T> subscribeConflating(String keyField) throws Exception {
+        return subscribeConflating(item -> {
+            Object value = ItemFilter.fieldValue(item, keyField);
+            return value == null ? null : ItemFilter.normalize(value);
+        });
+    }
+
+    /**
+     * 增量计算窗口统计，每个窗口结束时把结果写入派生的Observable
+     * 窗口统计在推送线程上按子窗口增量计算，订阅派生Observable的客户端只接收窗口结果，不需要复制原始数据流
+     * 窗口结果通过tryAddData写入派生Observable，派生Observable已满时丢弃结果而不阻塞当前Observable的推送
+     *
+     * @param spec          窗口定义
+     * @param valueFunction 从数据项中提取参与统计的数值，返回NaN的数据项被跳过
+     * @param target        接收窗口结果的派生Observable
+     * @return 窗口统计在当前Observable上的订阅对象，通过unsubscribe()停止统计
+     * @throws Exception 如果Observable已关闭则抛出异常
      */
-    private void close() {
-        // 获取写锁，确保状态修改的独占性
-        doneLock.writeLock().lock();
+    public Subscription<?> window(WindowSpec spec, ToDoubleFunction<? super T> valueFunction,
+                                  Observable<? super WindowResult> target) throws Exception {
+        WindowAggregator<T> aggregator = new WindowAggregator<>(spec, valueFunction, target);
+        aggregator.start(dispatcher);
         try {
-            // 使用CAS操作确保只执行一次关闭操作
-            if (done.compareAndSet(false, true)) {
-                // 关闭所有订阅者
-                listeners.values().forEach(Subscriber::close);
-                logger.info("Observable已关闭，通知所有订阅者");
+            Subscription<T> subscription = attach(aggregator);
+            logger.debug("新增窗口统计: {}，当前订阅者数量: {}", spec, getSubscriberCount());
+            return subscription;
+        } catch (Exception e) {
+            aggregator.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 按字段增量计算窗口统计，适用于Map类型的数据项（REST接口提交的JSON对象即为Map）
+     *
+     * @param spec   窗口定义
+     * @param field  参与统计的数值字段，null表示只统计数量；没有该字段或不是数值的数据项被跳过
+     * @param target 接收窗口结果的派生Observable
+     * @return 窗口统计在当前Observable上的订阅对象，通过unsubscribe()停止统计
+     * @throws Exception 如果Observable已关闭则抛出异常
+     */
+    public Subscription<?> window(WindowSpec spec, String field, Observable<? super WindowResult> target) throws Exception {
+        if (field == null) {
+            return window(spec, item -> 0, target);
+        }
+        return window(spec, item -> {
+            Object value = ItemFilter.fieldValue(item, field);
+            if (value instanceof Number number) {
+                return number.doubleValue();
+            }
+            try {
+                return value == null ? Double.NaN : Double.parseDouble(value.toString());
+            } catch (NumberFormatException e) {
+                return Double.NaN;
             }
+        }, target);
+    }
+
+    /**
+     * 创建操作符管道
+     * 例如 observable.pipe().filter(x -> x > 0).map(x -> x * 2).take(10).subscribe()
+     *
+     * @return 不含操作符的管道
+     */
+    public Pipeline<T, T> pipe() {
+        return new Pipeline<>(this, List.of());
+    }
+
+    /**
+     * 注册已有的订阅者，从当前推送进度之后开始接收
+     * 同一个订阅者可以注册到多个Observable，合并接收它们的数据，每个Observable内部的顺序不变
+     *
+     * @param subscriber 订阅者
+     * @return 订阅者的订阅对象
+     * @throws Exception 如果Observable已关闭则抛出异常
+     */
+    Subscription<T> attach(Subscriber<T> subscriber) throws Exception {
+        registration.enter();
+        try {
+            return register(subscriber);
         } finally {
-            // 释放写锁
-            doneLock.writeLock().unlock();
+            registration.exit();
         }
     }
 
     /**
-     * 订阅方法
+     * 将订阅者添加到监听列表，从当前推送进度之后开始接收
+     * 必须在registration.enter()与registration.exit()之间调用
+     *
+     * @param subscriber 订阅者
+     * @return 订阅者的订阅对象
+     */
+    private Subscription<T> register(Subscriber<T> subscriber) {
+        if (subscriber.blockingBuffer() != null) {
+            return registerBlocking(subscriber, null, dispatchSequence.get(), true);
+        }
+        subscriber.setDeliveredSequence(dispatchSequence.get());
+        // 将订阅者添加到监听列表中
+        listeners.add(subscriber);
+        logger.debug("新增订阅者，当前订阅者数量: {}", getSubscriberCount());
+        // 唤醒推送线程，开始推送已积压的数据
+        signal();
+        // 返回订阅对象
+        return subscriber.getSubscription();
+    }
+
+    /**
+     * 为BLOCK_PRODUCER策略的订阅者注册读取游标，订阅者不加入监听列表，由游标按缓冲区的剩余空间从日志拉取
+     * 必须在registration.enter()与registration.exit()之间调用
+     *
+     * @param subscriber 订阅者
+     * @param filter     过滤条件，为null时接收全部数据项
+     * @param start      读取进度的初始值，即最后一个不需要接收的序号
+     * @param realign    注册后是否重新对齐到推送进度；回放时持有回收锁，起始序号之后的数据不会被回收，不需要对齐
+     * @return 订阅者的订阅对象
+     */
+    private Subscription<T> registerBlocking(Subscriber<T> subscriber, ItemFilter filter, long start, boolean realign) {
+        Sequence cursor = new Sequence(start);
+        ringBuffer.addGatingSequence(cursor);
+        BlockingCursor<T> blockingCursor = new BlockingCursor<>(this, ringBuffer, dispatchSequence, cursor,
+                subscriber, filter, dispatcher);
+        if (realign) {
+            // 注册之前推送进度可能已前进，槽位可能已被覆盖或回收，因此注册后重新对齐到推送进度
+            cursor.set(dispatchSequence.get());
+        }
+        subscriber.setDeliveredSequence(cursor.get());
+        blockingCursors.add(blockingCursor);
+        blockingCursor.start();
+        logger.debug("新增阻塞策略的订阅者，当前订阅者数量: {}", getSubscriberCount());
+        blockingCursor.signal();
+        signal();
+        return subscriber.getSubscription();
+    }
+
+    /**
+     * 从指定序号开始订阅，使用队列模式
      *
+     * @param fromSequence 起始序号
      * @return Subscription对象，用于接收数据
      * @throws Exception 如果Observable已关闭则抛出异常
+     * @see #subscribe(SubscriptionMode, long)
      */
-    public Subscription<T> subscribe() throws Exception {
-        // 获取读锁，允许多个订阅者同时订阅
-        doneLock.readLock().lock();
+    public Subscription<T> subscribe(long fromSequence) throws Exception {
+        return subscribe(SubscriptionMode.QUEUE, fromSequence);
+    }
+
+    /**
+     * 从指定时间开始订阅，使用队列模式
+     *
+     * @param fromTimestamp 起始时间，回放该时间及之后发布的数据
+     * @return Subscription对象，用于接收数据
+     * @throws Exception 如果Observable已关闭则抛出异常
+     */
+    public Subscription<T> subscribe(Instant fromTimestamp) throws Exception {
+        return subscribe(SubscriptionMode.QUEUE, fromTimestamp);
+    }
+
+    /**
+     * 从指定时间开始订阅
+     *
+     * @param mode          订阅模式
+     * @param fromTimestamp 起始时间，回放该时间及之后发布的数据
+     * @return Subscription对象，用于接收数据
+     * @throws Exception 如果Observable已关闭则抛出异常
+     */
+    public Subscription<T> subscribe(SubscriptionMode mode, Instant fromTimestamp) throws Exception {
+        return subscribe(mode, findSequence(fromTimestamp));
+    }
+
+    /**
+     * 从指定序号开始订阅
+     * 先从保留的历史数据中批量回放，再无缝衔接实时推送，适用于断线重连的消费者从上次的位置继续消费
+     * 起始序号已被回收时从最早保留的数据开始；起始序号尚未发布时等到该序号发布后开始接收
+     *
+     * @param mode         订阅模式
+     * @param fromSequence 起始序号，通常为上次消费位置加1
+     * @return Subscription对象，用于接收数据
+     * @throws Exception 如果Observable已关闭则抛出异常
+     */
+    public Subscription<T> subscribe(SubscriptionMode mode, long fromSequence) throws Exception {
+        if (mode == SubscriptionMode.CONFLATING) {
+            throw new IllegalArgumentException("Conflating subscriptions do not support replay");
+        }
+        registration.enter();
         try {
-            // 检查Observable是否已经关闭
-            if (done.get()) {
-                logger.warn("尝试订阅已关闭的Observable");
-                throw new Exception("Observable is closed");
+            Subscription<T> subscription;
+            // 回放期间禁止回收，保证回放区间内的数据不被释放
+            compactionLock.lock();
+            try {
+                long start = Math.max(fromSequence, retentionSequence.get() + 1);
+                if (start > fromSequence) {
+                    logger.warn("请求的起始序号 {} 已被回收，从最早保留的序号 {} 开始回放", fromSequence, start);
+                }
+                subscription = mode == SubscriptionMode.CURSOR ? replayCursor(start) : replayQueue(start);
+                logger.debug("新增回放订阅，起始序号: {}，模式: {}，当前订阅者数量: {}", start, mode, getSubscriberCount());
+            } finally {
+                compactionLock.unlock();
             }
+            signal();
+            return subscription;
+        } finally {
+            registration.exit();
+        }
+    }
 
-            // 创建新的订阅者
-            Subscriber<T> subscriber = new Subscriber<>();
-            // 将订阅者添加到监听列表中
-            listeners.put(subscriber.getSubscription(), subscriber);
-            logger.debug("新增订阅者，当前订阅者数量: {}", listeners.size());
-            // 返回订阅对象
+    /**
+     * 创建回放的队列模式订阅
+     * 在推送锁内把已推送过的历史数据一次性复制到订阅者的缓冲区，尚未推送的部分由推送线程继续推送
+     * 阻塞策略的订阅者改为注册从起始序号开始的读取游标
+     * 必须持有回收锁调用
+     *
+     * @param start 起始序号
+     * @return 订阅对象
+     */
+    private Subscription<T> replayQueue(long start) {
+        Subscriber<T> subscriber = newSubscriber(subscriberCapacity, overflowPolicy);
+        if (subscriber.blockingBuffer() != null) {
+            // 阻塞策略的订阅者从起始序号开始拉取，历史数据多于缓冲区容量时留在日志中，不需要推送锁
+            return registerBlocking(subscriber, null, start - 1, false);
+        }
+        dispatchLock.lock();
+        try {
+            long pushed = dispatchSequence.get();
+            if (start <= pushed) {
+                List<T> history = new ArrayList<>((int) (pushed - start + 1));
+                for (long sequence = start; sequence <= pushed; sequence++) {
+                    history.add(ringBuffer.get(sequence));
+                }
+                subscriber.emitBatch(history);
+            }
+            subscriber.setDeliveredSequence(Math.max(start - 1, pushed));
+            subscriber.setStartSequence(start);
+            listeners.add(subscriber);
             return subscriber.getSubscription();
         } finally {
-            // 释放读锁
-            doneLock.readLock().unlock();
+            dispatchLock.unlock();
+        }
+    }
+
+    /**
+     * 创建回放的游标订阅
+     * 起始序号之后的数据受回收进度保护，注册完成后由游标的读取进度继续保护
+     * 必须持有回收锁调用
+     *
+     * @param start 起始序号
+     * @return 订阅对象
+     */
+    private Subscription<T> replayCursor(long start) {
+        Sequence cursor = new Sequence(start - 1);
+        ringBuffer.addGatingSequence(cursor);
+        CursorSubscription<T> subscription = new CursorSubscription<>(this, ringBuffer, cursor);
+        cursorSubscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * 查找指定时间及之后发布的第一个保留数据的序号
+     *
+     * @param timestamp 时间
+     * @return 序号，没有满足条件的保留数据时返回下一个将要发布的序号
+     */
+    public long findSequence(Instant timestamp) {
+        long target = timestamp.toEpochMilli();
+        compactionLock.lock();
+        try {
+            long low = retentionSequence.get() + 1;
+            long high = ringBuffer.getHighestPublishedSequence(low, ringBuffer.getCursor());
+            // 发布时间随序号递增，二分查找
+            while (low <= high) {
+                long middle = (low + high) >>> 1;
+                if (ringBuffer.getTimestamp(middle) < target) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return low;
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    /**
+     * 创建游标订阅
+     * 读取进度从当前推送进度开始，与队列模式的订阅者收到相同的后续数据
+     *
+     * @return 游标订阅对象
+     */
+    private Subscription<T> subscribeCursor() {
+        Sequence cursor = new Sequence(dispatchSequence.get());
+        ringBuffer.addGatingSequence(cursor);
+        CursorSubscription<T> subscription = new CursorSubscription<>(this, ringBuffer, cursor);
+        cursorSubscriptions.add(subscription);
+        // 注册之前推送进度可能已前进，槽位可能已被覆盖或回收，因此注册后重新对齐到推送进度
+        cursor.set(dispatchSequence.get());
+        logger.debug("新增游标订阅，当前订阅者数量: {}", getSubscriberCount());
+        // 唤醒推送线程，推进积压数据的推送进度
+        signal();
+        return subscription;
+    }
+
+    /**
+     * 以java.util.concurrent.Flow方式订阅，从当前推送进度之后开始接收
+     * 只推送订阅者通过request(n)请求的数量，未请求的数据留在事件日志中并阻止生产者覆盖，实现端到端的背压；
+     * 回调在调度器的工作线程上按顺序执行，不能阻塞。Observable关闭后，已推送的数据送达完毕时调用onComplete
+     * onSubscribe返回之后才开始推送，onSubscribe中可以调用request(n)
+     *
+     * @param subscriber Flow订阅者
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        FlowSubscription<T> subscription;
+        try {
+            registration.enter();
+        } catch (Exception e) {
+            // 按照Flow规范，拒绝订阅时也要先调用onSubscribe
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(e);
+            return;
+        }
+        try {
+            Sequence cursor = new Sequence(dispatchSequence.get());
+            ringBuffer.addGatingSequence(cursor);
+            subscription = new FlowSubscription<>(this, ringBuffer, dispatchSequence, cursor, subscriber, dispatcher);
+            flowSubscriptions.add(subscription);
+            // 注册之前推送进度可能已前进，槽位可能已被覆盖或回收，因此注册后重新对齐到推送进度
+            cursor.set(dispatchSequence.get());
+            logger.debug("新增Flow订阅，当前订阅者数量: {}", getSubscriberCount());
+        } finally {
+            registration.exit();
+        }
+        // 订阅已注册但推送任务尚未开始，onSubscribe期间不会有其他回调
+        try {
+            subscriber.onSubscribe(subscription);
+        } catch (Throwable e) {
+            logger.error("Flow订阅者的onSubscribe抛出异常，取消订阅", e);
+            subscription.cancel();
+            return;
+        }
+        subscription.start();
+        signal();
+    }
+
+    /**
+     * 移除Flow订阅及其门控序号，由订阅取消或结束时调用
+     *
+     * @param subscription Flow订阅
+     */
+    void releaseFlow(FlowSubscription<T> subscription) {
+        if (flowSubscriptions.remove(subscription)) {
+            ringBuffer.removeGatingSequence(subscription.getCursor());
+            onSubscriberRemoved();
+            logger.debug("移除Flow订阅，当前订阅者数量: {}", getSubscriberCount());
         }
     }
 
+    /**
+     * 关闭游标订阅并移除其门控序号
+     *
+     * @param subscription 游标订阅
+     */
+    private void releaseCursor(CursorSubscription<?> subscription) {
+        subscription.close();
+        ringBuffer.removeGatingSequence(subscription.getCursor());
+        onSubscriberRemoved();
+    }
+
     /**
      * 取消订阅
      *
      * @param subscription 要取消的订阅对象
      */
-    public void unsubscribe(Subscription<T> subscription) {
+    public void unsubscribe(Subscription<?> subscription) {
+        if (subscription instanceof CursorSubscription<?> cursorSubscription) {
+            if (cursorSubscriptions.remove(cursorSubscription)) {
+                releaseCursor(cursorSubscription);
+                logger.debug("取消游标订阅，当前订阅者数量: {}", getSubscriberCount());
+            } else {
+                logger.warn("尝试取消不存在的订阅");
+            }
+            return;
+        }
+
         // 从监听列表中移除订阅者
-        Subscriber<T> subscriber = listeners.remove(subscription);
+        Subscriber<T> subscriber = detach(subscription);
         if (subscriber != null) {
             // 关闭订阅者
             subscriber.close();
-            logger.debug("取消订阅，当前订阅者数量: {}", listeners.size());
+            logger.debug("取消订阅，当前订阅者数量: {}", getSubscriberCount());
         } else {
             logger.warn("尝试取消不存在的订阅");
         }
     }
     
+    /**
+     * 从监听列表中移除队列模式的订阅者，不关闭订阅者
+     * 阻塞策略的订阅者同时移除其读取游标和门控序号，释放被其阻止覆盖的槽位
+     *
+     * @param subscription 订阅对象
+     * @return 被移除的订阅者，不存在时返回null
+     */
+    Subscriber<T> detach(Subscription<?> subscription) {
+        Subscriber<T> subscriber = listeners.remove(subscription);
+        if (subscriber == null) {
+            subscriber = filteredListeners.remove(subscription);
+        }
+        if (subscriber == null) {
+            for (BlockingCursor<T> blockingCursor : blockingCursors) {
+                if (blockingCursor.getSubscriber().getHandle() == subscription && blockingCursors.remove(blockingCursor)) {
+                    blockingCursor.release();
+                    ringBuffer.removeGatingSequence(blockingCursor.getCursor());
+                    onSubscriberRemoved();
+                    return blockingCursor.getSubscriber();
+                }
+            }
+        }
+        if (subscriber != null) {
+            onSubscriberRemoved();
+        }
+        return subscriber;
+    }
+
     /**
      * 获取当前订阅者数量
      * 
      * @return 订阅者数量
      */
     public int getSubscriberCount() {
-        return listeners.size();
+        return listeners.size() + filteredListeners.size() + cursorSubscriptions.size() + flowSubscriptions.size()
+                + blockingCursors.size();
     }
 }
\ No newline at end of file
@@ -0,0 +1,285 @@
+package com.ling.observable.observable;
+
+/**
+ * Observable创建参数
+ * 未设置的参数使用默认值
+ *
+ * @author Ling
+ */
+public class ObservableOptions {
+
+    /**
+     * 环形缓冲区容量，必须是2的幂
+     */
+    private int bufferSize = Observable.DEFAULT_BUFFER_SIZE;
+
+    /**
+     * 推送调度器，为null时使用共享调度器
+     */
+    private Dispatcher dispatcher;
+
+    /**
+     * 历史数据保留策略
+     */
+    private RetentionPolicy retentionPolicy = RetentionPolicy.NONE;
+
+    /**
+     * 推送速率策略
+     */
+    private RatePolicy ratePolicy = RatePolicy.UNLIMITED;
+
+    /**
+     * 并行推送阈值，队列模式的订阅者数量达到该值时分段并行推送，小于等于0表示始终由推送线程依次推送
+     */
+    private int parallelFanOutThreshold = Observable.DEFAULT_PARALLEL_FAN_OUT_THRESHOLD;
+
+    /**
+     * 并行推送时每个分段的订阅者数量
+     */
+    private int fanOutChunkSize = Observable.DEFAULT_FAN_OUT_CHUNK_SIZE;
+
+    /**
+     * 队列模式订阅者的缓冲区容量，小于等于0表示不限制
+     */
+    private int subscriberCapacity;
+
+    /**
+     * 订阅者缓冲区已满时的处理策略
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+    /**
+     * 慢订阅者处理策略
+     */
+    private LagPolicy lagPolicy = LagPolicy.NONE;
+
+    /**
+     * 优先级通道数量，小于等于1表示不区分优先级，数据项直接写入事件日志
+     */
+    private int priorityLanes = 1;
+
+    /**
+     * 低优先级通道最多连续被更高优先级越过的次数
+     */
+    private int starvationThreshold = Observable.DEFAULT_STARVATION_THRESHOLD;
+
+    /**
+     * 设置环形缓冲区容量
+     *
+     * @param bufferSize 容量，必须是2的幂
+     * @return 当前参数对象
+     */
+    public ObservableOptions bufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * 设置推送调度器
+     *
+     * @param dispatcher 推送调度器
+     * @return 当前参数对象
+     */
+    public ObservableOptions dispatcher(Dispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        return this;
+    }
+
+    /**
+     * 设置历史数据保留策略
+     *
+     * @param retentionPolicy 保留策略
+     * @return 当前参数对象
+     */
+    public ObservableOptions retentionPolicy(RetentionPolicy retentionPolicy) {
+        this.retentionPolicy = retentionPolicy;
+        return this;
+    }
+
+    /**
+     * 设置推送速率策略
+     *
+     * @param ratePolicy 速率策略
+     * @return 当前参数对象
+     */
+    public ObservableOptions ratePolicy(RatePolicy ratePolicy) {
+        this.ratePolicy = ratePolicy;
+        return this;
+    }
+
+    /**
+     * 设置并行推送阈值
+     *
+     * @param parallelFanOutThreshold 订阅者数量阈值，小于等于0表示不并行推送
+     * @return 当前参数对象
+     */
+    public ObservableOptions parallelFanOutThreshold(int parallelFanOutThreshold) {
+        this.parallelFanOutThreshold = parallelFanOutThreshold;
+        return this;
+    }
+
+    /**
+     * 设置并行推送时每个分段的订阅者数量
+     *
+     * @param fanOutChunkSize 每个分段的订阅者数量
+     * @return 当前参数对象
+     */
+    public ObservableOptions fanOutChunkSize(int fanOutChunkSize) {
+        this.fanOutChunkSize = fanOutChunkSize;
+        return this;
+    }
+
+    /**
+     * 设置队列模式订阅者的缓冲区容量
+     *
+     * @param subscriberCapacity 容量，小于等于0表示不限制
+     * @return 当前参数对象
+     */
+    public ObservableOptions subscriberCapacity(int subscriberCapacity) {
+        this.subscriberCapacity = subscriberCapacity;
+        return this;
+    }
+
+    /**
+     * 设置订阅者缓冲区已满时的处理策略
+     *
+     * @param overflowPolicy 溢出策略
+     * @return 当前参数对象
+     */
+    public ObservableOptions overflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    /**
+     * 设置慢订阅者处理策略
+     *
+     * @param lagPolicy 慢订阅者处理策略
+     * @return 当前参数对象
+     */
+    public ObservableOptions lagPolicy(LagPolicy lagPolicy) {
+        this.lagPolicy = lagPolicy;
+        return this;
+    }
+
+    /**
+     * 设置优先级通道数量
+     *
+     * @param priorityLanes 通道数量，优先级取值为[0, priorityLanes)，数值越大越优先；小于等于1表示不区分优先级
+     * @return 当前参数对象
+     */
+    public ObservableOptions priorityLanes(int priorityLanes) {
+        this.priorityLanes = priorityLanes;
+        return this;
+    }
+
+    /**
+     * 设置低优先级通道最多连续被更高优先级越过的次数
+     *
+     * @param starvationThreshold 次数，必须大于0
+     * @return 当前参数对象
+     */
+    public ObservableOptions starvationThreshold(int starvationThreshold) {
+        this.starvationThreshold = starvationThreshold;
+        return this;
+    }
+
+    /**
+     * 获取环形缓冲区容量
+     *
+     * @return 容量
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * 获取推送调度器
+     *
+     * @return 推送调度器，未设置时返回共享调度器
+     */
+    public Dispatcher getDispatcher() {
+        return dispatcher != null ? dispatcher : Dispatcher.shared();
+    }
+
+    /**
+     * 获取历史数据保留策略
+     *
+     * @return 保留策略
+     */
+    public RetentionPolicy getRetentionPolicy() {
+        return retentionPolicy;
+    }
+
+    /**
+     * 获取推送速率策略
+     *
+     * @return 速率策略
+     */
+    public RatePolicy getRatePolicy() {
+        return ratePolicy;
+    }
+
+    /**
+     * 获取并行推送阈值
+     *
+     * @return 订阅者数量阈值
+     */
+    public int getParallelFanOutThreshold() {
+        return parallelFanOutThreshold;
+    }
+
+    /**
+     * 获取并行推送时每个分段的订阅者数量
+     *
+     * @return 每个分段的订阅者数量
+     */
+    public int getFanOutChunkSize() {
+        return fanOutChunkSize;
+    }
+
+    /**
+     * 获取队列模式订阅者的缓冲区容量
+     *
+     * @return 容量，小于等于0表示不限制
+     */
+    public int getSubscriberCapacity() {
+        return subscriberCapacity;
+    }
+
+    /**
+     * 获取订阅者缓冲区已满时的处理策略
+     *
+     * @return 溢出策略
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * 获取慢订阅者处理策略
+     *
+     * @return 慢订阅者处理策略
+     */
+    public LagPolicy getLagPolicy() {
+        return lagPolicy;
+    }
+
+    /**
+     * 获取优先级通道数量
+     *
+     * @return 通道数量
+     */
+    public int getPriorityLanes() {
+        return priorityLanes;
+    }
+
+    /**
+     * 获取低优先级通道最多连续被越过的次数
+     *
+     * @return 次数
+     */
+    public int getStarvationThreshold() {
+        return starvationThreshold;
+    }
+}
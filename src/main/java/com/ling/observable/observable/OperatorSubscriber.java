@@ -0,0 +1,137 @@
+package com.ling.observable.observable;
+
+import java.util.List;
+
+/**
+ * 带操作符链的订阅者
+ * 在推送线程上把数据项送入融合后的操作符链，只把输出的结果放入输出端的缓冲区
+ * take取满之后从Observable中移除自己，不再占用推送时间，已输出的数据仍可继续读取
+ * 输出端的缓冲区容量和溢出策略与数据来源的队列模式订阅相同，FAIL_SUBSCRIBER策略下溢出时从数据来源移除
+ *
+ * @param <T> 输入数据类型
+ * @param <R> 输出数据类型
+ * @author Ling
+ */
+class OperatorSubscriber<T, R> extends Subscriber<T> {
+
+    /**
+     * 数据来源
+     */
+    private final Observable<T> source;
+
+    /**
+     * 融合后的操作符链
+     */
+    private final FusedOperator operator;
+
+    /**
+     * 输出端，缓冲操作符链输出的数据项
+     */
+    private final Subscriber<R> output;
+
+    /**
+     * 构造函数
+     *
+     * @param source         数据来源
+     * @param operator       融合后的操作符链
+     * @param capacity       输出端缓冲区容量，小于等于0表示不限制
+     * @param overflowPolicy 输出端缓冲区已满时的处理策略
+     */
+    OperatorSubscriber(Observable<T> source, FusedOperator operator, int capacity, OverflowPolicy overflowPolicy) {
+        this.source = source;
+        this.operator = operator;
+        this.output = new Subscriber<>(capacity, overflowPolicy);
+        if (overflowPolicy == OverflowPolicy.FAIL_SUBSCRIBER) {
+            output.setFailureHandler(() -> {
+                close();
+                source.detach(getHandle());
+            });
+        }
+    }
+
+    @Override
+    public void emit(T item) {
+        accept(item);
+        completeIfDone();
+    }
+
+    @Override
+    public void emitBatch(List<T> items) {
+        for (int i = 0, size = items.size(); i < size && !operator.isCompleted(); i++) {
+            accept(items.get(i));
+        }
+        completeIfDone();
+    }
+
+    @Override
+    boolean tryEmit(T item) {
+        // 每个输入最多产生一个输出，输出端有空位时一定放得下
+        if (!output.hasSpace()) {
+            return false;
+        }
+        if (!operator.isCompleted()) {
+            accept(item);
+            completeIfDone();
+        }
+        return true;
+    }
+
+    @Override
+    boolean hasSpace() {
+        return output.hasSpace();
+    }
+
+    @Override
+    Subscriber<?> blockingBuffer() {
+        return output.blockingBuffer();
+    }
+
+    /**
+     * 让数据项通过操作符链，输出结果放入输出端
+     *
+     * @param item 输入数据项
+     */
+    @SuppressWarnings("unchecked")
+    private void accept(T item) {
+        Object value = operator.apply(item);
+        if (value != FusedOperator.DROPPED) {
+            output.emit((R) value);
+        }
+    }
+
+    /**
+     * take取满之后停止接收推送
+     */
+    private void completeIfDone() {
+        if (operator.isCompleted()) {
+            source.detach(getHandle());
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        output.close();
+    }
+
+    @Override
+    void recordError(Throwable e) {
+        super.recordError(e);
+        // 调用方持有的是输出端的订阅对象，异常同时记录在输出端
+        output.recordError(e);
+    }
+
+    @Override
+    Subscription<?> getHandle() {
+        return output.getSubscription();
+    }
+
+    /**
+     * 获取输出端的订阅对象
+     *
+     * @return 订阅对象
+     */
+    Subscription<R> getOutput() {
+        return output.getSubscription();
+    }
+}
@@ -0,0 +1,32 @@
+package com.ling.observable.observable;
+
+/**
+ * 订阅者缓冲区溢出策略
+ * 缓冲区有容量上限时，决定推送线程遇到已满的缓冲区如何处理新的数据项
+ *
+ * @author Ling
+ */
+public enum OverflowPolicy {
+
+    /**
+     * 订阅者按缓冲区的剩余空间从事件日志拉取，缓冲区已满时未拉取的数据项留在日志中，
+     * 环形缓冲区写满后生产者等待消费者腾出空间，不丢失数据
+     * 推送线程不等待，同一个Observable的其他订阅者照常接收，直到生产者因日志写满而等待
+     */
+    BLOCK_PRODUCER,
+
+    /**
+     * 丢弃缓冲区中最旧的数据项，为新的数据项腾出空间
+     */
+    DROP_OLDEST,
+
+    /**
+     * 丢弃新的数据项，保留缓冲区中已有的数据项
+     */
+    DROP_NEWEST,
+
+    /**
+     * 关闭订阅者并从Observable移除，缓冲区中未读取的数据项一并丢弃
+     */
+    FAIL_SUBSCRIBER
+}
@@ -0,0 +1,211 @@
+package com.ling.observable.observable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 按键分区的Observable
+ * 数据项按键的哈希值分配到固定数量的分区，每个分区是一个独立的Observable，拥有自己的事件日志和推送任务，
+ * 多个分区可以在调度器的不同工作线程上并行推送，单个热点数据流因此可以使用多个CPU核
+ * 同一个键的数据总是进入同一个分区，保持写入顺序；不同键之间不保证顺序
+ *
+ * @param <K> 键类型
+ * @param <T> 数据类型
+ * @author Ling
+ */
+public class PartitionedObservable<K, T> {
+
+    private static final Logger logger = LogManager.getLogger(PartitionedObservable.class);
+
+    /**
+     * 分区，下标即分区编号
+     */
+    private final List<Observable<T>> partitions;
+
+    /**
+     * 交给调用方的订阅对象到跨分区订阅的映射
+     */
+    private final ConcurrentHashMap<Subscription<T>, PartitionSubscription<T>> subscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * 跨分区订阅的缓冲区容量，0表示不限制
+     */
+    private final int subscriberCapacity;
+
+    /**
+     * 跨分区订阅缓冲区已满时的处理策略
+     */
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * 构造函数，每个分区使用默认创建参数
+     *
+     * @param partitionCount 分区数量
+     */
+    public PartitionedObservable(int partitionCount) {
+        this(partitionCount, new ObservableOptions());
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param partitionCount 分区数量
+     * @param options        每个分区的创建参数，缓冲区容量和保留策略按分区分别生效；
+     *                       订阅者缓冲区容量和溢出策略同样用于跨分区订阅
+     */
+    public PartitionedObservable(int partitionCount, ObservableOptions options) {
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException("Partition count must be positive, got " + partitionCount);
+        }
+        List<Observable<T>> list = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            list.add(new Observable<>(options));
+        }
+        this.partitions = List.copyOf(list);
+        this.subscriberCapacity = Math.max(0, options.getSubscriberCapacity());
+        this.overflowPolicy = options.getOverflowPolicy();
+        logger.debug("创建新的PartitionedObservable实例，分区数量: {}", partitionCount);
+    }
+
+    /**
+     * 按键添加数据
+     *
+     * @param key  键，决定数据所在的分区
+     * @param item 数据项
+     */
+    public void addData(K key, T item) {
+        partitions.get(partitionFor(key)).addData(item);
+    }
+
+    /**
+     * 计算键所在的分区
+     *
+     * @param key 键，null分配到0号分区
+     * @return 分区编号
+     */
+    public int partitionFor(K key) {
+        int hash = Objects.hashCode(key);
+        // 混合高位，避免低位相同的哈希值集中到少数分区
+        return Math.floorMod(hash ^ (hash >>> 16), partitions.size());
+    }
+
+    /**
+     * 订阅全部分区
+     *
+     * @return Subscription对象，合并接收所有分区的数据
+     * @throws Exception 如果已关闭则抛出异常
+     */
+    public Subscription<T> subscribe() throws Exception {
+        int[] all = new int[partitions.size()];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        return subscribe(all);
+    }
+
+    /**
+     * 订阅指定的分区
+     * 每个选中的分区注册一个转发订阅者，各分区的推送任务并行写入同一个缓冲区，
+     * 每个分区内部（即每个键）的数据保持顺序；某个分区移除其转发订阅者不影响其他分区的数据
+     * 各分区的序号相互独立，跨分区订阅的getPosition()没有意义，需要回放时应单独订阅各分区
+     * 缓冲区容量和溢出策略使用创建参数中的设置，FAIL_SUBSCRIBER策略下溢出时从所有分区取消该订阅
+     *
+     * @param partitionIds 分区编号
+     * @return Subscription对象，合并接收选中分区的数据
+     * @throws Exception 如果已关闭则抛出异常
+     */
+    public Subscription<T> subscribe(int... partitionIds) throws Exception {
+        int[] ids = partitionIds.clone();
+        for (int id : ids) {
+            Objects.checkIndex(id, partitions.size());
+        }
+
+        Subscriber<T> subscriber = new Subscriber<>(subscriberCapacity, overflowPolicy);
+        Subscription<T> subscription = subscriber.getSubscription();
+        if (overflowPolicy == OverflowPolicy.FAIL_SUBSCRIBER) {
+            subscriber.setFailureHandler(() -> unsubscribe(subscription));
+        }
+        PartitionSubscription<T> partitionSubscription = new PartitionSubscription<>(ids, subscriber, new CopyOnWriteArrayList<>());
+        subscriptions.put(subscription, partitionSubscription);
+        try {
+            for (int id : ids) {
+                ForwardingSubscriber<T> forwarder = new ForwardingSubscriber<>(subscriber);
+                partitions.get(id).attach(forwarder);
+                partitionSubscription.forwarders().add(forwarder);
+            }
+        } catch (Exception e) {
+            unsubscribe(subscription);
+            throw e;
+        }
+        logger.debug("新增分区订阅，分区: {}", Arrays.toString(ids));
+        return subscription;
+    }
+
+    /**
+     * 取消订阅
+     *
+     * @param subscription 要取消的订阅对象
+     */
+    public void unsubscribe(Subscription<T> subscription) {
+        PartitionSubscription<T> partitionSubscription = subscriptions.remove(subscription);
+        if (partitionSubscription == null) {
+            logger.warn("尝试取消不存在的分区订阅");
+            return;
+        }
+        List<ForwardingSubscriber<T>> forwarders = partitionSubscription.forwarders();
+        for (int i = 0; i < forwarders.size(); i++) {
+            ForwardingSubscriber<T> forwarder = forwarders.get(i);
+            partitions.get(partitionSubscription.ids()[i]).detach(forwarder.getHandle());
+            forwarder.close();
+        }
+        partitionSubscription.subscriber().close();
+        logger.debug("取消分区订阅，分区: {}", Arrays.toString(partitionSubscription.ids()));
+    }
+
+    /**
+     * 获取分区数量
+     *
+     * @return 分区数量
+     */
+    public int getPartitionCount() {
+        return partitions.size();
+    }
+
+    /**
+     * 获取指定分区，可以直接以游标模式或回放方式订阅单个分区
+     *
+     * @param partitionId 分区编号
+     * @return 分区对应的Observable
+     */
+    public Observable<T> getPartition(int partitionId) {
+        return partitions.get(partitionId);
+    }
+
+    /**
+     * 关闭所有分区
+     */
+    public void close() {
+        partitions.forEach(Observable::close);
+        subscriptions.clear();
+        logger.info("PartitionedObservable已关闭");
+    }
+
+    /**
+     * 跨分区订阅
+     *
+     * @param ids        订阅的分区编号
+     * @param subscriber 合并接收选中分区数据的订阅者
+     * @param forwarders 已注册到各分区的转发订阅者，与ids按下标对应
+     * @param <T>        数据类型
+     */
+    private record PartitionSubscription<T>(int[] ids, Subscriber<T> subscriber,
+                                            List<ForwardingSubscriber<T>> forwarders) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.ling.observable.observable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 操作符管道
+ * 通过Observable.pipe()创建，链式组合map、filter、take、skip、scan，最后subscribe()得到输出结果的订阅
+ * 整条链在订阅时融合成一个FusedOperator，在推送线程上一次性执行，订阅者不需要的数据项不会进入其缓冲区
+ * 管道本身不可变，每个操作符返回新的管道，同一个管道可以多次订阅，每个订阅拥有独立的状态
+ *
+ * @param <T> 数据来源的数据类型
+ * @param <R> 管道输出的数据类型
+ * @author Ling
+ */
+public class Pipeline<T, R> {
+
+    /**
+     * 数据来源
+     */
+    private final Observable<T> source;
+
+    /**
+     * 操作符阶段定义
+     */
+    private final List<FusedOperator.Stage> stages;
+
+    /**
+     * 构造函数
+     *
+     * @param source 数据来源
+     * @param stages 操作符阶段定义
+     */
+    Pipeline(Observable<T> source, List<FusedOperator.Stage> stages) {
+        this.source = source;
+        this.stages = stages;
+    }
+
+    /**
+     * 转换每个数据项
+     *
+     * @param mapper 转换函数
+     * @param <V>    转换后的数据类型
+     * @return 新的管道
+     */
+    public <V> Pipeline<T, V> map(Function<? super R, ? extends V> mapper) {
+        return with(new FusedOperator.Stage(FusedOperator.Kind.MAP, mapper, 0, null));
+    }
+
+    /**
+     * 只保留满足条件的数据项
+     *
+     * @param predicate 过滤条件
+     * @return 新的管道
+     */
+    public Pipeline<T, R> filter(Predicate<? super R> predicate) {
+        return with(new FusedOperator.Stage(FusedOperator.Kind.FILTER, predicate, 0, null));
+    }
+
+    /**
+     * 只取前n个数据项，取满之后订阅不再接收推送
+     *
+     * @param n 数量
+     * @return 新的管道
+     */
+    public Pipeline<T, R> take(long n) {
+        return with(new FusedOperator.Stage(FusedOperator.Kind.TAKE, null, n, null));
+    }
+
+    /**
+     * 跳过前n个数据项
+     *
+     * @param n 数量
+     * @return 新的管道
+     */
+    public Pipeline<T, R> skip(long n) {
+        return with(new FusedOperator.Stage(FusedOperator.Kind.SKIP, null, n, null));
+    }
+
+    /**
+     * 累积计算，每个数据项输出一次当前的累积值
+     *
+     * @param seed        初始值
+     * @param accumulator 累积函数
+     * @param <A>         累积值类型
+     * @return 新的管道
+     */
+    public <A> Pipeline<T, A> scan(A seed, BiFunction<A, ? super R, A> accumulator) {
+        return with(new FusedOperator.Stage(FusedOperator.Kind.SCAN, accumulator, 0, seed));
+    }
+
+    /**
+     * 订阅管道的输出，从当前推送进度之后开始接收
+     * 输出端的缓冲区容量和溢出策略使用数据来源创建参数中的设置
+     *
+     * @return Subscription对象，接收管道输出的数据项；通过Observable.unsubscribe()取消
+     * @throws Exception 如果Observable已关闭则抛出异常
+     */
+    public Subscription<R> subscribe() throws Exception {
+        OperatorSubscriber<T, R> subscriber = new OperatorSubscriber<>(source, new FusedOperator(stages),
+                source.getSubscriberCapacity(), source.getOverflowPolicy());
+        source.attach(subscriber);
+        return subscriber.getOutput();
+    }
+
+    /**
+     * 追加一个阶段
+     *
+     * @param stage 阶段定义
+     * @param <V>   新的输出数据类型
+     * @return 新的管道
+     */
+    private <V> Pipeline<T, V> with(FusedOperator.Stage stage) {
+        List<FusedOperator.Stage> next = new ArrayList<>(stages.size() + 1);
+        next.addAll(stages);
+        next.add(stage);
+        return new Pipeline<>(source, List.copyOf(next));
+    }
+}
@@ -0,0 +1,155 @@
+package com.ling.observable.observable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基本类型Observable的公共部分
+ * 数据直接写入子类持有的基本类型数组，环形缓冲区只负责分配和发布序号，
+ * 订阅者以游标方式按序号读取同一个数组，写入和推送都不装箱，也不为每个数据项分配对象
+ * 读取进度同时是门控序号，最慢的订阅者未读取的数据不会被覆盖
+ *
+ * @param <S> 订阅类型
+ * @author Ling
+ */
+public abstract class PrimitiveObservable<S extends PrimitiveSubscription> {
+
+    private static final Logger logger = LogManager.getLogger(PrimitiveObservable.class);
+
+    /**
+     * 序号器，不分配对象槽位
+     */
+    protected final RingBuffer<Void> sequencer;
+
+    /**
+     * 序号到数组下标的掩码
+     */
+    protected final int indexMask;
+
+    /**
+     * 当前的订阅
+     */
+    private final Set<S> subscriptions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 订阅注册与关闭之间的互斥，与Observable使用同一套协议
+     */
+    private final RegistrationGate registration = new RegistrationGate();
+
+    /**
+     * 构造函数
+     *
+     * @param bufferSize 缓冲区容量，必须是2的幂
+     */
+    protected PrimitiveObservable(int bufferSize) {
+        this.sequencer = new RingBuffer<>(bufferSize, false);
+        this.indexMask = bufferSize - 1;
+    }
+
+    /**
+     * 申请写入位置，缓冲区已满时等待最慢的订阅者读取，关闭后放弃等待
+     *
+     * @return 序号，已关闭时返回RingBuffer.ABORTED
+     */
+    protected long claim() {
+        return sequencer.next(1, this::isClosed);
+    }
+
+    /**
+     * 发布已写入的序号，唤醒等待的订阅者
+     *
+     * @param sequence 序号
+     */
+    protected void publish(long sequence) {
+        sequencer.publish(sequence);
+    }
+
+    /**
+     * 创建订阅对象
+     *
+     * @param cursor 读取进度，已注册为门控序号
+     * @return 订阅对象
+     */
+    protected abstract S createSubscription(Sequence cursor);
+
+    /**
+     * 订阅方法，从下一个写入的数据开始接收
+     *
+     * @return 订阅对象
+     * @throws Exception 如果已关闭则抛出异常
+     */
+    public S subscribe() throws Exception {
+        registration.enter();
+        try {
+            Sequence cursor = new Sequence(sequencer.getCursor());
+            sequencer.addGatingSequence(cursor);
+            // 注册之前生产者可能已前进甚至覆盖了槽位，注册后重新对齐到最新的写入位置
+            cursor.set(sequencer.getCursor());
+            S subscription = createSubscription(cursor);
+            subscriptions.add(subscription);
+            logger.debug("新增订阅，当前订阅者数量: {}", subscriptions.size());
+            return subscription;
+        } finally {
+            registration.exit();
+        }
+    }
+
+    /**
+     * 取消订阅
+     *
+     * @param subscription 要取消的订阅对象
+     */
+    public void unsubscribe(S subscription) {
+        if (subscriptions.remove(subscription)) {
+            release(subscription);
+            logger.debug("取消订阅，当前订阅者数量: {}", subscriptions.size());
+        } else {
+            logger.warn("尝试取消不存在的订阅");
+        }
+    }
+
+    /**
+     * 关闭Observable，通知所有订阅者
+     */
+    public void close() {
+        // 等待关闭之前开始的注册完成，之后不会再有新的订阅
+        if (!registration.close()) {
+            return;
+        }
+        subscriptions.forEach(this::release);
+        // 唤醒等待空闲槽位的生产者，使其看到关闭标记后放弃写入
+        sequencer.signalSpace();
+        logger.info("Observable已关闭，通知所有订阅者");
+    }
+
+    /**
+     * 是否已关闭
+     *
+     * @return 已关闭返回true
+     */
+    public boolean isClosed() {
+        return registration.isClosed();
+    }
+
+    /**
+     * 获取当前订阅者数量
+     *
+     * @return 订阅者数量
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * 关闭订阅并移除其门控序号
+     *
+     * @param subscription 订阅对象
+     */
+    private void release(S subscription) {
+        subscription.close();
+        sequencer.removeGatingSequence(subscription.getCursor());
+    }
+}
@@ -0,0 +1,121 @@
+package com.ling.observable.observable;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 基本类型订阅的公共部分
+ * 用自己的读取序号直接读取Observable的基本类型数组，子类提供不装箱的读取方法
+ * 同一个订阅只能由一个消费者线程读取
+ *
+ * @author Ling
+ */
+public abstract class PrimitiveSubscription {
+
+    /**
+     * 序号器
+     */
+    private final RingBuffer<?> sequencer;
+
+    /**
+     * 读取进度，记录已读取的最大序号
+     */
+    private final Sequence cursor;
+
+    /**
+     * 标记订阅是否已关闭
+     */
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    /**
+     * 等待时检查是否关闭的回调，预先创建避免每次读取都分配对象
+     */
+    private final BooleanSupplier alerted = closed::get;
+
+    /**
+     * 序号到数组下标的掩码
+     */
+    protected final int indexMask;
+
+    /**
+     * 构造函数
+     *
+     * @param sequencer 序号器
+     * @param cursor    读取进度，需已注册为门控序号
+     */
+    protected PrimitiveSubscription(RingBuffer<?> sequencer, Sequence cursor) {
+        this.sequencer = sequencer;
+        this.cursor = cursor;
+        this.indexMask = sequencer.getBufferSize() - 1;
+    }
+
+    /**
+     * 等待下一个数据项发布（阻塞方法）
+     *
+     * @return 下一个数据项的序号
+     * @throws InterruptedException 如果线程被中断
+     */
+    protected long awaitNext() throws InterruptedException {
+        long nextSequence = cursor.get() + 1;
+        if (!sequencer.waitFor(nextSequence, alerted)) {
+            throw new IllegalStateException("Subscription is closed");
+        }
+        return nextSequence;
+    }
+
+    /**
+     * 推进读取进度，释放槽位给生产者
+     * 必须在读取完数据之后调用
+     *
+     * @param sequence 已读取的序号
+     */
+    protected void advance(long sequence) {
+        cursor.set(sequence);
+        sequencer.signalSpace();
+    }
+
+    /**
+     * 检查是否没有未读取的数据
+     *
+     * @return 没有未读取的数据返回true
+     */
+    public boolean isEmpty() {
+        return !sequencer.isAvailable(cursor.get() + 1);
+    }
+
+    /**
+     * 检查订阅是否已关闭
+     *
+     * @return 已关闭返回true
+     */
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * 获取消费位置，即最近一次读取的数据项的序号
+     *
+     * @return 消费位置
+     */
+    public long getPosition() {
+        return cursor.get();
+    }
+
+    /**
+     * 获取读取进度
+     *
+     * @return 读取进度序号
+     */
+    Sequence getCursor() {
+        return cursor;
+    }
+
+    /**
+     * 关闭订阅，唤醒阻塞在读取方法上的消费者
+     */
+    void close() {
+        if (closed.compareAndSet(false, true)) {
+            sequencer.wakeUpWaiters();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.ling.observable.observable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 优先级通道
+ * 数据项先按优先级进入有界的等待队列，再由推送任务按优先级从高到低取出写入事件日志，
+ * 高优先级的数据项可以越过尚未写入日志的低优先级数据项
+ * 为避免低优先级通道饿死，某个非空通道连续被更高优先级越过starvationThreshold次后，下一个数据项从该通道取出
+ * 通道数量很少，每次选择通道的开销为常数
+ * 所有操作通过一把锁互斥，生产者在通道已满时等待推送任务取出数据项或关闭时唤醒，不轮询；
+ * 没有消费者时通道不会被取出，此时与事件日志一样丢弃最旧的积压数据项，生产者不会永久等待
+ *
+ * @param <T> 数据类型
+ * @author Ling
+ */
+class PriorityLanes<T> {
+
+    /**
+     * 各通道的等待队列，下标即优先级，数值越大越优先
+     */
+    private final List<ArrayDeque<T>> lanes;
+
+    /**
+     * 各非空通道连续被更高优先级越过的次数
+     */
+    private final int[] skipped;
+
+    /**
+     * 每个通道的容量
+     */
+    private final int capacity;
+
+    /**
+     * 低优先级通道最多连续被越过的次数
+     */
+    private final int starvationThreshold;
+
+    /**
+     * 是否没有消费者，没有消费者时通道已满则丢弃最旧的数据项而不是等待
+     */
+    private final BooleanSupplier idle;
+
+    /**
+     * 所有通道的数据项总数，只在持有锁时修改
+     */
+    private volatile int size;
+
+    /**
+     * 是否已关闭
+     */
+    private boolean closed;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * 构造函数
+     *
+     * @param laneCount           通道数量
+     * @param capacity            每个通道的容量
+     * @param starvationThreshold 低优先级通道最多连续被越过的次数
+     * @param idle                没有消费者时返回true
+     */
+    PriorityLanes(int laneCount, int capacity, int starvationThreshold, BooleanSupplier idle) {
+        if (laneCount < 2 || capacity < 1 || starvationThreshold < 1) {
+            throw new IllegalArgumentException("Priority lanes require laneCount >= 2, capacity >= 1 and starvationThreshold >= 1");
+        }
+        this.lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new ArrayDeque<>());
+        }
+        this.skipped = new int[laneCount];
+        this.capacity = capacity;
+        this.starvationThreshold = starvationThreshold;
+        this.idle = idle;
+    }
+
+    /**
+     * 放入数据项，通道已满时等待推送任务取出；没有消费者时丢弃该通道最旧的数据项
+     *
+     * @param item     数据项
+     * @param priority 优先级
+     * @return 放入成功返回true，已关闭时返回false
+     */
+    boolean put(T item, int priority) {
+        ArrayDeque<T> lane = lanes.get(priority);
+        boolean interrupted = false;
+        lock.lock();
+        try {
+            while (lane.size() >= capacity && !closed && !discardOldest(lane)) {
+                try {
+                    // 由drainTo、close或消费者全部离开时的wakeProducers唤醒
+                    notFull.await();
+                } catch (InterruptedException e) {
+                    // 与写入事件日志时的等待一样不响应中断，恢复中断标记后继续等待
+                    interrupted = true;
+                }
+            }
+            if (closed) {
+                return false;
+            }
+            lane.addLast(item);
+            size++;
+            return true;
+        } finally {
+            lock.unlock();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 尝试放入数据项，不等待；没有消费者时与put一样丢弃该通道最旧的数据项
+     *
+     * @param item     数据项
+     * @param priority 优先级
+     * @return 放入成功返回true，通道已满或已关闭时返回false
+     */
+    boolean offer(T item, int priority) {
+        ArrayDeque<T> lane = lanes.get(priority);
+        lock.lock();
+        try {
+            if (closed || (lane.size() >= capacity && !discardOldest(lane))) {
+                return false;
+            }
+            lane.addLast(item);
+            size++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 按优先级取出数据项
+     *
+     * @param target   接收数据项的列表
+     * @param maxItems 最多取出的数量
+     * @return 取出的数量
+     */
+    int drainTo(List<T> target, int maxItems) {
+        lock.lock();
+        try {
+            int count = 0;
+            while (count < maxItems && size > 0) {
+                target.add(lanes.get(selectLane()).pollFirst());
+                size--;
+                count++;
+            }
+            if (count > 0) {
+                notFull.signalAll();
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 没有消费者时丢弃通道中最旧的数据项，必须持有锁调用
+     *
+     * @param lane 已满的通道
+     * @return 已丢弃返回true，有消费者时返回false
+     */
+    private boolean discardOldest(ArrayDeque<T> lane) {
+        if (!idle.getAsBoolean()) {
+            return false;
+        }
+        lane.pollFirst();
+        size--;
+        return true;
+    }
+
+    /**
+     * 唤醒等待通道空间的生产者，最后一个消费者离开时调用，之后的生产者改为丢弃最旧的数据项
+     */
+    void wakeProducers() {
+        lock.lock();
+        try {
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 选择下一个取出数据项的通道，必须持有锁且至少有一个非空通道时调用
+     * 默认取最高的非空通道，并为被越过的非空通道计数；有通道达到饿死阈值时改取其中被越过次数最多的通道
+     *
+     * @return 通道下标
+     */
+    private int selectLane() {
+        int highest = lanes.size() - 1;
+        while (lanes.get(highest).isEmpty()) {
+            highest--;
+        }
+        int starving = -1;
+        for (int i = 0; i < highest; i++) {
+            if (lanes.get(i).isEmpty()) {
+                skipped[i] = 0;
+            } else if (++skipped[i] >= starvationThreshold && (starving < 0 || skipped[i] > skipped[starving])) {
+                starving = i;
+            }
+        }
+        int selected = starving >= 0 ? starving : highest;
+        skipped[selected] = 0;
+        return selected;
+    }
+
+    /**
+     * 是否没有等待中的数据项
+     *
+     * @return 所有通道都为空时返回true
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 获取等待中的数据项数量
+     *
+     * @return 所有通道的数据项总数
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * 获取通道数量
+     *
+     * @return 通道数量
+     */
+    int getLaneCount() {
+        return lanes.size();
+    }
+
+    /**
+     * 关闭，丢弃尚未写入事件日志的数据项并唤醒等待中的生产者
+     */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            for (ArrayDeque<T> lane : lanes) {
+                lane.clear();
+            }
+            size = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
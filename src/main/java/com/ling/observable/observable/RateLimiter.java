@@ -0,0 +1,104 @@
+package com.ling.observable.observable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶限速器
+ * 只在推送任务中访问，同一时刻最多一个推送任务执行，因此不需要同步
+ * 允许令牌透支：令牌为正时即可推送下一个数据项，按字节限速时大于桶容量的数据项也能推送，透支部分由之后的补充抵扣
+ *
+ * @author Ling
+ */
+class RateLimiter {
+
+    /**
+     * 速率策略
+     */
+    private final RatePolicy policy;
+
+    /**
+     * 每纳秒补充的令牌数量
+     */
+    private final double tokensPerNano;
+
+    /**
+     * 令牌桶容量
+     */
+    private final double capacity;
+
+    /**
+     * 当前令牌数量，可以为负数表示透支
+     */
+    private double tokens;
+
+    /**
+     * 上次补充令牌的时间
+     */
+    private long lastRefillNanos;
+
+    /**
+     * 构造函数，令牌桶初始为满
+     *
+     * @param policy 速率策略
+     */
+    RateLimiter(RatePolicy policy) {
+        this.policy = policy;
+        this.tokensPerNano = (double) policy.getRate() / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = policy.getBurst();
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 申请推送一段数据
+     *
+     * @param ringBuffer 事件日志
+     * @param lo         起始序号
+     * @param hi         结束序号
+     * @return 允许推送的最大序号，令牌不足时返回lo - 1
+     */
+    long acquire(RingBuffer<?> ringBuffer, long lo, long hi) {
+        if (policy.isUnlimited()) {
+            return hi;
+        }
+        refill();
+        if (!policy.limitsBytes()) {
+            long permits = Math.min(hi - lo + 1, (long) tokens);
+            tokens -= permits;
+            return lo + permits - 1;
+        }
+        long sequence = lo;
+        while (sequence <= hi && tokens > 0) {
+            tokens -= policy.sizeOf(ringBuffer.get(sequence));
+            sequence++;
+        }
+        return sequence - 1;
+    }
+
+    /**
+     * 计算令牌补足到可以推送下一个数据项所需的等待时间
+     *
+     * @return 等待纳秒数，不需要等待时返回0
+     */
+    long getDelayNanos() {
+        if (policy.isUnlimited()) {
+            return 0;
+        }
+        refill();
+        // 按数据项限速需要一个完整令牌，按字节限速只需令牌为正
+        double missing = policy.limitsBytes() ? -tokens : 1 - tokens;
+        if (missing < 0 || (missing == 0 && !policy.limitsBytes())) {
+            return 0;
+        }
+        return (long) Math.ceil(missing / tokensPerNano) + 1;
+    }
+
+    /**
+     * 按流逝的时间补充令牌
+     */
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,147 @@
+package com.ling.observable.observable;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * 推送速率策略
+ * 限制Observable向队列模式订阅者推送数据的速率，用于保护处理能力有限的下游
+ * 按令牌桶计算：令牌以固定速率补充，最多累积burst个，推送数据消耗令牌，令牌不足时推送任务延迟到令牌补足后继续
+ * 游标模式的订阅者自行按需读取，不受该策略限制
+ *
+ * @author Ling
+ */
+public class RatePolicy {
+
+    /**
+     * 不限速：有数据就立即推送
+     */
+    public static final RatePolicy UNLIMITED = new RatePolicy(0, 0, 0, RetentionPolicy::estimateSize);
+
+    /**
+     * 每秒最多推送的数据项数量，小于等于0表示不限制
+     */
+    private final long itemsPerSecond;
+
+    /**
+     * 每秒最多推送的字节数（按sizeEstimator估算），小于等于0表示不限制
+     */
+    private final long bytesPerSecond;
+
+    /**
+     * 令牌桶容量，即空闲之后允许一次性推送的最大突发量，单位与限速单位相同
+     * 小于等于0时使用速率的1/10，即最多积累100毫秒的额度
+     */
+    private final long burst;
+
+    /**
+     * 数据项大小估算函数，仅在限制字节速率时使用
+     */
+    private final ToLongFunction<Object> sizeEstimator;
+
+    /**
+     * 构造函数
+     *
+     * @param itemsPerSecond 每秒最多推送的数据项数量
+     * @param bytesPerSecond 每秒最多推送的字节数
+     * @param burst          令牌桶容量
+     * @param sizeEstimator  数据项大小估算函数
+     */
+    public RatePolicy(long itemsPerSecond, long bytesPerSecond, long burst, ToLongFunction<Object> sizeEstimator) {
+        if (itemsPerSecond > 0 && bytesPerSecond > 0) {
+            throw new IllegalArgumentException("Rate can be limited by items or by bytes, not both");
+        }
+        this.itemsPerSecond = Math.max(0, itemsPerSecond);
+        this.bytesPerSecond = Math.max(0, bytesPerSecond);
+        this.burst = burst;
+        this.sizeEstimator = sizeEstimator;
+    }
+
+    /**
+     * 按数据项数量限速
+     *
+     * @param itemsPerSecond 每秒最多推送的数据项数量
+     * @return 速率策略
+     */
+    public static RatePolicy itemsPerSecond(long itemsPerSecond) {
+        return itemsPerSecond > 0 ? new RatePolicy(itemsPerSecond, 0, 0, RetentionPolicy::estimateSize) : UNLIMITED;
+    }
+
+    /**
+     * 按字节数限速，数据项大小使用默认估算
+     *
+     * @param bytesPerSecond 每秒最多推送的字节数
+     * @return 速率策略
+     */
+    public static RatePolicy bytesPerSecond(long bytesPerSecond) {
+        return bytesPerSecond > 0 ? new RatePolicy(0, bytesPerSecond, 0, RetentionPolicy::estimateSize) : UNLIMITED;
+    }
+
+    /**
+     * 是否不限速
+     *
+     * @return 不限速返回true
+     */
+    public boolean isUnlimited() {
+        return itemsPerSecond <= 0 && bytesPerSecond <= 0;
+    }
+
+    /**
+     * 是否按字节数限速
+     *
+     * @return 按字节数限速返回true
+     */
+    public boolean limitsBytes() {
+        return bytesPerSecond > 0;
+    }
+
+    /**
+     * 获取每秒最多推送的数据项数量
+     *
+     * @return 数据项数量，0表示不限制
+     */
+    public long getItemsPerSecond() {
+        return itemsPerSecond;
+    }
+
+    /**
+     * 获取每秒最多推送的字节数
+     *
+     * @return 字节数，0表示不限制
+     */
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * 获取每秒补充的令牌数量
+     *
+     * @return 令牌数量
+     */
+    public long getRate() {
+        return limitsBytes() ? bytesPerSecond : itemsPerSecond;
+    }
+
+    /**
+     * 获取令牌桶容量
+     *
+     * @return 令牌桶容量，至少为1
+     */
+    public long getBurst() {
+        return burst > 0 ? burst : Math.max(1, getRate() / 10);
+    }
+
+    /**
+     * 估算数据项大小
+     *
+     * @param item 数据项
+     * @return 估算的字节数
+     */
+    public long sizeOf(Object item) {
+        return sizeEstimator.applyAsLong(item);
+    }
+
+    @Override
+    public String toString() {
+        return "RatePolicy{itemsPerSecond=" + itemsPerSecond + ", bytesPerSecond=" + bytesPerSecond + ", burst=" + getBurst() + "}";
+    }
+}
@@ -0,0 +1,78 @@
+package com.ling.observable.observable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 订阅注册与关闭之间的互斥
+ * 状态字的最高位标记是否已关闭，其余位记录正在进行中的订阅注册数量：
+ * 注册前通过CAS在未关闭状态下加1，关闭时置位后等待计数归零，
+ * 因此关闭之后不会有新的注册，关闭之前开始的注册也都能在通知订阅者关闭之前完成，两者之间不需要加锁
+ * Observable与基本类型的PrimitiveObservable共用
+ *
+ * @author Ling
+ */
+final class RegistrationGate {
+
+    private static final Logger logger = LogManager.getLogger(RegistrationGate.class);
+
+    /**
+     * 状态字中表示已关闭的标记位
+     */
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    /**
+     * 订阅状态字
+     */
+    private final AtomicLong state = new AtomicLong(0);
+
+    /**
+     * 开始一次订阅注册，必须与exit()成对调用
+     *
+     * @throws Exception 如果已关闭则抛出异常
+     */
+    void enter() throws Exception {
+        long current;
+        do {
+            current = state.get();
+            if (current < 0) {
+                logger.warn("尝试订阅已关闭的Observable");
+                throw new Exception("Observable is closed");
+            }
+        } while (!state.compareAndSet(current, current + 1));
+    }
+
+    /**
+     * 结束一次订阅注册
+     */
+    void exit() {
+        state.decrementAndGet();
+    }
+
+    /**
+     * 置位关闭标记，并等待关闭之前开始的注册完成，注册过程很短，自旋等待即可
+     *
+     * @return 第一次关闭返回true，已关闭时返回false
+     */
+    boolean close() {
+        long previous = state.getAndUpdate(current -> current | CLOSED);
+        if ((previous & CLOSED) != 0) {
+            return false;
+        }
+        while (state.get() != CLOSED) {
+            Thread.onSpinWait();
+        }
+        return true;
+    }
+
+    /**
+     * 是否已关闭
+     *
+     * @return 已关闭返回true
+     */
+    boolean isClosed() {
+        return state.get() < 0;
+    }
+}
@@ -0,0 +1,178 @@
+package com.ling.observable.observable;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * 历史数据保留策略
+ * 决定已被所有订阅者消费的数据在事件日志中保留多久，超出任一限制的最旧数据会被后台回收
+ * 未被消费的数据不受该策略影响，始终保留到最慢的订阅者读取为止
+ *
+ * @author Ling
+ */
+public class RetentionPolicy {
+
+    /**
+     * 后台回收的默认检查间隔
+     */
+    public static final Duration DEFAULT_COMPACTION_INTERVAL = Duration.ofSeconds(1);
+
+    /**
+     * 不保留已消费数据：数据被所有订阅者消费后立即回收
+     */
+    public static final RetentionPolicy NONE = new RetentionPolicy(0, 0, null);
+
+    /**
+     * 最多保留的数据项数量（包含未消费数据），小于等于0表示不保留已消费数据
+     * 实际上限不超过环形缓冲区容量
+     */
+    private final long maxItems;
+
+    /**
+     * 最多保留的字节数（按sizeEstimator估算），小于等于0表示不限制
+     */
+    private final long maxBytes;
+
+    /**
+     * 数据项最长保留时间，null表示不限制
+     */
+    private final Duration maxAge;
+
+    /**
+     * 数据项大小估算函数，仅在设置了maxBytes时使用
+     */
+    private final ToLongFunction<Object> sizeEstimator;
+
+    /**
+     * 后台回收的检查间隔
+     */
+    private final Duration compactionInterval;
+
+    /**
+     * 构造函数
+     *
+     * @param maxItems 最多保留的数据项数量
+     * @param maxBytes 最多保留的字节数
+     * @param maxAge   最长保留时间
+     */
+    public RetentionPolicy(long maxItems, long maxBytes, Duration maxAge) {
+        this(maxItems, maxBytes, maxAge, RetentionPolicy::estimateSize, DEFAULT_COMPACTION_INTERVAL);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param maxItems           最多保留的数据项数量
+     * @param maxBytes           最多保留的字节数
+     * @param maxAge             最长保留时间
+     * @param sizeEstimator      数据项大小估算函数
+     * @param compactionInterval 后台回收的检查间隔
+     */
+    public RetentionPolicy(long maxItems, long maxBytes, Duration maxAge,
+                           ToLongFunction<Object> sizeEstimator, Duration compactionInterval) {
+        this.maxItems = maxItems;
+        this.maxBytes = maxBytes;
+        this.maxAge = maxAge;
+        this.sizeEstimator = sizeEstimator;
+        this.compactionInterval = compactionInterval;
+    }
+
+    /**
+     * 获取最多保留的数据项数量
+     *
+     * @return 最多保留的数据项数量
+     */
+    public long getMaxItems() {
+        return maxItems;
+    }
+
+    /**
+     * 获取最多保留的字节数
+     *
+     * @return 最多保留的字节数
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * 获取最长保留时间
+     *
+     * @return 最长保留时间，null表示不限制
+     */
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * 获取后台回收的检查间隔
+     *
+     * @return 后台回收的检查间隔
+     */
+    public Duration getCompactionInterval() {
+        return compactionInterval;
+    }
+
+    /**
+     * 是否需要统计数据项大小
+     *
+     * @return 设置了maxBytes时返回true
+     */
+    public boolean tracksBytes() {
+        return maxBytes > 0;
+    }
+
+    /**
+     * 估算数据项大小
+     *
+     * @param item 数据项
+     * @return 估算的字节数
+     */
+    public long sizeOf(Object item) {
+        return sizeEstimator.applyAsLong(item);
+    }
+
+    /**
+     * 默认的数据项大小估算
+     * 只做粗略估算，用于限制内存占用的数量级
+     *
+     * @param item 数据项
+     * @return 估算的字节数
+     */
+    public static long estimateSize(Object item) {
+        if (item == null) {
+            return 0;
+        }
+        if (item instanceof CharSequence text) {
+            return 40 + 2L * text.length();
+        }
+        if (item instanceof byte[] bytes) {
+            return 16 + bytes.length;
+        }
+        if (item instanceof Number || item instanceof Boolean || item instanceof Character) {
+            return 16;
+        }
+        if (item instanceof Map<?, ?> map) {
+            long size = 48;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += 32 + estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+            }
+            return size;
+        }
+        if (item instanceof Collection<?> collection) {
+            long size = 40;
+            for (Object element : collection) {
+                size += 8 + estimateSize(element);
+            }
+            return size;
+        }
+        return 64;
+    }
+
+    @Override
+    public String toString() {
+        return "RetentionPolicy{maxItems=" + maxItems + ", maxBytes=" + maxBytes + ", maxAge=" + maxAge + "}";
+    }
+}
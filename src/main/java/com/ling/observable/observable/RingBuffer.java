@@ -0,0 +1,587 @@
+package com.ling.observable.observable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 环形缓冲区
+ * 预分配、容量为2的幂的事件日志，参考LMAX Disruptor的多生产者序号器实现
+ * 生产者通过next()申请序号、写入槽位后publish()发布；消费者按序号读取
+ * 写入位置不能超过最慢的门控序号（消费进度）一圈，因此已申请但未消费的数据不会被覆盖
+ *
+ * @param <T> 数据类型
+ * @author Ling
+ */
+public class RingBuffer<T> {
+
+    private static final VarHandle AVAILABLE = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * next()放弃等待时返回的序号
+     */
+    public static final long ABORTED = -1L;
+
+    /**
+     * 生产者等待空闲槽位的初始超时（纳秒），超时后加倍
+     */
+    private static final long MIN_SPACE_WAIT_NANOS = 10_000L;
+
+    /**
+     * 生产者等待空闲槽位的最大超时（纳秒）
+     * 槽位释放时由signalSpace()唤醒，超时只用于兜底，例如门控序号推进时没有调用signalSpace()
+     */
+    private static final long MAX_SPACE_WAIT_NANOS = 10_000_000L;
+
+    /**
+     * 缓冲区容量，必须是2的幂
+     */
+    private final int bufferSize;
+
+    /**
+     * 序号到槽位下标的掩码
+     */
+    private final int indexMask;
+
+    /**
+     * 序号右移位数，用于计算槽位所处的圈数
+     */
+    private final int indexShift;
+
+    /**
+     * 数据槽位
+     */
+    private final Object[] entries;
+
+    /**
+     * 槽位发布标记，记录每个槽位当前已发布数据的圈数
+     * 多生产者乱序发布时，消费者据此判断序号是否真正可读
+     */
+    private final int[] availableBuffer;
+
+    /**
+     * 槽位数据的发布时间（毫秒），用于按时间保留和回放历史数据
+     */
+    private final long[] timestamps;
+
+    /**
+     * 槽位数据的估算大小（字节），用于按字节数保留历史数据
+     */
+    private final long[] sizes;
+
+    /**
+     * 生产者游标，记录已申请的最大序号
+     */
+    private final Sequence cursor = new Sequence();
+
+    /**
+     * 门控序号最小值的缓存，减少生产者遍历门控序号的次数
+     */
+    private final Sequence gatingSequenceCache = new Sequence();
+
+    /**
+     * 门控序号（消费进度），生产者不能超过其中最小值一圈
+     * 写时复制数组，增删很少，读取无锁
+     */
+    private volatile Sequence[] gatingSequences = new Sequence[0];
+
+    /**
+     * 阻塞等待发布的锁和条件，供直接读取日志的消费者使用
+     */
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition publishedCondition = waitLock.newCondition();
+
+    /**
+     * 正在等待发布的消费者数量
+     * 没有等待者时发布不需要加锁
+     */
+    private final AtomicInteger waiters = new AtomicInteger(0);
+
+    /**
+     * 等待空闲槽位的锁和条件，供缓冲区已满时的生产者使用
+     */
+    private final ReentrantLock spaceLock = new ReentrantLock();
+    private final Condition spaceCondition = spaceLock.newCondition();
+
+    /**
+     * 正在等待空闲槽位的生产者数量
+     * 没有等待者时推进门控序号不需要加锁
+     */
+    private final AtomicInteger stalledProducers = new AtomicInteger(0);
+
+    /**
+     * 缓冲区已满时生产者在等待前调用的回调
+     * 用于触发历史数据回收，释放被保留策略占用的槽位
+     */
+    private volatile Runnable fullHandler;
+
+    /**
+     * 构造函数
+     *
+     * @param bufferSize 缓冲区容量，必须是2的幂
+     */
+    public RingBuffer(int bufferSize) {
+        this(bufferSize, true);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param bufferSize    缓冲区容量，必须是2的幂
+     * @param storesEntries 是否分配对象槽位；为false时只作为序号器使用，数据由调用方存放在自己的基本类型数组中
+     */
+    RingBuffer(int bufferSize, boolean storesEntries) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of 2: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.indexMask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.entries = storesEntries ? new Object[bufferSize] : null;
+        this.availableBuffer = new int[bufferSize];
+        this.timestamps = storesEntries ? new long[bufferSize] : null;
+        this.sizes = storesEntries ? new long[bufferSize] : null;
+        Arrays.fill(availableBuffer, -1);
+    }
+
+    /**
+     * 计算不小于指定值的2的幂
+     *
+     * @param value 期望容量
+     * @return 2的幂容量
+     */
+    public static int ceilingPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    /**
+     * 申请下一个序号
+     *
+     * @return 申请到的序号
+     */
+    public long next() {
+        return next(1);
+    }
+
+    /**
+     * 批量申请序号
+     * 缓冲区已满时等待最慢的消费者前进，不能放弃等待
+     *
+     * @param n 申请数量
+     * @return 申请到的最大序号
+     */
+    public long next(int n) {
+        return next(n, () -> false);
+    }
+
+    /**
+     * 批量申请序号，缓冲区已满时等待最慢的消费者前进，aborted返回true时放弃等待
+     * 例如Observable关闭后等待的生产者不再等待消费者，否则没有消费者前进时会永久等待
+     * 每次缓冲区已满时先调用一次fullHandler，仍然不足时在条件上等待signalSpace()唤醒，不自旋；
+     * 等待超时后再调用fullHandler并加倍超时，直到MAX_SPACE_WAIT_NANOS
+     *
+     * @param n       申请数量
+     * @param aborted 缓冲区已满时每次重试前检查，返回true时放弃申请
+     * @return 申请到的最大序号，放弃申请时返回ABORTED
+     */
+    public long next(int n, BooleanSupplier aborted) {
+        if (n < 1 || n > bufferSize) {
+            throw new IllegalArgumentException("n must be > 0 and <= bufferSize");
+        }
+        boolean handled = false;
+        boolean interrupted = false;
+        long spaceWait = MIN_SPACE_WAIT_NANOS;
+        try {
+            while (true) {
+                long current = cursor.get();
+                long next = current + n;
+                long wrapPoint = next - bufferSize;
+                long cachedGatingSequence = gatingSequenceCache.get();
+
+                if (wrapPoint > cachedGatingSequence || cachedGatingSequence > current) {
+                    long gatingSequence = minimumGatingSequence(current);
+                    if (wrapPoint > gatingSequence) {
+                        if (aborted.getAsBoolean()) {
+                            return ABORTED;
+                        }
+                        Runnable handler = fullHandler;
+                        if (!handled && handler != null) {
+                            // 缓冲区已满，先尝试回收，例如释放被保留策略占用的槽位
+                            handler.run();
+                            handled = true;
+                            continue;
+                        }
+                        // 仍然没有空闲槽位，等待消费者释放
+                        try {
+                            if (!awaitSpace(wrapPoint, aborted, spaceWait)) {
+                                // 超时没有被唤醒，再调用一次fullHandler并加倍超时
+                                handled = false;
+                                spaceWait = Math.min(spaceWait * 2, MAX_SPACE_WAIT_NANOS);
+                            }
+                        } catch (InterruptedException e) {
+                            // 与消费者的等待一样不响应中断，返回前恢复中断标记
+                            interrupted = true;
+                        }
+                        continue;
+                    }
+                    gatingSequenceCache.set(gatingSequence);
+                } else if (cursor.compareAndSet(current, next)) {
+                    return next;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 等待最慢的门控序号推进到wrapPoint，被signalSpace()唤醒、超时或条件已满足时返回，由调用方重新检查
+     * 先登记等待者再检查门控序号，与signalSpace()中的先推进后读取等待者数量配对，避免丢失唤醒
+     *
+     * @param wrapPoint    申请所需的最小门控序号
+     * @param aborted      返回true时不再等待
+     * @param timeoutNanos 超时（纳秒）
+     * @return 被唤醒或条件已满足时返回true，超时返回false
+     * @throws InterruptedException 如果线程被中断
+     */
+    private boolean awaitSpace(long wrapPoint, BooleanSupplier aborted, long timeoutNanos) throws InterruptedException {
+        stalledProducers.incrementAndGet();
+        spaceLock.lock();
+        try {
+            if (wrapPoint <= minimumGatingSequence(cursor.get()) || aborted.getAsBoolean()) {
+                return true;
+            }
+            return spaceCondition.awaitNanos(timeoutNanos) > 0;
+        } finally {
+            spaceLock.unlock();
+            stalledProducers.decrementAndGet();
+        }
+    }
+
+    /**
+     * 门控序号推进或移除、槽位可能已释放时调用，唤醒等待空闲槽位的生产者
+     * 门控序号写入与读取等待者数量之间需要全屏障，与awaitSpace()中的先登记后检查配对
+     */
+    public void signalSpace() {
+        VarHandle.fullFence();
+        if (stalledProducers.get() > 0) {
+            spaceLock.lock();
+            try {
+                spaceCondition.signalAll();
+            } finally {
+                spaceLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 是否有生产者在等待空闲槽位
+     * 推进门控序号之后调用，与signalSpace()一样先加全屏障，保证不会读到推进之前的等待者数量
+     *
+     * @return 有等待的生产者时返回true
+     */
+    public boolean hasStalledProducers() {
+        VarHandle.fullFence();
+        return stalledProducers.get() > 0;
+    }
+
+    /**
+     * 尝试批量申请序号，不等待
+     * 缓冲区已满时只调用一次fullHandler后重新检查，仍然不足时放弃申请
+     *
+     * @param n 申请数量
+     * @return 申请到的最大序号，缓冲区已满时返回ABORTED
+     */
+    public long tryNext(int n) {
+        if (n < 1 || n > bufferSize) {
+            throw new IllegalArgumentException("n must be > 0 and <= bufferSize");
+        }
+        boolean handled = false;
+        while (true) {
+            long current = cursor.get();
+            long next = current + n;
+            long wrapPoint = next - bufferSize;
+            long cachedGatingSequence = gatingSequenceCache.get();
+
+            if (wrapPoint > cachedGatingSequence || cachedGatingSequence > current) {
+                long gatingSequence = minimumGatingSequence(current);
+                if (wrapPoint > gatingSequence) {
+                    Runnable handler = fullHandler;
+                    if (handled || handler == null) {
+                        return ABORTED;
+                    }
+                    handler.run();
+                    handled = true;
+                    continue;
+                }
+                gatingSequenceCache.set(gatingSequence);
+            } else if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * 写入槽位数据
+     * 必须在next()之后、publish()之前调用
+     *
+     * @param sequence 已申请的序号
+     * @param item     数据项
+     */
+    public void set(long sequence, T item) {
+        int index = (int) sequence & indexMask;
+        entries[index] = item;
+        timestamps[index] = System.currentTimeMillis();
+    }
+
+    /**
+     * 记录槽位数据的估算大小
+     * 必须在publish()之前调用
+     *
+     * @param sequence 已申请的序号
+     * @param size     估算的字节数
+     */
+    public void setSize(long sequence, long size) {
+        sizes[(int) sequence & indexMask] = size;
+    }
+
+    /**
+     * 回收槽位，释放对数据项的引用
+     * 调用方需保证该序号已被所有消费者读取，并且在推进自己的门控序号之前调用
+     *
+     * @param sequence 序号
+     */
+    public void clear(long sequence) {
+        int index = (int) sequence & indexMask;
+        entries[index] = null;
+        sizes[index] = 0;
+    }
+
+    /**
+     * 发布序号，使消费者可见
+     *
+     * @param sequence 已写入数据的序号
+     */
+    public void publish(long sequence) {
+        AVAILABLE.setRelease(availableBuffer, (int) sequence & indexMask, (int) (sequence >>> indexShift));
+        signalWaiters();
+    }
+
+    /**
+     * 批量发布序号
+     *
+     * @param lo 起始序号
+     * @param hi 结束序号（包含）
+     */
+    public void publish(long lo, long hi) {
+        for (long sequence = lo; sequence <= hi; sequence++) {
+            AVAILABLE.setRelease(availableBuffer, (int) sequence & indexMask, (int) (sequence >>> indexShift));
+        }
+        signalWaiters();
+    }
+
+    /**
+     * 唤醒等待发布的消费者
+     * 发布标记写入与读取等待者数量之间需要全屏障，与waitFor()中的先登记后检查配对，避免丢失唤醒
+     */
+    private void signalWaiters() {
+        VarHandle.fullFence();
+        if (waiters.get() > 0) {
+            wakeUpWaiters();
+        }
+    }
+
+    /**
+     * 唤醒所有等待发布的消费者
+     * 关闭时也通过该方法让等待者重新检查状态
+     */
+    public void wakeUpWaiters() {
+        waitLock.lock();
+        try {
+            publishedCondition.signalAll();
+        } finally {
+            waitLock.unlock();
+        }
+    }
+
+    /**
+     * 阻塞等待序号发布
+     *
+     * @param sequence 等待的序号
+     * @param alerted  返回true时停止等待，例如订阅已关闭
+     * @return 序号已发布返回true，被alerted中断等待返回false
+     * @throws InterruptedException 如果线程被中断
+     */
+    public boolean waitFor(long sequence, BooleanSupplier alerted) throws InterruptedException {
+        if (isAvailable(sequence)) {
+            return true;
+        }
+        waiters.incrementAndGet();
+        waitLock.lock();
+        try {
+            while (!isAvailable(sequence)) {
+                if (alerted.getAsBoolean()) {
+                    return false;
+                }
+                publishedCondition.await();
+            }
+            return true;
+        } finally {
+            waitLock.unlock();
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * 申请、写入并发布一个数据项
+     *
+     * @param item 数据项
+     * @return 数据项的序号
+     */
+    public long publishItem(T item) {
+        long sequence = next();
+        set(sequence, item);
+        publish(sequence);
+        return sequence;
+    }
+
+    /**
+     * 读取槽位数据
+     * 调用方需保证序号已发布且尚未被覆盖
+     *
+     * @param sequence 序号
+     * @return 数据项
+     */
+    @SuppressWarnings("unchecked")
+    public T get(long sequence) {
+        return (T) entries[(int) sequence & indexMask];
+    }
+
+    /**
+     * 读取槽位数据的发布时间
+     *
+     * @param sequence 序号
+     * @return 发布时间（毫秒）
+     */
+    public long getTimestamp(long sequence) {
+        return timestamps[(int) sequence & indexMask];
+    }
+
+    /**
+     * 读取槽位数据的估算大小
+     *
+     * @param sequence 序号
+     * @return 估算的字节数
+     */
+    public long getSize(long sequence) {
+        return sizes[(int) sequence & indexMask];
+    }
+
+    /**
+     * 判断序号是否已发布
+     *
+     * @param sequence 序号
+     * @return 已发布返回true
+     */
+    public boolean isAvailable(long sequence) {
+        return (int) AVAILABLE.getAcquire(availableBuffer, (int) sequence & indexMask) == (int) (sequence >>> indexShift);
+    }
+
+    /**
+     * 获取从lowerBound开始连续发布的最大序号
+     * 多生产者可能乱序发布，消费者只能读取到第一个未发布序号之前
+     *
+     * @param lowerBound       起始序号
+     * @param availableSequence 已申请的最大序号
+     * @return 连续可读的最大序号，lowerBound未发布时返回lowerBound - 1
+     */
+    public long getHighestPublishedSequence(long lowerBound, long availableSequence) {
+        for (long sequence = lowerBound; sequence <= availableSequence; sequence++) {
+            if (!isAvailable(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return availableSequence;
+    }
+
+    /**
+     * 获取生产者游标
+     *
+     * @return 已申请的最大序号
+     */
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    /**
+     * 获取缓冲区容量
+     *
+     * @return 容量
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * 设置缓冲区已满时的回调
+     *
+     * @param fullHandler 回调，不能阻塞
+     */
+    public void setFullHandler(Runnable fullHandler) {
+        this.fullHandler = fullHandler;
+    }
+
+    /**
+     * 添加门控序号
+     *
+     * @param sequence 消费进度序号
+     */
+    public synchronized void addGatingSequence(Sequence sequence) {
+        Sequence[] current = gatingSequences;
+        Sequence[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = sequence;
+        gatingSequences = updated;
+    }
+
+    /**
+     * 移除门控序号
+     *
+     * @param sequence 消费进度序号
+     * @return 是否移除成功
+     */
+    public synchronized boolean removeGatingSequence(Sequence sequence) {
+        Sequence[] current = gatingSequences;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == sequence) {
+                Sequence[] updated = new Sequence[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                gatingSequences = updated;
+                // 移除最慢的门控序号可能释放槽位
+                signalSpace();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 计算门控序号最小值
+     *
+     * @param defaultValue 没有门控序号时的默认值
+     * @return 最慢消费者的进度
+     */
+    public long minimumGatingSequence(long defaultValue) {
+        long minimum = defaultValue;
+        for (Sequence sequence : gatingSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+}
@@ -0,0 +1,120 @@
+package com.ling.observable.observable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 左侧缓存行填充
+ * 避免序号与相邻对象共享缓存行产生伪共享
+ */
+class SequenceLhsPadding {
+    protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+/**
+ * 序号值
+ */
+class SequenceValue extends SequenceLhsPadding {
+    protected volatile long value;
+}
+
+/**
+ * 右侧缓存行填充
+ */
+class SequenceRhsPadding extends SequenceValue {
+    protected long p9, p10, p11, p12, p13, p14, p15;
+}
+
+/**
+ * 序号类
+ * 环形缓冲区中生产者游标和消费者进度使用的并发序号，前后填充以独占缓存行
+ *
+ * @author Ling
+ */
+public final class Sequence extends SequenceRhsPadding {
+
+    /**
+     * 初始序号，表示尚未发布或消费任何数据
+     */
+    public static final long INITIAL_VALUE = -1L;
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * 构造函数，序号从INITIAL_VALUE开始
+     */
+    public Sequence() {
+        this(INITIAL_VALUE);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param initialValue 初始序号
+     */
+    public Sequence(long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    /**
+     * 读取序号（acquire语义）
+     *
+     * @return 当前序号
+     */
+    public long get() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    /**
+     * 设置序号（release语义）
+     * 单写者场景下比volatile写更轻量，之前的写入对读取该序号的线程可见
+     *
+     * @param value 新序号
+     */
+    public void set(long value) {
+        VALUE.setRelease(this, value);
+    }
+
+    /**
+     * 设置序号（volatile语义）
+     *
+     * @param value 新序号
+     */
+    public void setVolatile(long value) {
+        VALUE.setVolatile(this, value);
+    }
+
+    /**
+     * CAS更新序号
+     *
+     * @param expectedValue 期望值
+     * @param newValue      新值
+     * @return 是否更新成功
+     */
+    public boolean compareAndSet(long expectedValue, long newValue) {
+        return VALUE.compareAndSet(this, expectedValue, newValue);
+    }
+
+    /**
+     * 原子增加序号
+     *
+     * @param increment 增量
+     * @return 增加后的序号
+     */
+    public long addAndGet(long increment) {
+        return (long) VALUE.getAndAdd(this, increment) + increment;
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+}
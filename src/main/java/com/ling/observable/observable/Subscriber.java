@@ -3,9 +3,14 @@ package com.ling.observable.observable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
 
 /**
  * 订阅者类
@@ -13,6 +18,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * 
  * @param <T> 数据类型
  */
+// 构造函数把自身交给订阅对象，订阅对象只保存引用用于取消订阅时查找，构造期间不会回调
+@SuppressWarnings("this-escape")
 public class Subscriber<T> {
     
     private static final Logger logger = LogManager.getLogger(Subscriber.class);
@@ -21,7 +28,59 @@ public class Subscriber<T> {
      * 使用阻塞队列作为数据缓冲区，线程安全
      * 当队列为空时，take()方法会阻塞直到有数据可用
      */
-    private final BlockingQueue<T> buffer = new LinkedBlockingQueue<>();
+    private final BlockingQueue<T> buffer;
+
+    /**
+     * 缓冲区容量，0表示不限制
+     */
+    private final int capacity;
+
+    /**
+     * 缓冲区已满时的处理策略
+     */
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * 因缓冲区已满而丢弃的数据项数量
+     */
+    private final AtomicLong overflowDroppedCount = new AtomicLong();
+
+    /**
+     * 降级期间丢弃的数据项数量
+     */
+    private final AtomicLong degradedDroppedCount = new AtomicLong();
+
+    /**
+     * 缓冲区上次为空之后没有放入缓冲区的新数据项数量，即DROP_NEWEST、降级和关闭时放弃等待丢弃的数据项，
+     * 这些数据项在缓冲区中的数据项之间或之后留下空洞；DROP_OLDEST丢弃的是缓冲区头部的旧数据项，不留空洞，不计入
+     * 只由推送线程修改，用于计算消费位置
+     */
+    private volatile long gapCount;
+
+    /**
+     * 是否因缓冲区已满而失败
+     */
+    private volatile boolean failed;
+
+    /**
+     * 推送时抛出的异常，例如操作符、合并键或窗口统计函数抛出的异常，订阅者因此被关闭
+     */
+    private volatile Throwable error;
+
+    /**
+     * 失败后执行的回调，用于从Observable移除该订阅者
+     */
+    private volatile Runnable failureHandler;
+
+    /**
+     * 缓冲区读出数据项后执行的回调，BLOCK_PRODUCER策略下用于唤醒因缓冲区已满而暂停的读取游标
+     */
+    private final List<Runnable> spaceListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 是否处于降级模式，降级期间新数据项不进入缓冲区，缓冲区读空后恢复
+     */
+    private volatile boolean degraded;
     
     /**
      * 标记订阅者是否已关闭
@@ -32,7 +91,60 @@ public class Subscriber<T> {
     /**
      * 订阅对象，用于与Observable交互
      */
-    private final Subscription<T> subscription = new Subscription<>(buffer);
+    private final Subscription<T> subscription;
+
+    /**
+     * 已推送到缓冲区的最大序号
+     * 由推送线程更新，用于计算消费位置
+     */
+    private volatile long deliveredSequence = Sequence.INITIAL_VALUE;
+
+    /**
+     * 起始序号，推送线程跳过该序号之前的数据
+     * 回放订阅从该序号开始接收，普通订阅不限制
+     */
+    private long startSequence = 0;
+
+    /**
+     * 构造函数，使用无界的先进先出缓冲区
+     */
+    public Subscriber() {
+        this(new LinkedBlockingQueue<>());
+    }
+
+    /**
+     * 构造函数，使用有界的先进先出缓冲区
+     *
+     * @param capacity       缓冲区容量，小于等于0表示不限制
+     * @param overflowPolicy 缓冲区已满时的处理策略
+     */
+    public Subscriber(int capacity, OverflowPolicy overflowPolicy) {
+        this(capacity > 0 ? new LinkedBlockingQueue<>(capacity) : new LinkedBlockingQueue<>(),
+                Math.max(0, capacity), overflowPolicy);
+    }
+
+    /**
+     * 构造函数，缓冲区容量由缓冲区自身决定
+     *
+     * @param buffer 数据缓冲区，例如按键合并的ConflatingQueue
+     */
+    Subscriber(BlockingQueue<T> buffer) {
+        this(buffer, 0, OverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param buffer         数据缓冲区
+     * @param capacity       缓冲区容量，0表示不限制
+     * @param overflowPolicy 缓冲区已满时的处理策略
+     */
+    private Subscriber(BlockingQueue<T> buffer, int capacity, OverflowPolicy overflowPolicy) {
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.subscription = new Subscription<>(buffer, this);
+    }
 
     /**
      * 接收数据项
@@ -42,14 +154,276 @@ public class Subscriber<T> {
     public void emit(T item) {
         // 只有在未关闭状态下才接收数据
         if (!closed.get()) {
-            // 将数据放入缓冲区
-            buffer.offer(item);
+            if (degraded && !recover()) {
+                degradedDroppedCount.incrementAndGet();
+                gapCount++;
+                return;
+            }
+            // 将数据放入缓冲区，缓冲区已满时按溢出策略处理
+            if (!buffer.offer(item)) {
+                overflow(item);
+            }
             logger.debug("接收到数据项: {}", item);
         } else {
             logger.warn("尝试向已关闭的订阅者发送数据项: {}", item);
         }
     }
 
+    /**
+     * 批量接收数据项
+     * 推送线程会复用传入的列表，因此数据项在返回前复制到缓冲区
+     *
+     * @param items 按序号排列的数据项
+     */
+    public void emitBatch(List<T> items) {
+        if (!closed.get()) {
+            if (degraded && !recover()) {
+                degradedDroppedCount.addAndGet(items.size());
+                gapCount += items.size();
+                return;
+            }
+            if (capacity == 0) {
+                buffer.addAll(items);
+            } else {
+                for (int i = 0, size = items.size(); i < size && !closed.get(); i++) {
+                    T item = items.get(i);
+                    if (!buffer.offer(item)) {
+                        overflow(item);
+                    }
+                }
+            }
+            logger.debug("批量接收到数据项: {} 个", items.size());
+        } else {
+            logger.warn("尝试向已关闭的订阅者发送 {} 个数据项", items.size());
+        }
+    }
+
+    /**
+     * 缓冲区已满时按溢出策略处理数据项
+     *
+     * @param item 放不进缓冲区的数据项
+     */
+    private void overflow(T item) {
+        switch (overflowPolicy) {
+            case BLOCK_PRODUCER -> {
+                // 只有调用方直接向订阅者发送数据时才会在这里等待；Observable通过BlockingCursor不等待地拉取，
+                // 缓冲区已满时数据项留在事件日志中，由游标的门控序号让生产者等待，不会阻塞推送线程
+                try {
+                    while (!closed.get()) {
+                        if (buffer.offer(item, 10, TimeUnit.MILLISECONDS)) {
+                            return;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                overflowDroppedCount.incrementAndGet();
+                gapCount++;
+            }
+            case DROP_OLDEST -> {
+                do {
+                    if (buffer.poll() != null) {
+                        overflowDroppedCount.incrementAndGet();
+                    }
+                } while (!buffer.offer(item));
+            }
+            case DROP_NEWEST -> {
+                overflowDroppedCount.incrementAndGet();
+                gapCount++;
+            }
+            case FAIL_SUBSCRIBER -> {
+                overflowDroppedCount.addAndGet(1 + buffer.size());
+                gapCount++;
+                failed = true;
+                logger.warn("订阅者缓冲区已满（容量: {}），关闭订阅者", capacity);
+                close();
+                Runnable handler = failureHandler;
+                if (handler != null) {
+                    handler.run();
+                }
+            }
+        }
+    }
+
+    /**
+     * 不等待地接收一个数据项，供BLOCK_PRODUCER策略的读取游标使用
+     *
+     * @param item 数据项
+     * @return 已放入缓冲区或无需放入（已关闭、降级期间丢弃）时返回true；缓冲区已满时返回false，数据项留在事件日志中
+     */
+    boolean tryEmit(T item) {
+        if (closed.get()) {
+            return true;
+        }
+        if (gapCount > 0 && buffer.isEmpty()) {
+            gapCount = 0;
+        }
+        if (degraded && !recover()) {
+            degradedDroppedCount.incrementAndGet();
+            gapCount++;
+            return true;
+        }
+        return buffer.offer(item);
+    }
+
+    /**
+     * 缓冲区是否还能放入数据项
+     *
+     * @return 有剩余容量或已关闭时返回true
+     */
+    boolean hasSpace() {
+        return closed.get() || buffer.remainingCapacity() > 0;
+    }
+
+    /**
+     * 获取最终接收本订阅者数据项的有界阻塞缓冲区的所有者
+     * Observable为返回非null的订阅者使用读取游标拉取，而不是在推送线程上等待缓冲区空出位置
+     *
+     * @return 溢出策略为BLOCK_PRODUCER且容量有限时返回自身，否则返回null
+     */
+    Subscriber<?> blockingBuffer() {
+        return overflowPolicy == OverflowPolicy.BLOCK_PRODUCER && capacity > 0 ? this : null;
+    }
+
+    /**
+     * 添加缓冲区读出数据项后执行的回调
+     *
+     * @param listener 回调，不能阻塞
+     */
+    void addSpaceListener(Runnable listener) {
+        spaceListeners.add(listener);
+    }
+
+    /**
+     * 移除缓冲区读出数据项后执行的回调
+     *
+     * @param listener 回调
+     */
+    void removeSpaceListener(Runnable listener) {
+        spaceListeners.remove(listener);
+    }
+
+    /**
+     * 缓冲区读出数据项后调用，通知等待空间的读取游标
+     */
+    void onTaken() {
+        for (Runnable listener : spaceListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * 进入降级模式
+     */
+    void degrade() {
+        if (!degraded) {
+            degraded = true;
+            logger.warn("订阅者落后过多，进入降级模式，未读取数据项: {}", buffer.size());
+        }
+    }
+
+    /**
+     * 降级模式下缓冲区已读空时恢复正常
+     *
+     * @return 已恢复返回true
+     */
+    private boolean recover() {
+        if (!buffer.isEmpty()) {
+            return false;
+        }
+        degraded = false;
+        logger.info("订阅者已读空缓冲区，退出降级模式");
+        return true;
+    }
+
+    /**
+     * 是否处于降级模式
+     *
+     * @return 降级模式返回true
+     */
+    boolean isDegraded() {
+        return degraded;
+    }
+
+    /**
+     * 获取缓冲区中未读取的数据项数量
+     *
+     * @return 数据项数量
+     */
+    int getPendingCount() {
+        return buffer.size();
+    }
+
+    /**
+     * 估算缓冲区中未读取数据项的字节数，需要遍历缓冲区
+     *
+     * @param sizeEstimator 数据项大小估算函数
+     * @return 估算的字节数
+     */
+    long estimatePendingBytes(ToLongFunction<Object> sizeEstimator) {
+        long bytes = 0;
+        for (T item : buffer) {
+            bytes += sizeEstimator.applyAsLong(item);
+        }
+        return bytes;
+    }
+
+    /**
+     * 接收推送线程的一个批次
+     * 回放订阅跳过起始序号之前的数据，然后记录已推送的最大序号
+     * 缓冲区为空时之前的空洞都已被读过，空洞计数从零开始
+     *
+     * @param items         批次中的数据项，按序号排列
+     * @param firstSequence 批次中第一个数据项的序号
+     * @param lastSequence  批次中最后一个数据项的序号
+     */
+    void deliver(List<T> items, long firstSequence, long lastSequence) {
+        int offset = (int) Math.min(items.size(), Math.max(0, startSequence - firstSequence));
+        if (gapCount > 0 && buffer.isEmpty()) {
+            gapCount = 0;
+        }
+        if (offset < items.size()) {
+            try {
+                emitBatch(offset == 0 ? items : items.subList(offset, items.size()));
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }
+        deliveredSequence = lastSequence;
+    }
+
+    /**
+     * 接收单个数据项，推送时抛出的异常只关闭该订阅者
+     *
+     * @param item 数据项
+     */
+    void deliver(T item) {
+        try {
+            emit(item);
+        } catch (RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 推送时抛出异常，关闭该订阅者并执行失败回调，推送线程随后从Observable中移除已关闭的订阅者
+     * 异常不会传播到推送任务，其他订阅者照常接收
+     *
+     * @param e 异常
+     */
+    void fail(Throwable e) {
+        if (isClosed()) {
+            return;
+        }
+        recordError(e);
+        logger.error("订阅者处理数据项时抛出异常，关闭订阅者: {}", e.getMessage(), e);
+        close();
+        Runnable handler = failureHandler;
+        if (handler != null) {
+            handler.run();
+        }
+    }
+
     /**
      * 关闭订阅者
      * 清理资源并标记为已关闭
@@ -63,6 +437,151 @@ public class Subscriber<T> {
         }
     }
 
+    /**
+     * 是否已关闭
+     *
+     * @return 已关闭返回true
+     */
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * 获取丢弃的数据项总数，即缓冲区已满与降级期间丢弃的数量之和
+     *
+     * @return 丢弃数量
+     */
+    public long getDroppedCount() {
+        return overflowDroppedCount.get() + degradedDroppedCount.get();
+    }
+
+    /**
+     * 获取因缓冲区已满而丢弃的数据项数量
+     *
+     * @return 丢弃数量
+     */
+    public long getOverflowDroppedCount() {
+        return overflowDroppedCount.get();
+    }
+
+    /**
+     * 获取因落后过多进入降级模式期间丢弃的数据项数量
+     *
+     * @return 丢弃数量
+     */
+    public long getDegradedDroppedCount() {
+        return degradedDroppedCount.get();
+    }
+
+    /**
+     * 是否因缓冲区已满而失败
+     *
+     * @return 溢出策略为FAIL_SUBSCRIBER且缓冲区溢出过时返回true
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * 记录推送时抛出的异常
+     *
+     * @param e 异常
+     */
+    void recordError(Throwable e) {
+        error = e;
+    }
+
+    /**
+     * 获取推送时抛出的异常
+     *
+     * @return 异常，订阅者没有因异常关闭时返回null
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * 获取缓冲区容量
+     *
+     * @return 容量，0表示不限制
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 获取溢出策略
+     *
+     * @return 溢出策略
+     */
+    OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * 设置失败后执行的回调，必须在订阅者注册到Observable之前调用
+     *
+     * @param failureHandler 回调
+     */
+    void setFailureHandler(Runnable failureHandler) {
+        this.failureHandler = failureHandler;
+    }
+
+    /**
+     * 获取已推送到缓冲区的最大序号
+     *
+     * @return 序号
+     */
+    long getDeliveredSequence() {
+        return deliveredSequence;
+    }
+
+    /**
+     * 设置已推送到缓冲区的最大序号
+     *
+     * @param deliveredSequence 序号
+     */
+    void setDeliveredSequence(long deliveredSequence) {
+        this.deliveredSequence = deliveredSequence;
+    }
+
+    /**
+     * 获取缓冲区上次为空之后没有放入缓冲区的新数据项数量
+     *
+     * @return 数据项数量
+     */
+    long getGapCount() {
+        return gapCount;
+    }
+
+    /**
+     * 获取起始序号
+     *
+     * @return 起始序号
+     */
+    long getStartSequence() {
+        return startSequence;
+    }
+
+    /**
+     * 设置起始序号，必须在订阅者注册到Observable之前调用
+     *
+     * @param startSequence 起始序号
+     */
+    void setStartSequence(long startSequence) {
+        this.startSequence = startSequence;
+    }
+
+    /**
+     * 获取交给调用方的订阅对象，用于取消订阅时查找订阅者
+     * 带操作符的订阅者返回其输出端的订阅对象
+     *
+     * @return 订阅对象
+     */
+    Subscription<?> getHandle() {
+        return subscription;
+    }
+
     /**
      * 获取订阅对象
      * 
@@ -0,0 +1,82 @@
+package com.ling.observable.observable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 队列模式订阅者的注册表
+ * 订阅和取消订阅远少于推送，因此成员变化时在锁内重建一个数组快照并发布，
+ * 推送线程只遍历数组快照，不分配迭代器，也不需要遍历哈希桶
+ *
+ * @param <T> 数据类型
+ * @author Ling
+ */
+class SubscriberRegistry<T> {
+
+    /**
+     * 空快照
+     */
+    private static final Subscriber<?>[] EMPTY = new Subscriber<?>[0];
+
+    /**
+     * 交给调用方的订阅对象到订阅者的映射，只在锁内访问
+     */
+    private final Map<Subscription<?>, Subscriber<T>> subscribers = new HashMap<>();
+
+    /**
+     * 订阅者数组快照，每次成员变化后整体替换，发布后不再修改
+     */
+    @SuppressWarnings("unchecked")
+    private volatile Subscriber<T>[] snapshot = (Subscriber<T>[]) EMPTY;
+
+    /**
+     * 添加订阅者
+     *
+     * @param subscriber 订阅者
+     */
+    synchronized void add(Subscriber<T> subscriber) {
+        subscribers.put(subscriber.getHandle(), subscriber);
+        republish();
+    }
+
+    /**
+     * 移除订阅者
+     *
+     * @param subscription 订阅对象
+     * @return 被移除的订阅者，不存在时返回null
+     */
+    synchronized Subscriber<T> remove(Subscription<?> subscription) {
+        Subscriber<T> subscriber = subscribers.remove(subscription);
+        if (subscriber != null) {
+            republish();
+        }
+        return subscriber;
+    }
+
+    /**
+     * 获取订阅者数组快照
+     * 调用方只能读取，不能修改返回的数组
+     *
+     * @return 订阅者数组
+     */
+    Subscriber<T>[] snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 获取订阅者数量
+     *
+     * @return 订阅者数量
+     */
+    int size() {
+        return snapshot.length;
+    }
+
+    /**
+     * 重建并发布数组快照，必须持有锁调用
+     */
+    @SuppressWarnings("unchecked")
+    private void republish() {
+        snapshot = subscribers.values().toArray((Subscriber<T>[]) EMPTY);
+    }
+}
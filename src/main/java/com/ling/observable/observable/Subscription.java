@@ -8,6 +8,7 @@ import java.util.concurrent.BlockingQueue;
 /**
  * 订阅对象类
  * 提供订阅者接收数据的接口
+ * 默认从订阅者的缓冲队列读取数据，子类可以改为其他数据来源，例如直接读取Observable的事件日志
  *
  * @param <T> 数据类型
  */
@@ -21,16 +22,40 @@ public class Subscription<T> {
      */
     private final BlockingQueue<T> queue;
 
+    /**
+     * 向缓冲队列写入数据的订阅者，用于计算消费位置，可以为null
+     */
+    private final Subscriber<T> subscriber;
+
     /**
      * 构造函数
      *
      * @param queue 缓冲队列
      */
     public Subscription(BlockingQueue<T> queue) {
+        this(queue, null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param queue      缓冲队列
+     * @param subscriber 向缓冲队列写入数据的订阅者
+     */
+    Subscription(BlockingQueue<T> queue, Subscriber<T> subscriber) {
         this.queue = queue;
+        this.subscriber = subscriber;
         logger.debug("创建新的Subscription实例");
     }
 
+    /**
+     * 构造函数，供不使用缓冲队列的子类调用
+     */
+    protected Subscription() {
+        this.queue = null;
+        this.subscriber = null;
+    }
+
     /**
      * 获取数据项（阻塞方法）
      * 如果队列为空，该方法会阻塞直到有数据可用
@@ -40,6 +65,9 @@ public class Subscription<T> {
      */
     public T take() throws InterruptedException {
         T item = queue.take();
+        if (subscriber != null) {
+            subscriber.onTaken();
+        }
         logger.debug("从队列中取出数据项: {}", item);
         return item;
     }
@@ -54,4 +82,75 @@ public class Subscription<T> {
         logger.debug("检查队列是否为空: {}", empty);
         return empty;
     }
+
+    /**
+     * 检查订阅是否已关闭
+     *
+     * @return 订阅已被取消或Observable已关闭时返回true
+     */
+    public boolean isClosed() {
+        return subscriber != null && subscriber.isClosed();
+    }
+
+    /**
+     * 获取丢弃的数据项总数，即缓冲区已满与降级期间丢弃的数量之和
+     *
+     * @return 丢弃数量
+     */
+    public long getDroppedCount() {
+        return subscriber != null ? subscriber.getDroppedCount() : 0;
+    }
+
+    /**
+     * 获取因缓冲区已满而丢弃的数据项数量
+     *
+     * @return 丢弃数量，缓冲区不限容量时始终为0
+     */
+    public long getOverflowDroppedCount() {
+        return subscriber != null ? subscriber.getOverflowDroppedCount() : 0;
+    }
+
+    /**
+     * 获取因落后过多进入降级模式期间丢弃的数据项数量
+     *
+     * @return 丢弃数量，未启用慢订阅者降级时始终为0
+     */
+    public long getDegradedDroppedCount() {
+        return subscriber != null ? subscriber.getDegradedDroppedCount() : 0;
+    }
+
+    /**
+     * 是否因缓冲区已满而失败，失败的订阅已关闭
+     *
+     * @return 溢出策略为FAIL_SUBSCRIBER且缓冲区溢出过时返回true
+     */
+    public boolean isFailed() {
+        return subscriber != null && subscriber.isFailed();
+    }
+
+    /**
+     * 获取推送时抛出的异常，例如操作符、合并键或窗口统计函数抛出的异常
+     * 抛出异常的订阅已关闭并从Observable中移除，其他订阅不受影响
+     *
+     * @return 异常，订阅没有因异常关闭时返回null
+     */
+    public Throwable getError() {
+        return subscriber != null ? subscriber.getError() : null;
+    }
+
+    /**
+     * 获取消费位置的下界，没有丢弃数据项时即最近一次take()取出的数据项的序号
+     * DROP_NEWEST和降级丢弃的数据项在缓冲区中留下空洞，推送进度减去队列长度会偏大，因此再减去缓冲区上次为空之后的空洞数量；
+     * 先读取推送进度再读取队列长度和空洞数量，并发推送时结果只会偏小，
+     * 断线重连时从该位置加1开始回放不会丢失数据，有空洞时可能重复接收少量数据项
+     *
+     * @return 消费位置，无法确定时返回-1
+     */
+    public long getPosition() {
+        if (subscriber == null) {
+            return Sequence.INITIAL_VALUE;
+        }
+        long delivered = subscriber.getDeliveredSequence();
+        return delivered - queue.size() - subscriber.getGapCount();
+    }
 }
\ No newline at end of file
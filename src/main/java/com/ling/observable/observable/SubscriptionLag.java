@@ -0,0 +1,13 @@
+package com.ling.observable.observable;
+
+/**
+ * 订阅者的落后程度
+ *
+ * @param items           未读取的数据项数量：队列模式为缓冲区中的数量，游标订阅为读取进度到最新发布序号之间的数量
+ * @param bytes           未读取数据项的估算字节数，未统计时为-1
+ * @param oldestAgeMillis 最早一个未读取数据项发布至今的毫秒数，没有未读取数据项时为0
+ * @param degraded        是否处于降级模式
+ * @author Ling
+ */
+public record SubscriptionLag(long items, long bytes, long oldestAgeMillis, boolean degraded) {
+}
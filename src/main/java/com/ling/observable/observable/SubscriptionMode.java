@@ -0,0 +1,26 @@
+package com.ling.observable.observable;
+
+/**
+ * 订阅模式
+ *
+ * @author Ling
+ */
+public enum SubscriptionMode {
+
+    /**
+     * 队列模式：推送线程把每个数据项复制到订阅者自己的缓冲队列
+     */
+    QUEUE,
+
+    /**
+     * 游标模式：订阅者持有自己的读取序号，直接从Observable共享的事件日志读取
+     * 推送时不需要为该订阅者复制数据，未读取的数据会阻止生产者覆盖对应槽位
+     */
+    CURSOR,
+
+    /**
+     * 合并模式：在队列模式的基础上按键合并，缓冲区中每个键只保留最新的一个数据项
+     * 读取慢的订阅者跳过过时的中间值，占用的内存只与不同键的数量有关，需要通过Observable.subscribeConflating()指定键
+     */
+    CONFLATING
+}
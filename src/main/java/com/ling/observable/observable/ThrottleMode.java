@@ -0,0 +1,25 @@
+package com.ling.observable.observable;
+
+/**
+ * 限流方式
+ * 在推送线程上丢弃多余的数据项，被丢弃的数据项不会进入订阅者的缓冲区
+ *
+ * @author Ling
+ */
+public enum ThrottleMode {
+
+    /**
+     * 每个间隔内只推送第一个数据项，其余丢弃
+     */
+    THROTTLE_FIRST,
+
+    /**
+     * 每个间隔结束时推送该间隔内的最后一个数据项，即按固定间隔采样；间隔内没有数据项时不推送
+     */
+    THROTTLE_LAST,
+
+    /**
+     * 数据项之后经过一个间隔没有新的数据项才推送，连续到达的数据项只推送最后一个
+     */
+    DEBOUNCE
+}
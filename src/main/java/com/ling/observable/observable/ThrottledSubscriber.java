@@ -0,0 +1,166 @@
+package com.ling.observable.observable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * 限流订阅者
+ * 在推送线程上按限流方式丢弃多余的数据项，只有需要推送的数据项才进入缓冲区，
+ * 读取慢的客户端（例如每秒只能渲染几次的页面）不会积压、序列化或传输被丢弃的数据项
+ * 需要延迟推送的数据项由调度器共享的定时线程推送，每个订阅者最多只有一个待执行的定时任务
+ * 推送线程与定时线程通过对象锁互斥
+ *
+ * @param <T> 数据类型
+ * @author Ling
+ */
+class ThrottledSubscriber<T> extends Subscriber<T> {
+
+    /**
+     * 限流方式
+     */
+    private final ThrottleMode mode;
+
+    /**
+     * 限流间隔（纳秒）
+     */
+    private final long intervalNanos;
+
+    /**
+     * 提供定时线程的调度器
+     */
+    private final Dispatcher dispatcher;
+
+    /**
+     * 等待推送的最新数据项，null表示没有
+     */
+    private T latest;
+
+    /**
+     * THROTTLE_FIRST下一次允许推送的时间，DEBOUNCE最近一个数据项到达的时间
+     */
+    private long markNanos;
+
+    /**
+     * 待执行的定时任务
+     */
+    private ScheduledFuture<?> timer;
+
+    /**
+     * 构造函数
+     *
+     * @param mode       限流方式
+     * @param interval   限流间隔
+     * @param dispatcher 提供定时线程的调度器
+     */
+    ThrottledSubscriber(ThrottleMode mode, Duration interval, Dispatcher dispatcher) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Throttle interval must be positive");
+        }
+        this.mode = mode;
+        this.intervalNanos = interval.toNanos();
+        this.dispatcher = dispatcher;
+        this.markNanos = System.nanoTime();
+    }
+
+    /**
+     * 启动按固定间隔采样的定时任务
+     */
+    synchronized void start() {
+        if (mode == ThrottleMode.THROTTLE_LAST && !isClosed()) {
+            timer = dispatcher.scheduleAtFixedRate(this::flush, Duration.ofNanos(intervalNanos));
+        }
+    }
+
+    @Override
+    public void emit(T item) {
+        synchronized (this) {
+            accept(item, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void emitBatch(List<T> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (mode == ThrottleMode.THROTTLE_FIRST) {
+                accept(items.get(0), now);
+            } else {
+                // 同一批次的数据项同时到达，只有最后一个可能被推送
+                accept(items.get(items.size() - 1), now);
+            }
+        }
+    }
+
+    /**
+     * 按限流方式处理数据项，必须持有对象锁调用
+     *
+     * @param item 数据项
+     * @param now  当前时间（纳秒）
+     */
+    private void accept(T item, long now) {
+        if (isClosed()) {
+            return;
+        }
+        switch (mode) {
+            case THROTTLE_FIRST -> {
+                if (now - markNanos >= 0) {
+                    markNanos = now + intervalNanos;
+                    super.emit(item);
+                }
+            }
+            case THROTTLE_LAST -> latest = item;
+            case DEBOUNCE -> {
+                latest = item;
+                markNanos = now;
+                // 已有定时任务时不重新调度，任务到期后按最近一个数据项的到达时间决定推送还是顺延
+                if (timer == null) {
+                    timer = dispatcher.schedule(this::settle, intervalNanos);
+                }
+            }
+        }
+    }
+
+    /**
+     * THROTTLE_LAST的定时任务，推送间隔内的最后一个数据项
+     */
+    private synchronized void flush() {
+        if (latest != null && !isClosed()) {
+            super.emit(latest);
+            latest = null;
+        }
+    }
+
+    /**
+     * DEBOUNCE的定时任务，距最近一个数据项已满一个间隔时推送，否则顺延到满一个间隔时再检查
+     */
+    private synchronized void settle() {
+        timer = null;
+        if (latest == null || isClosed()) {
+            return;
+        }
+        long remaining = markNanos + intervalNanos - System.nanoTime();
+        if (remaining > 0) {
+            timer = dispatcher.schedule(this::settle, remaining);
+            return;
+        }
+        super.emit(latest);
+        latest = null;
+    }
+
+    @Override
+    public void close() {
+        // 先标记关闭，之后不会再创建定时任务
+        super.close();
+        synchronized (this) {
+            if (timer != null) {
+                timer.cancel(false);
+                timer = null;
+            }
+            latest = null;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.ling.observable.observable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 哈希时间轮定时器
+ * 环形数组的每个槽位是一个定时任务链表，指针每个刻度前进一格，只检查当前槽位的任务，
+ * 到期时间超过一圈的任务记录剩余圈数，指针每经过一次减一
+ * 添加任务只是放入无锁队列，由时间轮线程在下一个刻度挂到对应槽位；取消只是标记，到期时丢弃，
+ * 因此添加、取消和到期的开销都是常数，适合同时持有大量定时任务；精度为一个刻度
+ * 到期的任务在时间轮线程上依次执行，任务应当很快完成，否则会推迟之后到期的任务
+ *
+ * @author Ling
+ */
+public final class TimingWheel {
+
+    private static final Logger logger = LogManager.getLogger(TimingWheel.class);
+
+    /**
+     * 默认刻度
+     */
+    public static final Duration DEFAULT_TICK = Duration.ofMillis(10);
+
+    /**
+     * 默认槽位数量
+     */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    /**
+     * 每个刻度最多从添加队列挂到槽位的任务数量，避免大量添加时推迟到期任务的执行
+     */
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    /**
+     * 刻度（纳秒）
+     */
+    private final long tickNanos;
+
+    /**
+     * 槽位，每个槽位是一个单向链表
+     */
+    private final Timeout[] wheel;
+
+    /**
+     * 槽位下标掩码，槽位数量是2的幂
+     */
+    private final int mask;
+
+    /**
+     * 新添加的任务，由时间轮线程挂到槽位
+     */
+    private final Queue<Timeout> additions = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 尚未到期且未取消的任务数量
+     */
+    private final AtomicLong pendingCount = new AtomicLong();
+
+    /**
+     * 时间轮的起始时间，任务的到期时间以此为基准
+     */
+    private final long startNanos;
+
+    /**
+     * 时间轮线程
+     */
+    private final Thread worker;
+
+    /**
+     * 是否已停止
+     */
+    private volatile boolean stopped;
+
+    /**
+     * 构造函数，使用默认刻度和槽位数量
+     *
+     * @param name 时间轮线程名称
+     */
+    public TimingWheel(String name) {
+        this(name, DEFAULT_TICK, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param name      时间轮线程名称
+     * @param tick      刻度，即定时精度
+     * @param wheelSize 槽位数量，向上取整为2的幂
+     */
+    public TimingWheel(String name, Duration tick, int wheelSize) {
+        if (tick.isNegative() || tick.isZero() || wheelSize < 1) {
+            throw new IllegalArgumentException("Timing wheel tick and size must be positive");
+        }
+        this.tickNanos = tick.toNanos();
+        this.wheel = new Timeout[RingBuffer.ceilingPowerOfTwo(wheelSize)];
+        this.mask = wheel.length - 1;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+        logger.info("时间轮已启动，名称: {}，刻度: {}，槽位数量: {}", name, tick, wheel.length);
+    }
+
+    /**
+     * 在指定延迟后执行任务
+     *
+     * @param task  任务
+     * @param delay 延迟，小于等于0时在下一个刻度执行
+     * @return 定时任务，可用于取消
+     */
+    public Timeout schedule(Runnable task, Duration delay) {
+        if (stopped) {
+            throw new IllegalStateException("Timing wheel is stopped");
+        }
+        long delayNanos = Math.max(0, delay.toNanos());
+        Timeout timeout = new Timeout(task, System.nanoTime() - startNanos + delayNanos);
+        pendingCount.incrementAndGet();
+        additions.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * 在指定时间执行任务
+     *
+     * @param task    任务
+     * @param instant 执行时间，已过去时在下一个刻度执行
+     * @return 定时任务，可用于取消
+     */
+    public Timeout scheduleAt(Runnable task, Instant instant) {
+        return schedule(task, Duration.between(Instant.now(), instant));
+    }
+
+    /**
+     * 获取尚未到期且未取消的任务数量
+     *
+     * @return 任务数量
+     */
+    public long getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * 停止时间轮，尚未到期的任务不再执行
+     */
+    public void stop() {
+        stopped = true;
+        LockSupport.unpark(worker);
+        logger.info("时间轮已停止，未执行的定时任务数量: {}", pendingCount.get());
+    }
+
+    /**
+     * 时间轮线程，每个刻度挂入新添加的任务并执行当前槽位中到期的任务
+     */
+    private void run() {
+        long tick = 0;
+        while (!stopped) {
+            long deadline = tickNanos * (tick + 1);
+            long sleepNanos;
+            while (!stopped && (sleepNanos = deadline - (System.nanoTime() - startNanos)) > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+            }
+            if (stopped) {
+                break;
+            }
+            transferAdditions(tick);
+            expire((int) (tick & mask), deadline);
+            tick++;
+        }
+    }
+
+    /**
+     * 把新添加的任务挂到到期时间对应的槽位
+     * 到期时间已过的任务挂到当前槽位，在本刻度执行
+     *
+     * @param tick 当前刻度
+     */
+    private void transferAdditions(long tick) {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = additions.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() == Timeout.CANCELLED) {
+                continue;
+            }
+            long expireTick = Math.max(timeout.deadlineNanos / tickNanos, tick);
+            timeout.remainingRounds = (expireTick - tick) / wheel.length;
+            int index = (int) (expireTick & mask);
+            timeout.next = wheel[index];
+            wheel[index] = timeout;
+        }
+    }
+
+    /**
+     * 检查槽位中的任务：丢弃已取消的，执行到期的，其余剩余圈数减一
+     *
+     * @param index    槽位下标
+     * @param deadline 当前刻度的结束时间
+     */
+    private void expire(int index, long deadline) {
+        Timeout previous = null;
+        Timeout timeout = wheel[index];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            boolean remove = timeout.state.get() == Timeout.CANCELLED;
+            if (!remove && timeout.remainingRounds <= 0 && timeout.deadlineNanos <= deadline) {
+                remove = true;
+                if (timeout.state.compareAndSet(Timeout.PENDING, Timeout.EXPIRED)) {
+                    pendingCount.decrementAndGet();
+                    try {
+                        timeout.task.run();
+                    } catch (Throwable e) {
+                        logger.error("定时任务执行异常: {}", e.getMessage(), e);
+                    }
+                }
+            } else if (!remove) {
+                timeout.remainingRounds--;
+            }
+            if (remove) {
+                timeout.next = null;
+                if (previous == null) {
+                    wheel[index] = next;
+                } else {
+                    previous.next = next;
+                }
+            } else {
+                previous = timeout;
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * 定时任务
+     */
+    public final class Timeout {
+
+        private static final int PENDING = 0;
+
+        private static final int EXPIRED = 1;
+
+        private static final int CANCELLED = 2;
+
+        /**
+         * 要执行的任务
+         */
+        private final Runnable task;
+
+        /**
+         * 到期时间，相对于时间轮起始时间的纳秒数
+         */
+        private final long deadlineNanos;
+
+        /**
+         * 状态，到期与取消通过CAS互斥
+         */
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        /**
+         * 剩余圈数，只由时间轮线程访问
+         */
+        private long remainingRounds;
+
+        /**
+         * 同一槽位中的下一个任务，只由时间轮线程访问
+         */
+        private Timeout next;
+
+        /**
+         * 构造函数
+         *
+         * @param task          要执行的任务
+         * @param deadlineNanos 到期时间
+         */
+        private Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * 取消任务，由时间轮线程在经过所在槽位时移除
+         *
+         * @return 取消成功返回true，已到期或已取消时返回false
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(PENDING, CANCELLED)) {
+                pendingCount.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 是否已执行
+         *
+         * @return 已到期执行返回true
+         */
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        /**
+         * 是否已取消
+         *
+         * @return 已取消返回true
+         */
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+    }
+}
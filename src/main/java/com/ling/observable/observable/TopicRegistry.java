@@ -0,0 +1,237 @@
+package com.ling.observable.observable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 层级主题注册表
+ * 为Observable分配层级主题名，例如 orders/eu/de，并支持通配符订阅：
+ * "*"匹配恰好一级，例如 orders/*&#47;de；"#"匹配零到多级且只能出现在最后，例如 orders/#
+ * 通配符订阅为每个匹配的Observable注册一个转发订阅者，合并到同一个缓冲区接收它们的数据，
+ * 某个Observable关闭、移除或注销转发订阅者时不影响其他主题的数据；
+ * 之后注册的主题如果匹配已有的通配符订阅，会自动加入这些订阅
+ * 主题和订阅模式分别存放在两棵主题前缀树中，新主题只需沿前缀树查找匹配的模式，新订阅只需沿前缀树查找匹配的主题
+ * 注册与订阅是低频操作，统一在注册表锁内完成，不影响数据推送
+ * 合并缓冲区的容量和溢出策略使用创建参数中的设置，与直接订阅Observable时相同
+ *
+ * @param <T> 数据类型
+ * @author Ling
+ */
+public class TopicRegistry<T> {
+
+    private static final Logger logger = LogManager.getLogger(TopicRegistry.class);
+
+    /**
+     * 主题到Observable的映射
+     */
+    private final Map<String, Observable<T>> observables = new HashMap<>();
+
+    /**
+     * 存放具体主题的前缀树
+     */
+    private final TopicTrie<Observable<T>> topics = new TopicTrie<>();
+
+    /**
+     * 存放订阅模式的前缀树
+     */
+    private final TopicTrie<TopicSubscription<T>> patterns = new TopicTrie<>();
+
+    /**
+     * 交给调用方的订阅对象到通配符订阅的映射
+     */
+    private final Map<Subscription<T>, TopicSubscription<T>> subscriptions = new HashMap<>();
+
+    /**
+     * 通配符订阅合并缓冲区的容量，0表示不限制
+     */
+    private final int subscriberCapacity;
+
+    /**
+     * 通配符订阅合并缓冲区已满时的处理策略
+     */
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * 构造函数，使用默认创建参数
+     */
+    public TopicRegistry() {
+        this(new ObservableOptions());
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param options 创建参数，只使用其中的订阅者缓冲区容量和溢出策略
+     */
+    public TopicRegistry(ObservableOptions options) {
+        this.subscriberCapacity = Math.max(0, options.getSubscriberCapacity());
+        this.overflowPolicy = options.getOverflowPolicy();
+    }
+
+    /**
+     * 注册主题，并加入所有匹配该主题的通配符订阅
+     *
+     * @param topic      主题，不能包含通配符
+     * @param observable 主题对应的Observable
+     */
+    public synchronized void register(String topic, Observable<T> observable) {
+        TopicTrie.validateTopic(topic);
+        if (observables.putIfAbsent(topic, observable) != null) {
+            throw new IllegalArgumentException("Topic already exists: " + topic);
+        }
+        topics.put(topic, observable);
+        patterns.findPatterns(topic, subscription -> subscription.attach(observable));
+        logger.debug("注册主题: {}", topic);
+    }
+
+    /**
+     * 注销主题，已加入的通配符订阅不再接收该主题的数据
+     *
+     * @param topic 主题
+     * @return 主题对应的Observable，不存在时返回null
+     */
+    public synchronized Observable<T> unregister(String topic) {
+        Observable<T> observable = observables.remove(topic);
+        if (observable == null) {
+            return null;
+        }
+        topics.remove(topic, observable);
+        patterns.findPatterns(topic, subscription -> subscription.detach(observable));
+        logger.debug("注销主题: {}", topic);
+        return observable;
+    }
+
+    /**
+     * 获取主题对应的Observable
+     *
+     * @param topic 主题
+     * @return Observable，不存在时返回null
+     */
+    public synchronized Observable<T> getObservable(String topic) {
+        return observables.get(topic);
+    }
+
+    /**
+     * 查找与模式匹配的主题
+     *
+     * @param pattern 订阅模式，可以包含通配符
+     * @return 匹配的主题
+     */
+    public synchronized List<String> findTopics(String pattern) {
+        TopicTrie.validatePattern(pattern);
+        List<String> result = new ArrayList<>();
+        topics.findTopics(pattern, (topic, observable) -> result.add(topic));
+        return result;
+    }
+
+    /**
+     * 按模式订阅，合并接收所有匹配主题的数据，包括之后注册的主题
+     * 各主题的数据分别保持顺序，不同主题之间不保证顺序；各主题的序号相互独立，getPosition()没有意义
+     * FAIL_SUBSCRIBER策略下合并缓冲区溢出时取消该订阅
+     *
+     * @param pattern 订阅模式，可以包含通配符
+     * @return Subscription对象
+     */
+    public synchronized Subscription<T> subscribe(String pattern) {
+        TopicTrie.validatePattern(pattern);
+        TopicSubscription<T> subscription = new TopicSubscription<>(pattern,
+                new Subscriber<>(subscriberCapacity, overflowPolicy));
+        if (overflowPolicy == OverflowPolicy.FAIL_SUBSCRIBER) {
+            Subscription<T> handle = subscription.subscriber.getSubscription();
+            subscription.subscriber.setFailureHandler(() -> unsubscribe(handle));
+        }
+        patterns.put(pattern, subscription);
+        subscriptions.put(subscription.subscriber.getSubscription(), subscription);
+        topics.findTopics(pattern, (topic, observable) -> subscription.attach(observable));
+        logger.debug("新增主题订阅，模式: {}，当前匹配主题数量: {}", pattern, subscription.attached.size());
+        return subscription.subscriber.getSubscription();
+    }
+
+    /**
+     * 取消订阅
+     *
+     * @param subscription 要取消的订阅对象
+     */
+    public synchronized void unsubscribe(Subscription<T> subscription) {
+        TopicSubscription<T> topicSubscription = subscriptions.remove(subscription);
+        if (topicSubscription == null) {
+            logger.warn("尝试取消不存在的主题订阅");
+            return;
+        }
+        patterns.remove(topicSubscription.pattern, topicSubscription);
+        for (Observable<T> observable : List.copyOf(topicSubscription.attached.keySet())) {
+            topicSubscription.detach(observable);
+        }
+        topicSubscription.subscriber.close();
+        logger.debug("取消主题订阅，模式: {}", topicSubscription.pattern);
+    }
+
+    /**
+     * 通配符订阅
+     * 只在注册表锁内访问
+     *
+     * @param <T> 数据类型
+     */
+    private static final class TopicSubscription<T> {
+
+        /**
+         * 订阅模式
+         */
+        private final String pattern;
+
+        /**
+         * 合并接收所有匹配Observable数据的订阅者，只在调用方取消订阅时关闭
+         */
+        private final Subscriber<T> subscriber;
+
+        /**
+         * 已注册的Observable及其转发订阅者
+         */
+        private final Map<Observable<T>, ForwardingSubscriber<T>> attached = new LinkedHashMap<>();
+
+        /**
+         * 构造函数
+         *
+         * @param pattern    订阅模式
+         * @param subscriber 合并接收数据的订阅者
+         */
+        private TopicSubscription(String pattern, Subscriber<T> subscriber) {
+            this.pattern = pattern;
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * 注册到Observable，已关闭的Observable跳过
+         *
+         * @param observable Observable
+         */
+        private void attach(Observable<T> observable) {
+            ForwardingSubscriber<T> forwarder = new ForwardingSubscriber<>(subscriber);
+            try {
+                observable.attach(forwarder);
+                attached.put(observable, forwarder);
+            } catch (Exception e) {
+                logger.warn("主题订阅无法加入已关闭的Observable，模式: {}", pattern);
+            }
+        }
+
+        /**
+         * 从Observable注销
+         *
+         * @param observable Observable
+         */
+        private void detach(Observable<T> observable) {
+            ForwardingSubscriber<T> forwarder = attached.remove(observable);
+            if (forwarder != null) {
+                observable.detach(forwarder.getHandle());
+                forwarder.close();
+            }
+        }
+    }
+}
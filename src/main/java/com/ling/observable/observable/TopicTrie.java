@@ -0,0 +1,240 @@
+package com.ling.observable.observable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 主题前缀树
+ * 主题按"/"分为多级，例如 orders/eu/de；订阅模式中"*"匹配恰好一级，"#"匹配零到多级且只能出现在最后
+ * 同一个类既可以存放具体主题（用模式查找匹配的主题），也可以存放订阅模式（用具体主题查找匹配的模式），
+ * 两种查找都只沿可能匹配的分支向下，不需要遍历全部主题或模式
+ * 非线程安全，由调用方加锁
+ *
+ * @param <V> 节点上存放的值类型
+ * @author Ling
+ */
+class TopicTrie<V> {
+
+    /**
+     * 单级通配符
+     */
+    static final String SINGLE_LEVEL = "*";
+
+    /**
+     * 多级通配符
+     */
+    static final String MULTI_LEVEL = "#";
+
+    /**
+     * 根节点
+     */
+    private final Node<V> root = new Node<>();
+
+    /**
+     * 添加值
+     *
+     * @param path  主题或模式
+     * @param value 值
+     */
+    void put(String path, V value) {
+        Node<V> node = root;
+        for (String level : split(path)) {
+            node = node.children.computeIfAbsent(level, key -> new Node<>());
+        }
+        node.values.add(value);
+    }
+
+    /**
+     * 移除值
+     *
+     * @param path  主题或模式
+     * @param value 值
+     * @return 存在并被移除返回true
+     */
+    boolean remove(String path, V value) {
+        Node<V> node = root;
+        List<Node<V>> trail = new ArrayList<>();
+        List<String> levels = split(path);
+        for (String level : levels) {
+            trail.add(node);
+            node = node.children.get(level);
+            if (node == null) {
+                return false;
+            }
+        }
+        boolean removed = node.values.remove(value);
+        // 清理不再使用的分支
+        for (int i = levels.size() - 1; i >= 0 && node.isEmpty(); i--) {
+            Node<V> parent = trail.get(i);
+            parent.children.remove(levels.get(i));
+            node = parent;
+        }
+        return removed;
+    }
+
+    /**
+     * 在存放具体主题的树中查找与模式匹配的主题
+     *
+     * @param pattern  订阅模式
+     * @param consumer 接收匹配的主题与值
+     */
+    void findTopics(String pattern, BiConsumer<String, V> consumer) {
+        findTopics(root, split(pattern), 0, new ArrayList<>(), consumer);
+    }
+
+    /**
+     * 在存放订阅模式的树中查找与具体主题匹配的模式
+     *
+     * @param topic    具体主题
+     * @param consumer 接收匹配模式上存放的值
+     */
+    void findPatterns(String topic, Consumer<V> consumer) {
+        findPatterns(root, split(topic), 0, consumer);
+    }
+
+    /**
+     * 递归查找与模式匹配的主题
+     */
+    private void findTopics(Node<V> node, List<String> pattern, int depth, List<String> path,
+                            BiConsumer<String, V> consumer) {
+        if (depth == pattern.size()) {
+            String topic = String.join("/", path);
+            node.values.forEach(value -> consumer.accept(topic, value));
+            return;
+        }
+        String level = pattern.get(depth);
+        if (MULTI_LEVEL.equals(level)) {
+            // "#"匹配当前节点及其全部后代
+            collectAll(node, path, consumer);
+            return;
+        }
+        if (SINGLE_LEVEL.equals(level)) {
+            for (Map.Entry<String, Node<V>> child : node.children.entrySet()) {
+                path.add(child.getKey());
+                findTopics(child.getValue(), pattern, depth + 1, path, consumer);
+                path.remove(path.size() - 1);
+            }
+            return;
+        }
+        Node<V> child = node.children.get(level);
+        if (child != null) {
+            path.add(level);
+            findTopics(child, pattern, depth + 1, path, consumer);
+            path.remove(path.size() - 1);
+        }
+    }
+
+    /**
+     * 收集节点及其全部后代上的值
+     */
+    private void collectAll(Node<V> node, List<String> path, BiConsumer<String, V> consumer) {
+        String topic = String.join("/", path);
+        node.values.forEach(value -> consumer.accept(topic, value));
+        for (Map.Entry<String, Node<V>> child : node.children.entrySet()) {
+            path.add(child.getKey());
+            collectAll(child.getValue(), path, consumer);
+            path.remove(path.size() - 1);
+        }
+    }
+
+    /**
+     * 递归查找与主题匹配的模式
+     */
+    private void findPatterns(Node<V> node, List<String> topic, int depth, Consumer<V> consumer) {
+        Node<V> multi = node.children.get(MULTI_LEVEL);
+        if (multi != null) {
+            multi.values.forEach(consumer);
+        }
+        if (depth == topic.size()) {
+            node.values.forEach(consumer);
+            return;
+        }
+        Node<V> exact = node.children.get(topic.get(depth));
+        if (exact != null) {
+            findPatterns(exact, topic, depth + 1, consumer);
+        }
+        Node<V> single = node.children.get(SINGLE_LEVEL);
+        if (single != null) {
+            findPatterns(single, topic, depth + 1, consumer);
+        }
+    }
+
+    /**
+     * 校验具体主题
+     *
+     * @param topic 主题
+     */
+    static void validateTopic(String topic) {
+        for (String level : split(topic)) {
+            if (SINGLE_LEVEL.equals(level) || MULTI_LEVEL.equals(level)) {
+                throw new IllegalArgumentException("Topic must not contain wildcards: " + topic);
+            }
+        }
+    }
+
+    /**
+     * 校验订阅模式
+     *
+     * @param pattern 模式
+     */
+    static void validatePattern(String pattern) {
+        List<String> levels = split(pattern);
+        for (int i = 0; i < levels.size() - 1; i++) {
+            if (MULTI_LEVEL.equals(levels.get(i))) {
+                throw new IllegalArgumentException("'#' must be the last level: " + pattern);
+            }
+        }
+    }
+
+    /**
+     * 按"/"拆分为各级
+     *
+     * @param path 主题或模式
+     * @return 各级名称
+     */
+    private static List<String> split(String path) {
+        if (path == null || path.isEmpty()) {
+            throw new IllegalArgumentException("Topic must not be empty");
+        }
+        List<String> levels = List.of(path.split("/", -1));
+        for (String level : levels) {
+            if (level.isEmpty()) {
+                throw new IllegalArgumentException("Topic levels must not be empty: " + path);
+            }
+        }
+        return levels;
+    }
+
+    /**
+     * 树节点
+     *
+     * @param <V> 值类型
+     */
+    private static final class Node<V> {
+
+        /**
+         * 子节点，键为下一级名称
+         */
+        private final Map<String, Node<V>> children = new HashMap<>();
+
+        /**
+         * 存放在该节点上的值
+         */
+        private final Set<V> values = new LinkedHashSet<>();
+
+        /**
+         * 是否既没有值也没有子节点
+         *
+         * @return 空节点返回true
+         */
+        private boolean isEmpty() {
+            return values.isEmpty() && children.isEmpty();
+        }
+    }
+}
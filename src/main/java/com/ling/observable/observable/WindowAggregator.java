@@ -0,0 +1,275 @@
+package com.ling.observable.observable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 窗口聚合订阅者
+ * 在推送线程上增量计算窗口统计，每个数据项只更新当前子窗口的数量、和、最小值与最大值，开销为常数；
+ * 窗口结束时合并其包含的子窗口，把结果作为新的数据项写入派生的Observable
+ * 子窗口按下标循环使用固定长度的数组，只保留最近一个窗口覆盖的子窗口
+ * 时间窗口还由调度器的定时任务推进，没有新数据项时窗口也能按时结束
+ * 推送线程与定时任务通过对象锁互斥，两者都很少争用
+ * 窗口结果不等待地写入派生的Observable，派生Observable已满时丢弃该结果并计数，
+ * 不会在持有对象锁时阻塞源Observable的推送线程
+ *
+ * @param <T> 数据类型
+ * @author Ling
+ */
+class WindowAggregator<T> extends Subscriber<T> {
+
+    private static final Logger logger = LogManager.getLogger(WindowAggregator.class);
+
+    /**
+     * 窗口定义
+     */
+    private final WindowSpec spec;
+
+    /**
+     * 从数据项中提取数值，返回NaN的数据项不参与统计
+     */
+    private final ToDoubleFunction<? super T> valueFunction;
+
+    /**
+     * 接收窗口结果的Observable
+     */
+    private final Observable<? super WindowResult> target;
+
+    /**
+     * 子窗口大小
+     */
+    private final long paneSize;
+
+    /**
+     * 每个窗口包含的子窗口数量
+     */
+    private final int panesPerWindow;
+
+    /**
+     * 每次滑动跨过的子窗口数量
+     */
+    private final long panesPerSlide;
+
+    /**
+     * 各子窗口的数据项数量
+     */
+    private final long[] counts;
+
+    /**
+     * 各子窗口的数值之和
+     */
+    private final double[] sums;
+
+    /**
+     * 各子窗口的最小值
+     */
+    private final double[] mins;
+
+    /**
+     * 各子窗口的最大值
+     */
+    private final double[] maxs;
+
+    /**
+     * 最近一个窗口覆盖的子窗口中的数据项总数，用于跳过空窗口
+     */
+    private long windowCount;
+
+    /**
+     * 正在累加的子窗口下标，-1表示尚未收到数据项
+     */
+    private long currentPane = -1;
+
+    /**
+     * 数量窗口已接收的数据项数量
+     */
+    private long received;
+
+    /**
+     * 因派生Observable已满而丢弃的窗口结果数量
+     */
+    private final AtomicLong droppedResults = new AtomicLong();
+
+    /**
+     * 时间窗口的定时推进任务
+     */
+    private ScheduledFuture<?> tick;
+
+    /**
+     * 构造函数
+     *
+     * @param spec          窗口定义
+     * @param valueFunction 从数据项中提取数值
+     * @param target        接收窗口结果的Observable
+     */
+    WindowAggregator(WindowSpec spec, ToDoubleFunction<? super T> valueFunction, Observable<? super WindowResult> target) {
+        this.spec = spec;
+        this.valueFunction = valueFunction;
+        this.target = target;
+        this.paneSize = spec.getPaneSize();
+        this.panesPerWindow = Math.toIntExact(spec.getSize() / paneSize);
+        this.panesPerSlide = spec.getSlide() / paneSize;
+        this.counts = new long[panesPerWindow];
+        this.sums = new double[panesPerWindow];
+        this.mins = new double[panesPerWindow];
+        this.maxs = new double[panesPerWindow];
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * 启动时间窗口的定时推进，每个子窗口结束时检查一次
+     *
+     * @param dispatcher 调度器，推进任务提交到推送线程执行，避免写入派生Observable时阻塞定时线程
+     */
+    void start(Dispatcher dispatcher) {
+        if (spec.isTimeBased()) {
+            tick = dispatcher.scheduleAtFixedRate(() -> dispatcher.execute(this::advanceToNow), Duration.ofMillis(paneSize));
+        }
+    }
+
+    @Override
+    public void emit(T item) {
+        synchronized (this) {
+            accept(item);
+        }
+    }
+
+    @Override
+    public void emitBatch(List<T> items) {
+        synchronized (this) {
+            for (int i = 0, size = items.size(); i < size; i++) {
+                accept(items.get(i));
+            }
+        }
+    }
+
+    /**
+     * 把数据项累加到当前子窗口，必须持有对象锁调用
+     *
+     * @param item 数据项
+     */
+    private void accept(T item) {
+        if (isClosed()) {
+            return;
+        }
+        double value = valueFunction.applyAsDouble(item);
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (spec.isTimeBased()) {
+            advance(System.currentTimeMillis() / paneSize);
+        } else {
+            advance(received / paneSize);
+        }
+
+        int slot = (int) (currentPane % panesPerWindow);
+        counts[slot]++;
+        sums[slot] += value;
+        mins[slot] = Math.min(mins[slot], value);
+        maxs[slot] = Math.max(maxs[slot], value);
+        windowCount++;
+
+        // 数量窗口在子窗口填满时立即推进，不需要等下一个数据项
+        if (!spec.isTimeBased() && ++received % paneSize == 0) {
+            advance(received / paneSize);
+        }
+    }
+
+    /**
+     * 定时任务按当前时间推进时间窗口
+     */
+    private synchronized void advanceToNow() {
+        if (!isClosed() && currentPane >= 0) {
+            advance(System.currentTimeMillis() / paneSize);
+        }
+    }
+
+    /**
+     * 推进到指定的子窗口，依次结束途经的窗口并清空移出窗口的子窗口，必须持有对象锁调用
+     * 相隔超过一个窗口时中间的窗口都为空，只需要清空全部子窗口
+     *
+     * @param pane 新的子窗口下标
+     */
+    private void advance(long pane) {
+        if (currentPane < 0) {
+            currentPane = pane;
+            return;
+        }
+        if (pane <= currentPane) {
+            return;
+        }
+        long last = currentPane + Math.min(pane - currentPane, panesPerWindow);
+        for (long boundary = currentPane + 1; boundary <= last; boundary++) {
+            // 以boundary为终点的窗口由下标[boundary - panesPerWindow, boundary)的子窗口组成，
+            // 此时它们恰好是数组中的全部子窗口
+            if (boundary % panesPerSlide == 0 && windowCount > 0
+                    && (spec.isTimeBased() || boundary >= panesPerWindow)) {
+                publish(boundary);
+            }
+            evict((int) (boundary % panesPerWindow));
+        }
+        currentPane = pane;
+    }
+
+    /**
+     * 合并子窗口并输出以boundary为终点的窗口结果
+     *
+     * @param boundary 窗口终点所在的子窗口下标（不包含）
+     */
+    private void publish(long boundary) {
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < panesPerWindow; i++) {
+            if (counts[i] > 0) {
+                sum += sums[i];
+                min = Math.min(min, mins[i]);
+                max = Math.max(max, maxs[i]);
+            }
+        }
+        long end = boundary * paneSize;
+        WindowResult result = new WindowResult(end - spec.getSize(), end, windowCount, sum, sum / windowCount, min, max);
+        if (!target.tryAddData(result)) {
+            long dropped = droppedResults.incrementAndGet();
+            logger.warn("窗口结果无法写入派生Observable，已丢弃: {}，累计丢弃: {}", result, dropped);
+        }
+    }
+
+    /**
+     * 获取因派生Observable已满或已关闭而丢弃的窗口结果数量
+     *
+     * @return 丢弃数量
+     */
+    long getDroppedResults() {
+        return droppedResults.get();
+    }
+
+    /**
+     * 清空移出窗口的子窗口
+     *
+     * @param slot 子窗口在数组中的位置
+     */
+    private void evict(int slot) {
+        windowCount -= counts[slot];
+        counts[slot] = 0;
+        sums[slot] = 0;
+        mins[slot] = Double.POSITIVE_INFINITY;
+        maxs[slot] = Double.NEGATIVE_INFINITY;
+    }
+
+    @Override
+    public void close() {
+        if (tick != null) {
+            tick.cancel(false);
+        }
+        super.close();
+    }
+}
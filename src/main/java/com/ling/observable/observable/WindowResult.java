@@ -0,0 +1,17 @@
+package com.ling.observable.observable;
+
+/**
+ * 窗口聚合结果
+ * 时间窗口的起止为毫秒时间戳，数量窗口的起止为窗口订阅开始后接收到的数据项序号，区间均为左闭右开
+ *
+ * @param start   窗口起点（包含）
+ * @param end     窗口终点（不包含）
+ * @param count   参与统计的数据项数量
+ * @param sum     数值之和
+ * @param average 平均值
+ * @param min     最小值
+ * @param max     最大值
+ * @author Ling
+ */
+public record WindowResult(long start, long end, long count, double sum, double average, double min, double max) {
+}
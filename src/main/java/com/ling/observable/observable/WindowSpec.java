@@ -0,0 +1,156 @@
+package com.ling.observable.observable;
+
+import java.time.Duration;
+
+/**
+ * 窗口定义
+ * 按数据项数量或按时间划分窗口；滑动步长等于窗口大小时为滚动窗口，小于窗口大小时为滑动窗口
+ * 窗口被切分为大小等于窗口大小与滑动步长最大公约数的子窗口（pane），每个数据项只更新所在的子窗口，
+ * 窗口结束时合并其包含的子窗口，相邻的滑动窗口共享子窗口，不需要重复累加
+ * 时间窗口按推送线程处理数据项的时间划分，边界按纪元时间对齐
+ * 每个窗口的子窗口数量不能超过MAX_PANES，例如大小1000、步长999的窗口需要1000个大小为1的子窗口，会被拒绝
+ *
+ * @author Ling
+ */
+public class WindowSpec {
+
+    /**
+     * 每个窗口最多包含的子窗口数量
+     */
+    public static final int MAX_PANES = 1024;
+
+    /**
+     * 是否按时间划分
+     */
+    private final boolean timeBased;
+
+    /**
+     * 窗口大小，时间窗口为毫秒数，数量窗口为数据项数量
+     */
+    private final long size;
+
+    /**
+     * 滑动步长，单位与窗口大小相同
+     */
+    private final long slide;
+
+    /**
+     * 构造函数
+     *
+     * @param timeBased 是否按时间划分
+     * @param size      窗口大小
+     * @param slide     滑动步长
+     */
+    private WindowSpec(boolean timeBased, long size, long slide) {
+        if (size <= 0 || slide <= 0 || slide > size) {
+            throw new IllegalArgumentException("Window slide must be in (0, size], size=" + size + ", slide=" + slide);
+        }
+        long panes = size / gcd(size, slide);
+        if (panes > MAX_PANES) {
+            throw new IllegalArgumentException("Window needs " + panes + " panes, more than " + MAX_PANES
+                    + ", size=" + size + ", slide=" + slide + "; choose a slide that divides the size more evenly");
+        }
+        this.timeBased = timeBased;
+        this.size = size;
+        this.slide = slide;
+    }
+
+    /**
+     * 按数量划分的滚动窗口
+     *
+     * @param size 每个窗口的数据项数量
+     * @return 窗口定义
+     */
+    public static WindowSpec tumblingCount(long size) {
+        return new WindowSpec(false, size, size);
+    }
+
+    /**
+     * 按数量划分的滑动窗口
+     *
+     * @param size  每个窗口的数据项数量
+     * @param slide 每隔多少个数据项输出一次
+     * @return 窗口定义
+     */
+    public static WindowSpec slidingCount(long size, long slide) {
+        return new WindowSpec(false, size, slide);
+    }
+
+    /**
+     * 按时间划分的滚动窗口
+     *
+     * @param size 窗口时长，精度为毫秒
+     * @return 窗口定义
+     */
+    public static WindowSpec tumblingTime(Duration size) {
+        return new WindowSpec(true, size.toMillis(), size.toMillis());
+    }
+
+    /**
+     * 按时间划分的滑动窗口
+     *
+     * @param size  窗口时长，精度为毫秒
+     * @param slide 输出间隔，精度为毫秒
+     * @return 窗口定义
+     */
+    public static WindowSpec slidingTime(Duration size, Duration slide) {
+        return new WindowSpec(true, size.toMillis(), slide.toMillis());
+    }
+
+    /**
+     * 是否按时间划分
+     *
+     * @return 时间窗口返回true
+     */
+    public boolean isTimeBased() {
+        return timeBased;
+    }
+
+    /**
+     * 获取窗口大小
+     *
+     * @return 时间窗口为毫秒数，数量窗口为数据项数量
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * 获取滑动步长
+     *
+     * @return 时间窗口为毫秒数，数量窗口为数据项数量
+     */
+    public long getSlide() {
+        return slide;
+    }
+
+    /**
+     * 获取子窗口大小，即窗口大小与滑动步长的最大公约数
+     *
+     * @return 子窗口大小
+     */
+    long getPaneSize() {
+        return gcd(size, slide);
+    }
+
+    /**
+     * 计算最大公约数
+     *
+     * @param a 正整数
+     * @param b 正整数
+     * @return 最大公约数
+     */
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    @Override
+    public String toString() {
+        return "WindowSpec{" + (timeBased ? "time" : "count") + ", size=" + size + ", slide=" + slide + "}";
+    }
+}
@@ -1,11 +1,32 @@
 package com.ling.observable.observable.service;
 
+import com.ling.observable.observable.Dispatcher;
+import com.ling.observable.observable.DoubleObservable;
+import com.ling.observable.observable.DoubleSubscription;
+import com.ling.observable.observable.ItemFilter;
+import com.ling.observable.observable.LagAction;
+import com.ling.observable.observable.LagPolicy;
 import com.ling.observable.observable.Observable;
+import com.ling.observable.observable.ObservableOptions;
+import com.ling.observable.observable.OverflowPolicy;
+import com.ling.observable.observable.PartitionedObservable;
+import com.ling.observable.observable.RatePolicy;
+import com.ling.observable.observable.RetentionPolicy;
 import com.ling.observable.observable.Subscription;
+import com.ling.observable.observable.SubscriptionLag;
+import com.ling.observable.observable.SubscriptionMode;
+import com.ling.observable.observable.ThrottleMode;
+import com.ling.observable.observable.TimingWheel;
+import com.ling.observable.observable.TopicRegistry;
+import com.ling.observable.observable.WindowSpec;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -34,6 +55,65 @@ public class ObservableService {
      */
     private final ConcurrentHashMap<Long, List<Subscription<Object>>> subscriptions = new ConcurrentHashMap<>();
 
+    /**
+     * 层级主题注册表，主题名到Observable的映射以及通配符订阅
+     */
+    private TopicRegistry<Object> topicRegistry;
+
+    /**
+     * 主题名到Observable ID的映射
+     */
+    private final ConcurrentHashMap<String, Long> topicIds = new ConcurrentHashMap<>();
+
+    /**
+     * 存储所有的主题订阅
+     * Key: Subscription ID
+     * Value: 合并接收所有匹配主题数据的订阅
+     */
+    private final ConcurrentHashMap<Long, Subscription<Object>> topicSubscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * 存储所有按键分区的Observable实例
+     * Key: Observable ID，与普通Observable共用ID生成器
+     * Value: 按键分区的Observable实例
+     */
+    private final ConcurrentHashMap<Long, PartitionedObservable<String, Object>> partitionedObservables = new ConcurrentHashMap<>();
+
+    /**
+     * 存储所有的分区订阅
+     * Key: Subscription ID
+     * Value: 合并接收选中分区数据的订阅
+     */
+    private final ConcurrentHashMap<Long, Subscription<Object>> partitionedSubscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * 分区订阅所属的按键分区Observable
+     * Key: Subscription ID
+     * Value: Observable ID
+     */
+    private final ConcurrentHashMap<Long, Long> partitionedSubscriptionOwners = new ConcurrentHashMap<>();
+
+    /**
+     * 遥测数据流，写入和推送都不装箱
+     * Key: 数据流名称
+     * Value: 数值类型的Observable
+     */
+    private final ConcurrentHashMap<String, DoubleObservable> telemetryStreams = new ConcurrentHashMap<>();
+
+    /**
+     * 存储所有的遥测订阅
+     * Key: Subscription ID
+     * Value: 遥测订阅
+     */
+    private final ConcurrentHashMap<Long, DoubleSubscription> telemetrySubscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * 遥测订阅所属的数据流
+     * Key: Subscription ID
+     * Value: 数据流名称
+     */
+    private final ConcurrentHashMap<Long, String> telemetrySubscriptionOwners = new ConcurrentHashMap<>();
+
     /**
      * Observable ID生成器
      */
@@ -45,20 +125,529 @@ public class ObservableService {
     private final AtomicLong subscriptionIdGenerator = new AtomicLong(0);
 
     /**
-     * 创建一个新的Observable实例
+     * 推送调度器线程数，小于等于0时使用CPU核数
+     */
+    @Value("${observable.dispatcher.threads:0}")
+    private int dispatcherThreads;
+
+    /**
+     * 是否在虚拟线程上执行推送任务
+     */
+    @Value("${observable.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    /**
+     * 默认保留的数据项数量，0表示数据被消费后立即回收
+     */
+    @Value("${observable.retention.max-items:0}")
+    private long retentionMaxItems;
+
+    /**
+     * 默认保留的字节数，0表示不限制
+     */
+    @Value("${observable.retention.max-bytes:0}")
+    private long retentionMaxBytes;
+
+    /**
+     * 默认保留时间（毫秒），0表示不限制
+     */
+    @Value("${observable.retention.max-age-ms:0}")
+    private long retentionMaxAgeMs;
+
+    /**
+     * 默认推送速率（数据项/秒），0表示不限制
+     */
+    @Value("${observable.rate.items-per-second:0}")
+    private long rateItemsPerSecond;
+
+    /**
+     * 默认推送速率（字节/秒），0表示不限制
+     */
+    @Value("${observable.rate.bytes-per-second:0}")
+    private long rateBytesPerSecond;
+
+    /**
+     * 每个订阅的缓冲区容量，0表示不限制
+     */
+    @Value("${observable.subscriber.capacity:0}")
+    private int subscriberCapacity;
+
+    /**
+     * 订阅缓冲区已满时的处理策略
+     */
+    @Value("${observable.subscriber.overflow-policy:DROP_OLDEST}")
+    private OverflowPolicy overflowPolicy;
+
+    /**
+     * 慢订阅者未读取数据项数量阈值，0表示不限制
+     */
+    @Value("${observable.lag.max-items:0}")
+    private long lagMaxItems;
+
+    /**
+     * 慢订阅者未读取数据估算字节数阈值，0表示不限制
+     */
+    @Value("${observable.lag.max-bytes:0}")
+    private long lagMaxBytes;
+
+    /**
+     * 慢订阅者最早未读取数据项等待时间阈值（毫秒），0表示不限制
+     */
+    @Value("${observable.lag.max-age-ms:0}")
+    private long lagMaxAgeMs;
+
+    /**
+     * 订阅者落后超过阈值时的处理方式
+     */
+    @Value("${observable.lag.action:EVICT}")
+    private LagAction lagAction;
+
+    /**
+     * 每个Observable的优先级通道数量，1表示不区分优先级
+     */
+    @Value("${observable.priority.lanes:1}")
+    private int priorityLanes;
+
+    /**
+     * 低优先级通道最多连续被更高优先级越过的次数
+     */
+    @Value("${observable.priority.starvation-threshold:" + Observable.DEFAULT_STARVATION_THRESHOLD + "}")
+    private int starvationThreshold;
+
+    /**
+     * 推送调度器，所有Observable共享同一组工作线程
+     */
+    private Dispatcher dispatcher;
+
+    /**
+     * 延迟添加数据使用的时间轮，所有Observable共享
+     */
+    private TimingWheel timingWheel;
+
+    /**
+     * 未指定保留策略时使用的默认策略
+     */
+    private RetentionPolicy defaultRetentionPolicy;
+
+    /**
+     * 未指定速率策略时使用的默认策略
+     */
+    private RatePolicy defaultRatePolicy;
+
+    /**
+     * 慢订阅者处理策略
+     */
+    private LagPolicy lagPolicy;
+
+    /**
+     * 初始化推送调度器、时间轮和主题注册表
+     */
+    @PostConstruct
+    public void init() {
+        dispatcher = new Dispatcher("observable-dispatcher", dispatcherThreads, virtualThreads);
+        timingWheel = new TimingWheel("observable-timing-wheel");
+        topicRegistry = new TopicRegistry<>(new ObservableOptions()
+                .subscriberCapacity(subscriberCapacity)
+                .overflowPolicy(overflowPolicy));
+        defaultRetentionPolicy = retentionPolicy(null, null, null);
+        defaultRatePolicy = ratePolicy(null, null);
+        lagPolicy = new LagPolicy(lagMaxItems, lagMaxBytes,
+                lagMaxAgeMs > 0 ? Duration.ofMillis(lagMaxAgeMs) : null, lagAction);
+        logger.info("ObservableService 已启动，推送调度器线程数: {}，虚拟线程: {}",
+                dispatcher.getThreads(), dispatcher.isVirtualThreads());
+    }
+
+    /**
+     * 创建一个新的Observable实例，使用默认保留策略和速率策略
      *
      * @return 新创建的Observable ID
      */
     public Long createObservable() {
+        return createObservable(defaultRetentionPolicy, defaultRatePolicy);
+    }
+
+    /**
+     * 创建一个新的Observable实例，使用默认速率策略
+     *
+     * @param retentionPolicy 历史数据保留策略
+     * @return 新创建的Observable ID
+     */
+    public Long createObservable(RetentionPolicy retentionPolicy) {
+        return createObservable(retentionPolicy, defaultRatePolicy);
+    }
+
+    /**
+     * 创建一个新的Observable实例
+     *
+     * @param retentionPolicy 历史数据保留策略
+     * @param ratePolicy      推送速率策略
+     * @return 新创建的Observable ID
+     */
+    public Long createObservable(RetentionPolicy retentionPolicy, RatePolicy ratePolicy) {
+        return createObservable(null, retentionPolicy, ratePolicy);
+    }
+
+    /**
+     * 创建一个新的Observable实例，并注册为层级主题
+     * 匹配该主题的已有通配符订阅会自动开始接收它的数据
+     *
+     * @param topic           主题名，例如 orders/eu/de，不能包含通配符；null表示不注册主题
+     * @param retentionPolicy 历史数据保留策略
+     * @param ratePolicy      推送速率策略
+     * @return 新创建的Observable ID
+     */
+    public Long createObservable(String topic, RetentionPolicy retentionPolicy, RatePolicy ratePolicy) {
         Long id = observableIdGenerator.incrementAndGet();
-        // 使用CopyOnWriteArrayList以支持线程安全的动态数据添加
-        Observable<Object> observable = new Observable<>(new CopyOnWriteArrayList<>());
+        // 使用环形缓冲区作为事件日志，支持多生产者常数时间写入
+        Observable<Object> observable = new Observable<>(new ObservableOptions()
+                .dispatcher(dispatcher)
+                .retentionPolicy(retentionPolicy)
+                .ratePolicy(ratePolicy)
+                .subscriberCapacity(subscriberCapacity)
+                .overflowPolicy(overflowPolicy)
+                .lagPolicy(lagPolicy)
+                .priorityLanes(priorityLanes)
+                .starvationThreshold(starvationThreshold));
         observables.put(id, observable);
         subscriptions.put(id, new CopyOnWriteArrayList<>());
-        logger.debug("创建新的Observable实例，ID: {}", id);
+        if (topic != null) {
+            try {
+                topicRegistry.register(topic, observable);
+            } catch (IllegalArgumentException e) {
+                observables.remove(id);
+                subscriptions.remove(id);
+                observable.close();
+                throw e;
+            }
+            topicIds.put(topic, id);
+        }
+        logger.debug("创建新的Observable实例，ID: {}，主题: {}，保留策略: {}，速率策略: {}", id, topic, retentionPolicy, ratePolicy);
+        return id;
+    }
+
+    /**
+     * 在指定的Observable上创建窗口统计，结果写入新创建的派生Observable
+     * 派生Observable与其他Observable一样通过ID订阅，每个数据项是一个WindowResult
+     *
+     * @param sourceId 数据来源的Observable ID
+     * @param spec     窗口定义
+     * @param field    参与统计的数值字段，null表示只统计数量
+     * @return 派生Observable的ID，数据来源不存在时返回null
+     * @throws Exception 如果数据来源已关闭
+     */
+    public Long createWindow(Long sourceId, WindowSpec spec, String field) throws Exception {
+        Observable<Object> source = observables.get(sourceId);
+        if (source == null) {
+            logger.warn("尝试为不存在的Observable创建窗口统计，ID: {}", sourceId);
+            return null;
+        }
+        Long windowId = createObservable();
+        try {
+            source.window(spec, field, observables.get(windowId));
+        } catch (Exception e) {
+            observables.remove(windowId).close();
+            subscriptions.remove(windowId);
+            throw e;
+        }
+        logger.debug("创建窗口统计，来源ID: {}，派生Observable ID: {}，窗口: {}，字段: {}", sourceId, windowId, spec, field);
+        return windowId;
+    }
+
+    /**
+     * 获取主题对应的Observable ID
+     *
+     * @param topic 主题名
+     * @return Observable ID，主题不存在时返回null
+     */
+    public Long getObservableId(String topic) {
+        return topicIds.get(topic);
+    }
+
+    /**
+     * 查找与模式匹配的主题
+     *
+     * @param pattern 订阅模式，"*"匹配一级，"#"匹配零到多级
+     * @return 匹配的主题名
+     */
+    public List<String> findTopics(String pattern) {
+        return topicRegistry.findTopics(pattern);
+    }
+
+    /**
+     * 按主题模式创建订阅，合并接收所有匹配主题的数据，包括之后创建的主题
+     *
+     * @param pattern 订阅模式，例如 orders/*&#47;de 或 orders/#
+     * @return Subscription ID
+     */
+    public Long subscribeTopic(String pattern) {
+        Subscription<Object> subscription = topicRegistry.subscribe(pattern);
+        Long subscriptionId = subscriptionIdGenerator.incrementAndGet();
+        topicSubscriptions.put(subscriptionId, subscription);
+        logger.debug("创建主题订阅，模式: {}，Subscription ID: {}", pattern, subscriptionId);
+        return subscriptionId;
+    }
+
+    /**
+     * 获取主题订阅中的下一个数据项
+     *
+     * @param subscriptionId Subscription ID
+     * @return 数据项，订阅不存在时返回null
+     * @throws InterruptedException 如果线程被中断
+     */
+    public Object takeTopicData(Long subscriptionId) throws InterruptedException {
+        Subscription<Object> subscription = topicSubscriptions.get(subscriptionId);
+        if (subscription == null) {
+            logger.warn("尝试从不存在的主题订阅获取数据，Subscription ID: {}", subscriptionId);
+            return null;
+        }
+        return subscription.take();
+    }
+
+    /**
+     * 检查主题订阅的队列是否为空
+     *
+     * @param subscriptionId Subscription ID
+     * @return 如果队列为空或订阅不存在返回true，否则返回false
+     */
+    public boolean isTopicSubscriptionEmpty(Long subscriptionId) {
+        Subscription<Object> subscription = topicSubscriptions.get(subscriptionId);
+        return subscription == null || subscription.isEmpty();
+    }
+
+    /**
+     * 取消主题订阅
+     *
+     * @param subscriptionId Subscription ID
+     * @return 订阅存在并被取消返回true
+     */
+    public boolean unsubscribeTopic(Long subscriptionId) {
+        Subscription<Object> subscription = topicSubscriptions.remove(subscriptionId);
+        if (subscription == null) {
+            return false;
+        }
+        topicRegistry.unsubscribe(subscription);
+        return true;
+    }
+
+    /**
+     * 创建按键分区的Observable，各分区使用默认保留策略和速率策略，可以在不同的工作线程上并行推送
+     *
+     * @param partitionCount 分区数量
+     * @return 新创建的Observable ID
+     * @throws IllegalArgumentException 如果分区数量小于等于0
+     */
+    public Long createPartitioned(int partitionCount) {
+        PartitionedObservable<String, Object> partitioned = new PartitionedObservable<>(partitionCount, new ObservableOptions()
+                .dispatcher(dispatcher)
+                .retentionPolicy(defaultRetentionPolicy)
+                .ratePolicy(defaultRatePolicy)
+                .subscriberCapacity(subscriberCapacity)
+                .overflowPolicy(overflowPolicy)
+                .lagPolicy(lagPolicy));
+        Long id = observableIdGenerator.incrementAndGet();
+        partitionedObservables.put(id, partitioned);
+        logger.debug("创建按键分区的Observable实例，ID: {}，分区数量: {}", id, partitionCount);
         return id;
     }
 
+    /**
+     * 按键向分区Observable添加数据，同一个键的数据进入同一个分区并保持顺序
+     *
+     * @param observableId Observable ID
+     * @param key          键
+     * @param data         要添加的数据
+     * @return 是否添加成功
+     */
+    public boolean addPartitionedData(Long observableId, String key, Object data) {
+        PartitionedObservable<String, Object> partitioned = partitionedObservables.get(observableId);
+        if (partitioned == null) {
+            logger.warn("尝试向不存在的分区Observable添加数据，ID: {}", observableId);
+            return false;
+        }
+        partitioned.addData(key, data);
+        logger.debug("向分区Observable添加数据，ID: {}，键: {}，数据: {}", observableId, key, data);
+        return true;
+    }
+
+    /**
+     * 订阅分区Observable的指定分区
+     *
+     * @param observableId Observable ID
+     * @param partitionIds 分区编号，为空时订阅全部分区
+     * @return Subscription ID，如果Observable不存在则返回null
+     * @throws Exception 如果订阅失败
+     */
+    public Long subscribePartitioned(Long observableId, int... partitionIds) throws Exception {
+        PartitionedObservable<String, Object> partitioned = partitionedObservables.get(observableId);
+        if (partitioned == null) {
+            logger.warn("尝试为不存在的分区Observable创建订阅，ID: {}", observableId);
+            return null;
+        }
+        Subscription<Object> subscription = partitionIds == null || partitionIds.length == 0
+                ? partitioned.subscribe() : partitioned.subscribe(partitionIds);
+        Long subscriptionId = subscriptionIdGenerator.incrementAndGet();
+        partitionedSubscriptions.put(subscriptionId, subscription);
+        partitionedSubscriptionOwners.put(subscriptionId, observableId);
+        logger.debug("为分区Observable创建订阅，Observable ID: {}，Subscription ID: {}", observableId, subscriptionId);
+        return subscriptionId;
+    }
+
+    /**
+     * 获取分区订阅中的下一个数据项
+     *
+     * @param subscriptionId Subscription ID
+     * @return 数据项，订阅不存在时返回null
+     * @throws InterruptedException 如果线程被中断
+     */
+    public Object takePartitionedData(Long subscriptionId) throws InterruptedException {
+        Subscription<Object> subscription = partitionedSubscriptions.get(subscriptionId);
+        if (subscription == null) {
+            logger.warn("尝试从不存在的分区订阅获取数据，Subscription ID: {}", subscriptionId);
+            return null;
+        }
+        return subscription.take();
+    }
+
+    /**
+     * 取消分区订阅
+     *
+     * @param subscriptionId Subscription ID
+     * @return 订阅存在并被取消返回true
+     */
+    public boolean unsubscribePartitioned(Long subscriptionId) {
+        Subscription<Object> subscription = partitionedSubscriptions.remove(subscriptionId);
+        Long observableId = partitionedSubscriptionOwners.remove(subscriptionId);
+        if (subscription == null || observableId == null) {
+            return false;
+        }
+        PartitionedObservable<String, Object> partitioned = partitionedObservables.get(observableId);
+        if (partitioned != null) {
+            partitioned.unsubscribe(subscription);
+        }
+        return true;
+    }
+
+    /**
+     * 获取分区Observable的分区数量
+     *
+     * @param observableId Observable ID
+     * @return 分区数量，Observable不存在时返回null
+     */
+    public Integer getPartitionCount(Long observableId) {
+        PartitionedObservable<String, Object> partitioned = partitionedObservables.get(observableId);
+        return partitioned != null ? partitioned.getPartitionCount() : null;
+    }
+
+    /**
+     * 向遥测数据流写入一个数值，数据流不存在时创建
+     * 没有订阅者时数值直接丢弃；有订阅者时缓冲区已满会等待最慢的订阅者读取
+     *
+     * @param name  数据流名称
+     * @param value 数值
+     */
+    public void recordTelemetry(String name, double value) {
+        telemetryStream(name).addData(value);
+    }
+
+    /**
+     * 订阅遥测数据流，从下一个写入的数值开始接收，数据流不存在时创建
+     *
+     * @param name 数据流名称
+     * @return Subscription ID
+     * @throws Exception 如果数据流已关闭
+     */
+    public Long subscribeTelemetry(String name) throws Exception {
+        DoubleSubscription subscription = telemetryStream(name).subscribe();
+        Long subscriptionId = subscriptionIdGenerator.incrementAndGet();
+        telemetrySubscriptions.put(subscriptionId, subscription);
+        telemetrySubscriptionOwners.put(subscriptionId, name);
+        logger.debug("创建遥测订阅，数据流: {}，Subscription ID: {}", name, subscriptionId);
+        return subscriptionId;
+    }
+
+    /**
+     * 获取遥测订阅中的下一个数值
+     *
+     * @param subscriptionId Subscription ID
+     * @return 数值，订阅不存在时返回null
+     * @throws InterruptedException 如果线程被中断
+     */
+    public Double takeTelemetry(Long subscriptionId) throws InterruptedException {
+        DoubleSubscription subscription = telemetrySubscriptions.get(subscriptionId);
+        if (subscription == null) {
+            logger.warn("尝试从不存在的遥测订阅获取数据，Subscription ID: {}", subscriptionId);
+            return null;
+        }
+        return subscription.takeDouble();
+    }
+
+    /**
+     * 取消遥测订阅，释放其读取进度，等待该订阅的生产者随之继续
+     *
+     * @param subscriptionId Subscription ID
+     * @return 订阅存在并被取消返回true
+     */
+    public boolean unsubscribeTelemetry(Long subscriptionId) {
+        DoubleSubscription subscription = telemetrySubscriptions.remove(subscriptionId);
+        String name = telemetrySubscriptionOwners.remove(subscriptionId);
+        if (subscription == null || name == null) {
+            return false;
+        }
+        telemetryStreams.get(name).unsubscribe(subscription);
+        return true;
+    }
+
+    /**
+     * 获取遥测数据流，不存在时创建
+     *
+     * @param name 数据流名称
+     * @return 数据流
+     */
+    private DoubleObservable telemetryStream(String name) {
+        return telemetryStreams.computeIfAbsent(name, key -> {
+            logger.debug("创建遥测数据流: {}", key);
+            return new DoubleObservable();
+        });
+    }
+
+    /**
+     * 根据参数构造保留策略，未指定的参数使用配置的默认值
+     *
+     * @param maxItems 最多保留的数据项数量，0表示数据被消费后立即回收
+     * @param maxBytes 最多保留的字节数，0表示不限制
+     * @param maxAgeMs 最长保留时间（毫秒），0表示不限制
+     * @return 保留策略
+     */
+    public RetentionPolicy retentionPolicy(Long maxItems, Long maxBytes, Long maxAgeMs) {
+        long ageMs = maxAgeMs != null ? maxAgeMs : retentionMaxAgeMs;
+        return new RetentionPolicy(
+                maxItems != null ? maxItems : retentionMaxItems,
+                maxBytes != null ? maxBytes : retentionMaxBytes,
+                ageMs > 0 ? Duration.ofMillis(ageMs) : null);
+    }
+
+    /**
+     * 根据参数构造速率策略，两个参数都未指定时使用配置的默认值
+     *
+     * @param itemsPerSecond 每秒最多推送的数据项数量，0表示不限制
+     * @param bytesPerSecond 每秒最多推送的字节数，0表示不限制
+     * @return 速率策略
+     * @throws IllegalArgumentException 如果同时按数据项数量和字节数限速
+     */
+    public RatePolicy ratePolicy(Long itemsPerSecond, Long bytesPerSecond) {
+        if (itemsPerSecond == null && bytesPerSecond == null) {
+            itemsPerSecond = rateItemsPerSecond;
+            bytesPerSecond = rateBytesPerSecond;
+        }
+        if (itemsPerSecond != null && itemsPerSecond > 0 && bytesPerSecond != null && bytesPerSecond > 0) {
+            throw new IllegalArgumentException("rateItemsPerSecond and rateBytesPerSecond cannot both be set");
+        }
+        if (itemsPerSecond != null && itemsPerSecond > 0) {
+            return RatePolicy.itemsPerSecond(itemsPerSecond);
+        }
+        return bytesPerSecond != null ? RatePolicy.bytesPerSecond(bytesPerSecond) : RatePolicy.UNLIMITED;
+    }
+
     /**
      * 向指定的Observable添加数据
      *
@@ -79,6 +668,86 @@ public class ObservableService {
         return true;
     }
 
+    /**
+     * 按优先级向指定的Observable添加数据
+     *
+     * @param observableId Observable ID
+     * @param data         要添加的数据
+     * @param priority     优先级，取值为[0, observable.priority.lanes)，数值越大越优先
+     * @return 是否添加成功
+     * @throws IllegalArgumentException 如果优先级超出范围
+     */
+    public boolean addData(Long observableId, Object data, int priority) {
+        Observable<Object> observable = observables.get(observableId);
+        if (observable == null) {
+            logger.warn("尝试向不存在的Observable添加数据，ID: {}", observableId);
+            return false;
+        }
+
+        observable.addData(data, priority);
+        logger.debug("向Observable添加数据，ID: {}，数据: {}，优先级: {}", observableId, data, priority);
+        return true;
+    }
+
+    /**
+     * 在指定延迟后向Observable添加数据
+     * 由共享的时间轮定时，不为每个数据项创建线程；精度为时间轮的一个刻度
+     * 到期时Observable已被关闭的数据项被丢弃；缓冲区已满时不在时间轮线程上等待，而是推迟一个刻度后重试，
+     * 因此不会推迟其他Observable的定时数据，但重试的数据项可能排在之后到期的数据项之后
+     *
+     * @param observableId Observable ID
+     * @param data         要添加的数据
+     * @param delay        延迟
+     * @return Observable存在时返回true
+     */
+    public boolean addDataAfter(Long observableId, Object data, Duration delay) {
+        Observable<Object> observable = observables.get(observableId);
+        if (observable == null) {
+            logger.warn("尝试向不存在的Observable延迟添加数据，ID: {}", observableId);
+            return false;
+        }
+        timingWheel.schedule(() -> addScheduledData(observable, observableId, data), delay);
+        logger.debug("延迟向Observable添加数据，ID: {}，数据: {}，延迟: {}", observableId, data, delay);
+        return true;
+    }
+
+    /**
+     * 在指定时间向Observable添加数据
+     *
+     * @param observableId Observable ID
+     * @param data         要添加的数据
+     * @param instant      添加时间，已过去时立即添加
+     * @return Observable存在时返回true
+     */
+    public boolean addDataAt(Long observableId, Object data, Instant instant) {
+        return addDataAfter(observableId, data, Duration.between(Instant.now(), instant));
+    }
+
+    /**
+     * 时间轮到期时添加数据，不阻塞时间轮线程
+     * 缓冲区已满时推迟一个刻度重试；Observable已关闭或时间轮已停止时丢弃
+     *
+     * @param observable   Observable
+     * @param observableId Observable ID
+     * @param data         要添加的数据
+     */
+    private void addScheduledData(Observable<Object> observable, Long observableId, Object data) {
+        if (observable.tryAddData(data)) {
+            logger.debug("定时数据已添加到Observable，ID: {}，数据: {}", observableId, data);
+            return;
+        }
+        if (observable.isClosed()) {
+            logger.warn("定时数据到期时Observable已关闭，ID: {}，数据: {}", observableId, data);
+            return;
+        }
+        try {
+            timingWheel.schedule(() -> addScheduledData(observable, observableId, data), TimingWheel.DEFAULT_TICK);
+            logger.debug("定时数据到期时Observable缓冲区已满，推迟重试，ID: {}，数据: {}", observableId, data);
+        } catch (IllegalStateException e) {
+            logger.warn("时间轮已停止，丢弃定时数据，ID: {}，数据: {}", observableId, data);
+        }
+    }
+
     /**
      * 为指定的Observable创建订阅
      *
@@ -87,18 +756,150 @@ public class ObservableService {
      * @throws Exception 如果订阅失败
      */
     public Long subscribe(Long observableId) throws Exception {
+        return subscribe(observableId, SubscriptionMode.QUEUE);
+    }
+
+    /**
+     * 为指定的Observable创建指定模式的订阅
+     *
+     * @param observableId Observable ID
+     * @param mode         订阅模式
+     * @return Subscription ID，如果Observable不存在则返回null
+     * @throws Exception 如果订阅失败
+     */
+    public Long subscribe(Long observableId, SubscriptionMode mode) throws Exception {
+        return subscribe(observableId, mode, null, null);
+    }
+
+    /**
+     * 为指定的Observable创建订阅，可以从历史位置开始回放
+     * 同时指定起始序号和起始时间时以起始序号为准
+     *
+     * @param observableId  Observable ID
+     * @param mode          订阅模式
+     * @param fromSequence  起始序号，null表示不按序号回放
+     * @param fromTimestamp 起始时间（毫秒时间戳），null表示不按时间回放
+     * @return Subscription ID，如果Observable不存在则返回null
+     * @throws Exception 如果订阅失败
+     */
+    public Long subscribe(Long observableId, SubscriptionMode mode, Long fromSequence, Long fromTimestamp) throws Exception {
+        return subscribe(observableId, mode, fromSequence, fromTimestamp, null);
+    }
+
+    /**
+     * 为指定的Observable创建订阅，可以从历史位置开始回放，也可以只接收满足过滤条件的数据
+     * 过滤订阅只支持队列模式的实时订阅
+     *
+     * @param observableId  Observable ID
+     * @param mode          订阅模式
+     * @param fromSequence  起始序号，null表示不按序号回放
+     * @param fromTimestamp 起始时间（毫秒时间戳），null表示不按时间回放
+     * @param filter        过滤条件，null表示接收全部数据
+     * @return Subscription ID，如果Observable不存在则返回null
+     * @throws Exception 如果订阅失败
+     */
+    public Long subscribe(Long observableId, SubscriptionMode mode, Long fromSequence, Long fromTimestamp,
+                          ItemFilter filter) throws Exception {
+        return subscribe(observableId, mode, fromSequence, fromTimestamp, filter, null);
+    }
+
+    /**
+     * 为指定的Observable创建订阅
+     * 合并模式需要指定作为键的字段，缓冲区中每个键只保留最新的数据项，只支持实时订阅且不能与过滤条件同时使用
+     *
+     * @param observableId  Observable ID
+     * @param mode          订阅模式
+     * @param fromSequence  起始序号，null表示不按序号回放
+     * @param fromTimestamp 起始时间（毫秒时间戳），null表示不按时间回放
+     * @param filter        过滤条件，null表示接收全部数据
+     * @param conflationKey 合并模式下作为键的字段名
+     * @return Subscription ID，如果Observable不存在则返回null
+     * @throws Exception 如果订阅失败
+     */
+    public Long subscribe(Long observableId, SubscriptionMode mode, Long fromSequence, Long fromTimestamp,
+                          ItemFilter filter, String conflationKey) throws Exception {
         Observable<Object> observable = observables.get(observableId);
         if (observable == null) {
             logger.warn("尝试为不存在的Observable创建订阅，ID: {}", observableId);
             return null;
         }
 
-        Subscription<Object> subscription = observable.subscribe();
+        boolean filtered = filter != null && !filter.isEmpty();
+        if (filtered && (mode != SubscriptionMode.QUEUE || fromSequence != null || fromTimestamp != null)) {
+            throw new IllegalArgumentException("Filtered subscriptions only support live queue mode");
+        }
+        if (mode == SubscriptionMode.CONFLATING
+                && (conflationKey == null || conflationKey.isEmpty() || fromSequence != null || fromTimestamp != null)) {
+            throw new IllegalArgumentException("Conflating subscriptions require a key field and only support live mode");
+        }
+
+        Subscription<Object> subscription;
+        if (filtered) {
+            subscription = observable.subscribe(filter);
+        } else if (mode == SubscriptionMode.CONFLATING) {
+            subscription = observable.subscribeConflating(conflationKey);
+        } else if (fromSequence != null) {
+            subscription = observable.subscribe(mode, fromSequence.longValue());
+        } else if (fromTimestamp != null) {
+            subscription = observable.subscribe(mode, Instant.ofEpochMilli(fromTimestamp));
+        } else {
+            subscription = observable.subscribe(mode);
+        }
         Long subscriptionId = subscriptionIdGenerator.incrementAndGet();
 
         // 将Subscription存储在列表中
         subscriptions.get(observableId).add(subscription);
-        logger.debug("为Observable创建新订阅，Observable ID: {}，Subscription ID: {}", observableId, subscriptionId);
+        logger.debug("为Observable创建新订阅，Observable ID: {}，Subscription ID: {}，模式: {}，起始序号: {}，起始时间: {}，过滤条件: {}",
+                observableId, subscriptionId, mode, fromSequence, fromTimestamp, filter);
+        return subscriptionId;
+    }
+
+    /**
+     * 为指定的Observable创建使用指定缓冲区容量和溢出策略的订阅
+     *
+     * @param observableId   Observable ID
+     * @param capacity       缓冲区容量，小于等于0表示不限制
+     * @param overflowPolicy 缓冲区已满时的处理策略
+     * @return Subscription ID，如果Observable不存在则返回null
+     * @throws Exception 如果订阅失败
+     */
+    public Long subscribe(Long observableId, int capacity, OverflowPolicy overflowPolicy) throws Exception {
+        Observable<Object> observable = observables.get(observableId);
+        if (observable == null) {
+            logger.warn("尝试为不存在的Observable创建订阅，ID: {}", observableId);
+            return null;
+        }
+
+        Subscription<Object> subscription = observable.subscribe(capacity, overflowPolicy);
+        Long subscriptionId = subscriptionIdGenerator.incrementAndGet();
+        subscriptions.get(observableId).add(subscription);
+        logger.debug("为Observable创建有界订阅，Observable ID: {}，Subscription ID: {}，容量: {}，溢出策略: {}",
+                observableId, subscriptionId, capacity, overflowPolicy);
+        return subscriptionId;
+    }
+
+    /**
+     * 为指定的Observable创建限流订阅
+     * 多余的数据项在推送线程上丢弃，不会进入订阅的缓冲区，适合只能低频读取的客户端
+     *
+     * @param observableId Observable ID
+     * @param throttleMode 限流方式
+     * @param interval     限流间隔
+     * @return Subscription ID，如果Observable不存在则返回null
+     * @throws Exception 如果订阅失败
+     */
+    public Long subscribe(Long observableId, ThrottleMode throttleMode, Duration interval) throws Exception {
+        Observable<Object> observable = observables.get(observableId);
+        if (observable == null) {
+            logger.warn("尝试为不存在的Observable创建订阅，ID: {}", observableId);
+            return null;
+        }
+
+        Subscription<Object> subscription = observable.subscribe(throttleMode, interval);
+        Long subscriptionId = subscriptionIdGenerator.incrementAndGet();
+        subscriptions.get(observableId).add(subscription);
+        logger.debug("为Observable创建限流订阅，Observable ID: {}，Subscription ID: {}，限流方式: {}，间隔: {}",
+                observableId, subscriptionId, throttleMode, interval);
         return subscriptionId;
     }
 
@@ -157,6 +958,36 @@ public class ObservableService {
         return observable.getSubscriberCount();
     }
 
+    /**
+     * 获取指定订阅的落后程度
+     *
+     * @param observableId   Observable ID
+     * @param subscriptionId Subscription ID
+     * @return 落后程度，订阅不存在或已被移除时返回null
+     */
+    public SubscriptionLag getLag(Long observableId, Long subscriptionId) {
+        Observable<Object> observable = observables.get(observableId);
+        Subscription<Object> subscription = getSubscription(observableId, subscriptionId);
+        if (observable == null || subscription == null) {
+            return null;
+        }
+        return observable.getLag(subscription);
+    }
+
+    /**
+     * 获取指定Observable因落后过多被移除的订阅者数量
+     *
+     * @param observableId Observable ID
+     * @return 移除数量，Observable不存在时返回null
+     */
+    public Long getEvictedCount(Long observableId) {
+        Observable<Object> observable = observables.get(observableId);
+        if (observable == null) {
+            return null;
+        }
+        return observable.getEvictedCount();
+    }
+
     /**
      * 获取指定的Subscription对象
      *
@@ -172,4 +1003,20 @@ public class ObservableService {
 
         return subs.get(subscriptionId.intValue());
     }
+
+    /**
+     * 关闭所有Observable并停止推送调度器
+     */
+    public void shutdown() {
+        if (timingWheel != null) {
+            timingWheel.stop();
+        }
+        observables.values().forEach(Observable::close);
+        partitionedObservables.values().forEach(PartitionedObservable::close);
+        telemetryStreams.values().forEach(DoubleObservable::close);
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+        logger.info("ObservableService 已关闭");
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.ling.observable.observable.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -22,6 +23,13 @@ public class SubscriptionConsumerService {
     @Autowired
     private ObservableService observableService;
 
+    /**
+     * 是否在虚拟线程上执行消费者任务
+     * 消费者大部分时间阻塞在Subscription.take()上，虚拟线程阻塞时不占用平台线程
+     */
+    @Value("${observable.virtual-threads:false}")
+    private boolean virtualThreads;
+
     /**
      * 线程池，用于处理多个订阅者的数据消费
      */
@@ -38,9 +46,14 @@ public class SubscriptionConsumerService {
      */
     @PostConstruct
     public void init() {
-        // 创建固定大小的线程池
-        executorService = Executors.newFixedThreadPool(10);
-        logger.info("SubscriptionConsumerService 已启动，线程池已初始化");
+        if (virtualThreads) {
+            // 每个消费者任务一个虚拟线程，不受固定线程数限制
+            executorService = Executors.newVirtualThreadPerTaskExecutor();
+        } else {
+            // 创建固定大小的线程池
+            executorService = Executors.newFixedThreadPool(10);
+        }
+        logger.info("SubscriptionConsumerService 已启动，线程池已初始化，虚拟线程: {}", virtualThreads);
     }
 
     /**
@@ -0,0 +1,81 @@
+package com.ling.observable.observable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * BLOCK_PRODUCER策略测试
+ * 慢订阅者的缓冲区已满时只有生产者等待，推送线程继续向其他订阅者推送
+ */
+class BlockingProducerTest {
+
+    private static final int BUFFER_SIZE = 8;
+
+    private static final int COUNT = 40;
+
+    @Test
+    void slowSubscriberBlocksProducerButNotOtherSubscribers() throws Exception {
+        Observable<Integer> observable = new Observable<>(BUFFER_SIZE);
+        Subscription<Integer> slow = observable.subscribe(2, OverflowPolicy.BLOCK_PRODUCER);
+        Subscription<Integer> fast = observable.subscribe();
+
+        FutureTask<Void> producer = new FutureTask<>(() -> {
+            for (int i = 0; i < COUNT; i++) {
+                observable.addData(i);
+            }
+            return null;
+        });
+        new Thread(producer).start();
+
+        // 慢订阅者一个都没有读取，其他订阅者仍能收到日志容量以内的数据项
+        for (int i = 0; i < BUFFER_SIZE; i++) {
+            assertEquals(i, fast.take().intValue());
+        }
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertFalse(producer.isDone(), "producer must wait for the slow subscriber");
+
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(i, slow.take().intValue());
+        }
+        producer.get(5, TimeUnit.SECONDS);
+        for (int i = BUFFER_SIZE; i < COUNT; i++) {
+            assertEquals(i, fast.take().intValue());
+        }
+        assertEquals(0L, slow.getDroppedCount());
+        observable.close();
+    }
+
+    @Test
+    void replayLongerThanCapacityIsPulledFromLog() throws Exception {
+        Observable<Integer> observable = new Observable<>(new ObservableOptions()
+                .bufferSize(64)
+                .retentionPolicy(new RetentionPolicy(32, 0, null))
+                .subscriberCapacity(2)
+                .overflowPolicy(OverflowPolicy.BLOCK_PRODUCER));
+        Subscription<Integer> live = observable.subscribe();
+        for (int i = 0; i < 10; i++) {
+            observable.addData(i);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, live.take().intValue());
+        }
+
+        // 回放的历史数据多于缓冲区容量，留在日志中按缓冲区的剩余空间拉取
+        Subscription<Integer> replay = observable.subscribe(0L);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, replay.take().intValue());
+        }
+        // 读取游标在数据项放入缓冲区之后才记录推送序号，消费位置是下界，短暂落后后追上
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (replay.getPosition() < 9 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        assertEquals(9L, replay.getPosition());
+        observable.close();
+    }
+}
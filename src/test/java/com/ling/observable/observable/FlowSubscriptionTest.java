@@ -0,0 +1,157 @@
+package com.ling.observable.observable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Flow订阅的请求数量、取消与结束测试
+ * 回调之间不能并发，onSubscribe返回之前不能有其他回调
+ */
+class FlowSubscriptionTest {
+
+    @Test
+    void deliversOnlyRequestedItemsAfterOnSubscribeReturns() throws Exception {
+        Observable<Integer> observable = new Observable<>(64);
+        RecordingSubscriber subscriber = new RecordingSubscriber(2) {
+            @Override
+            void duringSubscribe() throws InterruptedException {
+                // 已请求的数据项在onSubscribe返回之前发布，也不能并发调用onNext
+                observable.addData(0);
+                TimeUnit.MILLISECONDS.sleep(50);
+            }
+        };
+        observable.subscribe(subscriber);
+        for (int i = 1; i < 5; i++) {
+            observable.addData(i);
+        }
+
+        subscriber.awaitItems(2);
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertEquals(List.of(0, 1), subscriber.items);
+
+        subscriber.subscription.request(3);
+        subscriber.awaitItems(5);
+        assertEquals(List.of(0, 1, 2, 3, 4), subscriber.items);
+        assertEquals(0, subscriber.violations.get());
+        observable.close();
+    }
+
+    @Test
+    void cancelStopsDeliveryAndReleasesSubscription() throws Exception {
+        Observable<Integer> observable = new Observable<>(64);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        observable.subscribe(subscriber);
+        observable.addData(0);
+        subscriber.awaitItems(1);
+
+        subscriber.subscription.cancel();
+        assertEquals(0, observable.getSubscriberCount());
+        observable.addData(1);
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertEquals(List.of(0), subscriber.items);
+        assertEquals(1L, subscriber.completed.getCount());
+        observable.close();
+    }
+
+    @Test
+    void completionDuringOnSubscribeArrivesAfterIt() throws Exception {
+        Observable<Integer> observable = new Observable<>(64);
+        RecordingSubscriber subscriber = new RecordingSubscriber(1) {
+            @Override
+            void duringSubscribe() throws InterruptedException {
+                observable.close();
+                TimeUnit.MILLISECONDS.sleep(50);
+            }
+        };
+        observable.subscribe(subscriber);
+
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, subscriber.violations.get());
+        assertEquals(0, observable.getSubscriberCount());
+    }
+
+    /**
+     * 记录收到的数据项，并检查回调是否在onSubscribe期间或并发调用
+     */
+    private static class RecordingSubscriber implements Flow.Subscriber<Integer> {
+
+        private final long initialRequest;
+
+        private final List<Integer> items = new CopyOnWriteArrayList<>();
+
+        private final AtomicInteger violations = new AtomicInteger();
+
+        private final AtomicInteger active = new AtomicInteger();
+
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        private volatile Flow.Subscription subscription;
+
+        RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        void duringSubscribe() throws InterruptedException {
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            enter();
+            try {
+                this.subscription = subscription;
+                subscription.request(initialRequest);
+                duringSubscribe();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            enter();
+            items.add(item);
+            exit();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            violations.incrementAndGet();
+        }
+
+        @Override
+        public void onComplete() {
+            enter();
+            completed.countDown();
+            exit();
+        }
+
+        void awaitItems(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (items.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(count, items.size());
+        }
+
+        private void enter() {
+            if (active.getAndIncrement() != 0) {
+                violations.incrementAndGet();
+            }
+        }
+
+        private void exit() {
+            active.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.ling.observable.observable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 订阅与关闭的并发竞争测试
+ * 参照jcstress的做法：每一轮让多个订阅线程与一个关闭线程在同一时刻起跑，反复执行大量轮次，
+ * 检查所有可能的交错结果中都不会出现"订阅成功但没有收到关闭通知"的情况
+ */
+class ObservableCloseRaceTest {
+
+    /**
+     * 竞争轮数
+     */
+    private static final int ROUNDS = 2000;
+
+    /**
+     * 每轮的订阅线程数量
+     */
+    private static final int SUBSCRIBERS = 3;
+
+    @Test
+    void noSubscriptionRegistersAfterCloseWithoutBeingClosed() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(SUBSCRIBERS + 1);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                Observable<Integer> observable = new Observable<>(64);
+                CyclicBarrier start = new CyclicBarrier(SUBSCRIBERS + 1);
+                List<Future<Subscription<Integer>>> results = new ArrayList<>();
+                for (int i = 0; i < SUBSCRIBERS; i++) {
+                    SubscriptionMode mode = i % 2 == 0 ? SubscriptionMode.QUEUE : SubscriptionMode.CURSOR;
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        try {
+                            return observable.subscribe(mode);
+                        } catch (Exception e) {
+                            // 订阅晚于关闭，被拒绝是允许的结果
+                            return null;
+                        }
+                    }));
+                }
+                Future<?> closer = executor.submit(() -> {
+                    start.await();
+                    observable.close();
+                    return null;
+                });
+
+                closer.get();
+                for (Future<Subscription<Integer>> result : results) {
+                    Subscription<Integer> subscription = result.get();
+                    // 允许的结果：订阅被拒绝，或订阅成功且已收到关闭通知
+                    assertTrue(subscription == null || subscription.isClosed(),
+                            "第 " + round + " 轮出现订阅成功但未被关闭的订阅");
+                }
+                assertTrue(observable.isClosed());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ling.observable.observable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 推送时的异常隔离测试
+ * 操作符抛出的异常只关闭出错的订阅，其他订阅照常接收，Observable之后的推送不受影响
+ */
+class ObservableFailureTest {
+
+    @Test
+    void throwingOperatorOnlyClosesItsOwnSubscription() throws Exception {
+        Observable<Integer> observable = new Observable<>(64);
+        Subscription<Integer> healthy = observable.subscribe();
+        Subscription<Integer> faulty = observable.pipe()
+                .map(item -> {
+                    if (item == 3) {
+                        throw new IllegalStateException("boom");
+                    }
+                    return item;
+                })
+                .subscribe();
+
+        for (int i = 0; i < 10; i++) {
+            observable.addData(i);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, healthy.take().intValue());
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (observable.getSubscriberCount() != 1 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(faulty.isClosed());
+        assertNotNull(faulty.getError());
+        assertEquals(1, observable.getSubscriberCount());
+
+        // 推送任务没有因异常停止
+        observable.addData(10);
+        assertEquals(10, healthy.take().intValue());
+        observable.close();
+    }
+}
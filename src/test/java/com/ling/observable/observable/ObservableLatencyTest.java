@@ -0,0 +1,75 @@
+package com.ling.observable.observable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Observable推送延迟测试
+ * 验证空闲的推送线程被addData/subscribe唤醒后能立即推送数据，而不是等待轮询休眠
+ */
+class ObservableLatencyTest {
+
+    /**
+     * 采样次数
+     */
+    private static final int ROUNDS = 200;
+
+    @Test
+    void idleObservableDeliversNewItemImmediately() throws Exception {
+        Observable<Integer> observable = new Observable<>(new CopyOnWriteArrayList<>());
+        Subscription<Integer> subscription = observable.subscribe();
+
+        long[] latencies = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            // 让推送线程进入空闲挂起状态
+            Thread.sleep(2);
+
+            long start = System.nanoTime();
+            observable.addData(i);
+            Integer item = subscription.take();
+            latencies[i] = System.nanoTime() - start;
+
+            assertEquals(i, item.intValue());
+        }
+
+        Arrays.sort(latencies);
+        long median = latencies[ROUNDS / 2];
+        // 旧实现空闲时休眠100ms，中位延迟远大于1ms
+        assertTrue(median < TimeUnit.MILLISECONDS.toNanos(1),
+                "推送中位延迟过高: " + median + "ns");
+    }
+
+    @Test
+    void subscribeWakesDispatcherForBacklog() throws Exception {
+        warmUp();
+        Observable<Integer> observable = new Observable<>(new CopyOnWriteArrayList<>(Arrays.asList(1, 2, 3)));
+        // 没有订阅者时推送线程处于挂起状态
+        Thread.sleep(20);
+
+        long start = System.nanoTime();
+        Subscription<Integer> subscription = observable.subscribe();
+        for (int expected = 1; expected <= 3; expected++) {
+            assertEquals(expected, subscription.take().intValue());
+        }
+        long elapsed = System.nanoTime() - start;
+
+        // 旧实现每项数据之后固定休眠10ms，三项数据至少需要20ms
+        assertTrue(elapsed < TimeUnit.MILLISECONDS.toNanos(20),
+                "积压数据推送耗时过高: " + elapsed + "ns");
+    }
+
+    /**
+     * 预热订阅和推送路径，避免类加载和解释执行的耗时计入测量
+     */
+    private static void warmUp() throws Exception {
+        Observable<Integer> observable = new Observable<>(new CopyOnWriteArrayList<>(Arrays.asList(0)));
+        observable.subscribe().take();
+        observable.close();
+    }
+}
@@ -0,0 +1,89 @@
+package com.ling.observable.observable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 优先级通道测试
+ * 低优先级通道不会饿死；通道已满时生产者由取出唤醒，没有订阅者时不等待
+ */
+class PriorityLanesTest {
+
+    private static final int THRESHOLD = 4;
+
+    @Test
+    void lowPriorityLaneIsNotStarved() {
+        PriorityLanes<Integer> lanes = new PriorityLanes<>(2, 100, THRESHOLD, () -> false);
+        for (int i = 0; i < 10; i++) {
+            lanes.put(-i - 1, 0);
+        }
+        for (int i = 0; i < 100; i++) {
+            lanes.put(i, 1);
+        }
+
+        List<Integer> drained = new ArrayList<>();
+        lanes.drainTo(drained, Integer.MAX_VALUE);
+        assertEquals(110, drained.size());
+        // 高优先级持续到达时，低优先级每THRESHOLD次取出一个，按放入顺序
+        for (int i = 0; i < 10; i++) {
+            assertEquals(-i - 1, drained.get(THRESHOLD * (i + 1) - 1).intValue());
+        }
+    }
+
+    @Test
+    void fullLaneWakesProducerOnDrain() throws Exception {
+        PriorityLanes<Integer> lanes = new PriorityLanes<>(2, 1, THRESHOLD, () -> false);
+        lanes.put(0, 0);
+        FutureTask<Boolean> producer = new FutureTask<>(() -> lanes.put(1, 0));
+        new Thread(producer).start();
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertFalse(producer.isDone(), "producer must wait while the lane is full");
+
+        lanes.drainTo(new ArrayList<>(), 1);
+        assertTrue(producer.get(5, TimeUnit.SECONDS));
+        assertEquals(1, lanes.size());
+    }
+
+    @Test
+    void fullLaneWithoutSubscribersDoesNotBlockProducer() throws Exception {
+        Observable<Integer> observable = new Observable<>(new ObservableOptions().bufferSize(8).priorityLanes(2));
+        FutureTask<Void> producer = new FutureTask<>(() -> {
+            for (int i = 0; i < 100; i++) {
+                observable.addData(i, i % 2);
+            }
+            return null;
+        });
+        new Thread(producer).start();
+        producer.get(5, TimeUnit.SECONDS);
+        assertTrue(observable.tryAddData(100));
+        observable.close();
+    }
+
+    @Test
+    void fullLogResumesWhenCursorAdvances() throws Exception {
+        Observable<Integer> observable = new Observable<>(new ObservableOptions().bufferSize(8).priorityLanes(2));
+        Subscription<Integer> subscription = observable.subscribe(SubscriptionMode.CURSOR);
+        FutureTask<Void> producer = new FutureTask<>(() -> {
+            for (int i = 0; i < 40; i++) {
+                observable.addData(i, 0);
+            }
+            return null;
+        });
+        new Thread(producer).start();
+
+        // 事件日志和通道都写满后，只有读取进度推进才能让推送任务继续写入
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i, subscription.take().intValue());
+        }
+        producer.get(5, TimeUnit.SECONDS);
+        observable.close();
+    }
+}
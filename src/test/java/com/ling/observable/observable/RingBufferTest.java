@@ -0,0 +1,158 @@
+package com.ling.observable.observable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 环形缓冲区的回绕与门控测试，以及没有订阅者时Observable的写入
+ */
+class RingBufferTest {
+
+    private static final int BUFFER_SIZE = 8;
+
+    @Test
+    void sequencesWrapAroundBehindGatingSequence() {
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(BUFFER_SIZE);
+        Sequence consumer = new Sequence();
+        ringBuffer.addGatingSequence(consumer);
+
+        for (int lap = 0; lap < 4; lap++) {
+            for (int i = 0; i < BUFFER_SIZE; i++) {
+                long sequence = ringBuffer.next();
+                ringBuffer.set(sequence, (int) sequence);
+                ringBuffer.publish(sequence);
+            }
+            long cursor = ringBuffer.getCursor();
+            assertEquals((lap + 1L) * BUFFER_SIZE - 1, cursor);
+            // 上一圈的数据被同一槽位的新数据覆盖，序号按圈区分
+            for (long sequence = cursor - BUFFER_SIZE + 1; sequence <= cursor; sequence++) {
+                assertTrue(ringBuffer.isAvailable(sequence));
+                assertEquals((int) sequence, ringBuffer.get(sequence).intValue());
+            }
+            assertFalse(ringBuffer.isAvailable(cursor + 1));
+            consumer.set(cursor);
+        }
+    }
+
+    @Test
+    void producerWaitsForSlowestGatingSequence() throws Exception {
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(BUFFER_SIZE);
+        Sequence consumer = new Sequence();
+        ringBuffer.addGatingSequence(consumer);
+        ringBuffer.publish(ringBuffer.next(BUFFER_SIZE) - BUFFER_SIZE + 1, BUFFER_SIZE - 1);
+
+        CompletableFuture<Long> producer = CompletableFuture.supplyAsync(ringBuffer::next);
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertFalse(producer.isDone(), "producer must wait while the ring is full");
+
+        consumer.set(0);
+        assertEquals(BUFFER_SIZE, producer.get(5, TimeUnit.SECONDS).longValue());
+    }
+
+    @Test
+    void waitingProducerGivesUpWhenAborted() throws Exception {
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(BUFFER_SIZE);
+        ringBuffer.addGatingSequence(new Sequence());
+        ringBuffer.publish(ringBuffer.next(BUFFER_SIZE) - BUFFER_SIZE + 1, BUFFER_SIZE - 1);
+
+        AtomicBoolean aborted = new AtomicBoolean();
+        CompletableFuture<Long> producer = CompletableFuture.supplyAsync(() -> ringBuffer.next(1, aborted::get));
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertFalse(producer.isDone());
+
+        aborted.set(true);
+        assertEquals(RingBuffer.ABORTED, producer.get(5, TimeUnit.SECONDS).longValue());
+        assertEquals(BUFFER_SIZE - 1, ringBuffer.getCursor());
+    }
+
+    @Test
+    void tryNextFailsImmediatelyWhenFull() {
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(BUFFER_SIZE);
+        Sequence consumer = new Sequence();
+        ringBuffer.addGatingSequence(consumer);
+        ringBuffer.publish(ringBuffer.next(BUFFER_SIZE) - BUFFER_SIZE + 1, BUFFER_SIZE - 1);
+
+        assertEquals(RingBuffer.ABORTED, ringBuffer.tryNext(1));
+        assertEquals(BUFFER_SIZE - 1, ringBuffer.getCursor());
+
+        // 已满回调释放槽位后在同一次调用内成功
+        ringBuffer.setFullHandler(() -> consumer.set(0));
+        assertEquals(BUFFER_SIZE, ringBuffer.tryNext(1));
+    }
+
+    @Test
+    void addDataWithoutSubscribersKeepsNewestBacklog() throws Exception {
+        Observable<Integer> observable = new Observable<>(BUFFER_SIZE);
+        int count = BUFFER_SIZE * 10;
+        CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < count; i++) {
+                observable.addData(i);
+            }
+        });
+        producer.get(5, TimeUnit.SECONDS);
+
+        // 之后的订阅者从保留的积压数据开始接收，最后一个数据项一定还在
+        Subscription<Integer> subscription = observable.subscribe();
+        FutureTask<Integer> last = new FutureTask<>(() -> {
+            int item;
+            do {
+                item = subscription.take();
+            } while (item != count - 1);
+            return item;
+        });
+        new Thread(last).start();
+        assertEquals(count - 1, last.get(5, TimeUnit.SECONDS).intValue());
+        observable.close();
+    }
+
+    @Test
+    void closeReleasesProducerBlockedBySlowSubscriber() throws Exception {
+        Observable<Integer> observable = new Observable<>(BUFFER_SIZE);
+        // 游标订阅不读取，日志写满后生产者等待
+        observable.subscribe(SubscriptionMode.CURSOR);
+        CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < BUFFER_SIZE * 2; i++) {
+                observable.addData(i);
+            }
+        });
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertFalse(producer.isDone(), "producer must wait for the cursor subscription");
+
+        observable.close();
+        producer.get(5, TimeUnit.SECONDS);
+        assertTrue(observable.isClosed());
+    }
+
+    @Test
+    void fullBufferParksProducerUntilSpaceIsSignalled() throws Exception {
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(BUFFER_SIZE);
+        Sequence consumer = new Sequence();
+        ringBuffer.addGatingSequence(consumer);
+        AtomicInteger handled = new AtomicInteger();
+        ringBuffer.setFullHandler(handled::incrementAndGet);
+        for (int i = 0; i < BUFFER_SIZE; i++) {
+            ringBuffer.publishItem(i);
+        }
+
+        FutureTask<Long> producer = new FutureTask<>(() -> ringBuffer.next(1, () -> false));
+        new Thread(producer).start();
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertFalse(producer.isDone());
+        assertTrue(ringBuffer.hasStalledProducers());
+        // 等待期间不自旋：回收回调只在停顿开始和逐步加倍的超时之后调用
+        assertTrue(handled.get() < 100, "full handler ran " + handled.get() + " times");
+
+        consumer.set(0);
+        ringBuffer.signalSpace();
+        assertEquals(BUFFER_SIZE, producer.get(1, TimeUnit.SECONDS).longValue());
+    }
+}
@@ -0,0 +1,56 @@
+package com.ling.observable.observable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 有界订阅者丢弃数据项后的计数与消费位置测试
+ */
+class SubscriberOverflowTest {
+
+    @Test
+    void positionStaysLowerBoundAfterDropNewest() throws Exception {
+        Observable<Integer> observable = new Observable<>(64);
+        Subscription<Integer> subscription = observable.subscribe(2, OverflowPolicy.DROP_NEWEST);
+
+        // 缓冲区中为0、1，2到4被丢弃；推送序号在数据项放入缓冲区之后才记录，消费位置短暂偏小后追上
+        for (int i = 0; i < 5; i++) {
+            observable.addData(i);
+        }
+        await(() -> subscription.getDroppedCount() == 3);
+        assertEquals(3L, subscription.getOverflowDroppedCount());
+        assertEquals(0L, subscription.getDegradedDroppedCount());
+        await(() -> subscription.getPosition() == -1);
+
+        assertEquals(0, subscription.take().intValue());
+        await(() -> subscription.getPosition() == 0);
+
+        // 缓冲区中为1、5，中间的空洞不能让消费位置越过尚未读取的1
+        observable.addData(5);
+        assertTrue(subscription.getPosition() <= 0);
+        assertEquals(1, subscription.take().intValue());
+        // 5在读出1之前或之后放入缓冲区都可以，消费位置不能越过尚未读取的5
+        assertTrue(subscription.getPosition() <= 4);
+        assertEquals(5, subscription.take().intValue());
+        assertTrue(subscription.getPosition() <= 5);
+
+        // 缓冲区读空后之前的空洞都已读过，消费位置恢复精确
+        observable.addData(6);
+        assertEquals(6, subscription.take().intValue());
+        await(() -> subscription.getPosition() == 6);
+        observable.close();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,72 @@
+package com.ling.observable.observable;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 时间轮的多圈到期与取消测试
+ */
+class TimingWheelTest {
+
+    private static final Duration TICK = Duration.ofMillis(5);
+
+    /**
+     * 4个槽位一圈只有20毫秒，延迟需要多圈才能到期
+     */
+    private static final int WHEEL_SIZE = 4;
+
+    @Test
+    void delayLongerThanOneRoundDoesNotFireEarly() throws Exception {
+        TimingWheel wheel = new TimingWheel("timing-wheel-test", TICK, WHEEL_SIZE);
+        try {
+            Duration delay = Duration.ofMillis(100);
+            CountDownLatch fired = new CountDownLatch(1);
+            AtomicLong elapsed = new AtomicLong();
+            long start = System.nanoTime();
+            wheel.schedule(() -> {
+                elapsed.set(System.nanoTime() - start);
+                fired.countDown();
+            }, delay);
+
+            assertTrue(fired.await(5, TimeUnit.SECONDS));
+            assertTrue(elapsed.get() >= delay.toNanos(), "fired after " + elapsed.get() + "ns");
+            assertEquals(0L, wheel.getPendingCount());
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    @Test
+    void cancelledTimeoutNeverRuns() throws Exception {
+        TimingWheel wheel = new TimingWheel("timing-wheel-test", TICK, WHEEL_SIZE);
+        try {
+            AtomicBoolean ran = new AtomicBoolean();
+            TimingWheel.Timeout timeout = wheel.schedule(() -> ran.set(true), Duration.ofMillis(50));
+            CountDownLatch later = new CountDownLatch(1);
+            wheel.schedule(later::countDown, Duration.ofMillis(100));
+            assertEquals(2L, wheel.getPendingCount());
+
+            assertTrue(timeout.cancel());
+            assertFalse(timeout.cancel());
+            assertEquals(1L, wheel.getPendingCount());
+
+            // 之后到期的任务执行时，被取消的任务早已经过所在槽位
+            assertTrue(later.await(5, TimeUnit.SECONDS));
+            assertFalse(ran.get());
+            assertTrue(timeout.isCancelled());
+            assertFalse(timeout.isExpired());
+            assertEquals(0L, wheel.getPendingCount());
+        } finally {
+            wheel.stop();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.ling.observable.observable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 通配符订阅测试
+ */
+class TopicRegistryTest {
+
+    @Test
+    void closingOneTopicKeepsWildcardSubscriptionOpen() throws Exception {
+        TopicRegistry<String> registry = new TopicRegistry<>();
+        Observable<String> de = new Observable<>(64);
+        Observable<String> fr = new Observable<>(64);
+        registry.register("orders/eu/de", de);
+        registry.register("orders/eu/fr", fr);
+        Subscription<String> subscription = registry.subscribe("orders/#");
+
+        de.addData("de-1");
+        assertEquals("de-1", subscription.take());
+
+        // 一个主题关闭只结束这一路数据
+        de.close();
+        fr.addData("fr-1");
+        assertEquals("fr-1", subscription.take());
+        assertFalse(subscription.isClosed());
+
+        // 之后注册的匹配主题自动加入
+        Observable<String> it = new Observable<>(64);
+        registry.register("orders/eu/it", it);
+        it.addData("it-1");
+        assertEquals("it-1", subscription.take());
+
+        registry.unsubscribe(subscription);
+        assertTrue(subscription.isClosed());
+        assertEquals(0, fr.getSubscriberCount());
+        assertEquals(0, it.getSubscriberCount());
+        fr.close();
+        it.close();
+    }
+
+    @Test
+    void wildcardSubscriptionUsesConfiguredCapacity() throws Exception {
+        TopicRegistry<String> registry = new TopicRegistry<>(new ObservableOptions()
+                .subscriberCapacity(2)
+                .overflowPolicy(OverflowPolicy.FAIL_SUBSCRIBER));
+        Observable<String> de = new Observable<>(64);
+        registry.register("orders/eu/de", de);
+        Subscription<String> subscription = registry.subscribe("orders/#");
+
+        for (int i = 0; i < 3; i++) {
+            de.addData("de-" + i);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (de.getSubscriberCount() != 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        // 合并缓冲区溢出后整个通配符订阅被取消
+        assertTrue(subscription.isFailed());
+        assertTrue(subscription.isClosed());
+        assertEquals(0, de.getSubscriberCount());
+        de.close();
+    }
+}
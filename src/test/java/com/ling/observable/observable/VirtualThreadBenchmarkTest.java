@@ -0,0 +1,239 @@
+package com.ling.observable.observable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 平台线程与虚拟线程对比基准测试
+ * 为同一个Observable创建大量订阅，每个订阅由一个阻塞在Subscription.take()上的消费者线程处理，对比两种线程模式下的：
+ * 内存占用：消费者全部阻塞后的进程RSS增量，平台线程的栈在本地内存中，堆内存统计不包含，只有RSS增量可以横向比较；
+ * 唤醒延迟：每次推送唤醒全部消费者的耗时；
+ * 上下文切换：成对的消费者通过两个订阅者的缓冲区来回传递数据项，每次传递都是一次阻塞与唤醒
+ *
+ * 默认不执行，用法: mvn test -Dbenchmark=true -Dtest=VirtualThreadBenchmarkTest#virtualThreads
+ * 可通过benchmark.subscriptions、benchmark.rounds、benchmark.pairs、benchmark.exchanges调整规模；
+ * 两种模式应分别在单独的JVM中运行，否则前一次运行留下的本地内存会影响RSS增量；
+ * 平台线程模式在100k订阅下可能受操作系统线程数限制而失败
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadBenchmarkTest {
+
+    private static final Logger logger = LogManager.getLogger(VirtualThreadBenchmarkTest.class);
+
+    private static final int SUBSCRIPTIONS = Integer.getInteger("benchmark.subscriptions", 100_000);
+
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 20);
+
+    private static final int PAIRS = Integer.getInteger("benchmark.pairs", 1_000);
+
+    private static final int EXCHANGES = Integer.getInteger("benchmark.exchanges", 1_000);
+
+    @Test
+    void platformThreads() throws Exception {
+        run(false);
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        run(true);
+    }
+
+    private void run(boolean virtual) throws Exception {
+        logger.info("=== 基准测试: {}线程，订阅数量: {}，推送轮数: {}，乒乓对数: {}，每对往返次数: {} ===",
+                virtual ? "虚拟" : "平台", SUBSCRIPTIONS, ROUNDS, PAIRS, EXCHANGES);
+        measureFanOut(virtual);
+        measurePingPong(virtual);
+    }
+
+    /**
+     * 测量内存占用与推送唤醒全部消费者的耗时
+     *
+     * @param virtual 是否使用虚拟线程
+     */
+    private void measureFanOut(boolean virtual) throws Exception {
+        Dispatcher dispatcher = new Dispatcher("benchmark-dispatcher", 0, virtual);
+        Observable<Integer> observable = new Observable<>(Observable.DEFAULT_BUFFER_SIZE, dispatcher);
+        long baselineHeap = usedHeap();
+        long baselineRss = residentSetSize();
+
+        List<Subscription<Integer>> subs = new ArrayList<>(SUBSCRIPTIONS);
+        for (int i = 0; i < SUBSCRIPTIONS; i++) {
+            subs.add(observable.subscribe());
+        }
+
+        // 每轮推送一个数据项，所有消费者取到后计数
+        CountDownLatch[] roundLatches = new CountDownLatch[ROUNDS + 1];
+        for (int i = 0; i <= ROUNDS; i++) {
+            roundLatches[i] = new CountDownLatch(SUBSCRIPTIONS);
+        }
+
+        ExecutorService consumers = newConsumers(virtual);
+        long startNanos = System.nanoTime();
+        for (Subscription<Integer> subscription : subs) {
+            consumers.execute(() -> {
+                try {
+                    for (int round = 0; round <= ROUNDS; round++) {
+                        subscription.take();
+                        roundLatches[round].countDown();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        long startupMillis = (System.nanoTime() - startNanos) / 1_000_000;
+
+        try {
+            // 预热一轮，确保所有消费者都已阻塞在take()上
+            observable.addData(-1);
+            assertTrue(roundLatches[0].await(5, TimeUnit.MINUTES), "consumers did not start");
+            long heap = usedHeap() - baselineHeap;
+            long rss = residentSetSize() - baselineRss;
+
+            long wakeupNanos = 0;
+            for (int round = 1; round <= ROUNDS; round++) {
+                long roundStart = System.nanoTime();
+                observable.addData(round);
+                assertTrue(roundLatches[round].await(5, TimeUnit.MINUTES), "round " + round + " timed out");
+                wakeupNanos += System.nanoTime() - roundStart;
+            }
+
+            long wakeups = (long) SUBSCRIPTIONS * ROUNDS;
+            logger.info("消费者启动耗时: {} ms", startupMillis);
+            logger.info("进程RSS增量(订阅+消费者线程，含线程栈): {} MB，每订阅约 {} 字节",
+                    rss / (1024 * 1024), rss / SUBSCRIPTIONS);
+            logger.info("其中堆内存增量(平台线程的栈不在堆上): {} MB，每订阅约 {} 字节",
+                    heap / (1024 * 1024), heap / SUBSCRIPTIONS);
+            logger.info("每轮推送唤醒全部消费者平均耗时: {} ms，平均每次唤醒: {} ns",
+                    wakeupNanos / ROUNDS / 1_000_000, wakeupNanos / wakeups);
+        } finally {
+            consumers.shutdownNow();
+            observable.close();
+            dispatcher.shutdown();
+        }
+    }
+
+    /**
+     * 测量上下文切换开销
+     * 每对消费者各持有一个订阅者，一方把数据项放入对方的缓冲区后阻塞在自己的缓冲区上，
+     * 一次往返包含两次阻塞与唤醒，所有乒乓对同时运行，使切换在大量阻塞线程之间进行
+     *
+     * @param virtual 是否使用虚拟线程
+     */
+    private void measurePingPong(boolean virtual) throws Exception {
+        ExecutorService consumers = newConsumers(virtual);
+        CountDownLatch ready = new CountDownLatch(PAIRS * 2);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(PAIRS * 2);
+        try {
+            for (int i = 0; i < PAIRS; i++) {
+                Subscriber<Integer> ping = new Subscriber<>();
+                Subscriber<Integer> pong = new Subscriber<>();
+                consumers.execute(() -> exchange(ping, pong, true, ready, start, done));
+                consumers.execute(() -> exchange(pong, ping, false, ready, start, done));
+            }
+            assertTrue(ready.await(5, TimeUnit.MINUTES), "ping-pong threads did not start");
+            long startNanos = System.nanoTime();
+            start.countDown();
+            assertTrue(done.await(5, TimeUnit.MINUTES), "ping-pong timed out");
+            long elapsed = System.nanoTime() - startNanos;
+
+            long switches = 2L * PAIRS * EXCHANGES;
+            logger.info("乒乓往返总耗时: {} ms，平均每次上下文切换(一次阻塞与唤醒): {} ns",
+                    elapsed / 1_000_000, elapsed / switches);
+        } finally {
+            consumers.shutdownNow();
+        }
+    }
+
+    /**
+     * 乒乓的一方，从自己的订阅者取数据项后放入对方的订阅者
+     *
+     * @param own       自己的订阅者
+     * @param peer      对方的订阅者
+     * @param initiator 是否由该方发出第一个数据项
+     */
+    private void exchange(Subscriber<Integer> own, Subscriber<Integer> peer, boolean initiator,
+                          CountDownLatch ready, CountDownLatch start, CountDownLatch done) {
+        try {
+            ready.countDown();
+            start.await();
+            if (initiator) {
+                peer.emit(0);
+            }
+            Subscription<Integer> subscription = own.getSubscription();
+            for (int i = 0; i < EXCHANGES; i++) {
+                int item = subscription.take();
+                if (initiator && i == EXCHANGES - 1) {
+                    break;
+                }
+                peer.emit(item + 1);
+            }
+            done.countDown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ExecutorService newConsumers(boolean virtual) {
+        return virtual ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newThreadPerTaskExecutor(platformThreadFactory());
+    }
+
+    /**
+     * 平台线程工厂，使用较小的栈以尽量容纳更多线程
+     *
+     * @return 线程工厂
+     */
+    private static ThreadFactory platformThreadFactory() {
+        return runnable -> {
+            Thread thread = new Thread(null, runnable, "benchmark-consumer", 256 * 1024);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 统计GC后的堆内存使用量，虚拟线程挂起时的栈保存在堆上
+     *
+     * @return 已使用堆内存字节数
+     */
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * 读取进程常驻内存（仅Linux），包含堆、本地内存以及平台线程实际使用的栈页
+     *
+     * @return 常驻内存字节数，无法读取时返回0
+     */
+    private static long residentSetSize() {
+        try {
+            return Files.readAllLines(Path.of("/proc/self/status")).stream()
+                    .filter(line -> line.startsWith("VmRSS"))
+                    .map(line -> line.substring("VmRSS:".length()).trim().split("\\s+")[0])
+                    .mapToLong(kb -> Long.parseLong(kb) * 1024)
+                    .findFirst()
+                    .orElse(0);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}